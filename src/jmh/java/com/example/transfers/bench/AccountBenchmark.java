@@ -0,0 +1,84 @@
+/*¿Para qué sirve?
+
+Coste de la aritmética de saldos en memoria
+
+- withdrawDeposit:    Account.withdraw + deposit (long en centavos, ver Money)
+- bigDecimalBalance:  lo mismo con BigDecimal (como era Account antes de Money)
+- toCents:            la conversión que se paga UNA vez por petición en el DTO
+
+Lo que devuelve cada método se entrega a JMH para que el JIT
+no elimine el cálculo.
+ *
+ */
+
+package com.example.transfers.bench;
+
+import com.example.transfers.model.Account;
+import com.example.transfers.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccountBenchmark {
+
+    private final BigDecimal amount = new BigDecimal("125.50");
+    private long amountCents;
+    private Account source;
+    private Account destination;
+    private BigDecimal sourceBalance;
+    private BigDecimal destinationBalance;
+
+    @Setup
+    public void setUp() {
+        amountCents = Money.toCents(amount);
+        source = account("BENCH000001");
+        destination = account("BENCH000002");
+        sourceBalance = source.getBalance();
+        destinationBalance = destination.getBalance();
+    }
+
+    @Benchmark
+    public long withdrawDeposit() {
+        // Ida y vuelta: los saldos no cambian entre invocaciones
+        source.withdraw(amountCents);
+        destination.deposit(amountCents);
+        destination.withdraw(amountCents);
+        source.deposit(amountCents);
+        return source.getBalanceCents();
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalBalance() {
+        if (sourceBalance.compareTo(amount) < 0 || destinationBalance.compareTo(amount) < 0) {
+            throw new IllegalStateException("Saldo insuficiente");
+        }
+        sourceBalance = sourceBalance.subtract(amount);
+        destinationBalance = destinationBalance.add(amount);
+        destinationBalance = destinationBalance.subtract(amount);
+        sourceBalance = sourceBalance.add(amount);
+        return sourceBalance;
+    }
+
+    @Benchmark
+    public long toCents() {
+        return Money.toCents(amount);
+    }
+
+    private static Account account(String number) {
+        Account account = new Account();
+        account.setId(1L);
+        account.setAccountNumber(number);
+        account.setOwnerName("Cuenta de benchmark");
+        account.setBalanceCents(100_000_00L);
+        return account;
+    }
+}
@@ -0,0 +1,78 @@
+/*¿Para qué sirve?
+
+Arranca la aplicación real (TransfersApplication) contra H2 en memoria
+para los benchmarks que pasan por el servicio y los repositorios
+
+- Sin PostgreSQL ni red: r2dbc:h2:mem, esquema schema-h2.sql
+- Sin HTTP (WebApplicationType.NONE): se mide el servicio, no Netty
+- Se apaga lo que depende de PostgreSQL: trigger LISTEN/NOTIFY,
+  listener de invalidación y snapshots diarios (UPSERT con ON CONFLICT)
+- Logs en WARN: un INFO por transferencia dominaría la medición
+
+Las cifras absolutas NO son las de producción (H2 en el mismo proceso,
+sin red); sirven para comparar versiones del código entre sí.
+ *
+ */
+
+package com.example.transfers.bench;
+
+import com.example.transfers.TransfersApplication;
+import com.example.transfers.model.Account;
+import com.example.transfers.repository.AccountRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param mode - transfers.mode (standard, atomic, locked, ...)
+     */
+    static ConfigurableApplicationContext start(String mode) {
+        return new SpringApplicationBuilder(TransfersApplication.class)
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false)
+            // Argumentos de línea de comandos: tienen prioridad sobre application.yml
+            .run("--spring.profiles.active=jmh",
+                 "--spring.r2dbc.url=r2dbc:h2:mem:///transfers_jmh;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                 "--spring.r2dbc.username=sa",
+                 "--spring.r2dbc.password=",
+                 "--transfers.mode=" + mode,
+                 "--transfers.database.schema=schema-h2.sql",
+                 "--transfers.database.triggers=",
+                 "--transfers.account-cache.cross-node-invalidation=false",
+                 "--transfers.daily-balances.enabled=false",
+                 "--transfers.outbox.enabled=false",
+                 "--transfers.limits.enabled=false",
+                 // El INSERT por lotes de las FAILED usa unnest (solo PostgreSQL)
+                 "--transfers.failed-transfers.policy=none",
+                 "--logging.level.root=WARN",
+                 "--logging.level.com.example.transfers=WARN");
+    }
+
+    /**
+     * Crea 'count' cuentas BENCH000000.. con el saldo indicado
+     * @return Números de cuenta en orden
+     */
+    static List<String> createAccounts(ConfigurableApplicationContext context, int count, long balanceCents) {
+        AccountRepository repository = context.getBean(AccountRepository.class);
+        List<Account> accounts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Account account = new Account();
+            account.setAccountNumber(String.format("BENCH%06d", i));
+            account.setOwnerName("Cuenta de benchmark " + i);
+            account.setBalanceCents(balanceCents);
+            accounts.add(account);
+        }
+        return repository.saveAll(Flux.fromIterable(accounts))
+            .map(Account::getAccountNumber)
+            .collectList()
+            .block();
+    }
+}
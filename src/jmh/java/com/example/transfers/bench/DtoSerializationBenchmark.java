@@ -0,0 +1,89 @@
+/*¿Para qué sirve?
+
+Coste de (de)serializar los DTO de POST /api/transfers con Jackson
+
+Usa el mismo ObjectMapper que WebFlux (Jackson2ObjectMapperBuilder:
+JavaTimeModule, fechas ISO-8601) para que las cifras coincidan con
+lo que paga cada petición HTTP.
+ *
+ */
+
+package com.example.transfers.bench;
+
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.dto.TransferResponse;
+import com.example.transfers.model.Transfer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoSerializationBenchmark {
+
+    private ObjectReader requestReader;
+    private ObjectWriter requestWriter;
+    private ObjectReader responseReader;
+    private ObjectWriter responseWriter;
+    private TransferRequest request;
+    private TransferResponse response;
+    private byte[] requestJson;
+    private byte[] responseJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        // Reader / writer precalculados: es lo que hace el codec de WebFlux
+        requestReader = mapper.readerFor(TransferRequest.class);
+        requestWriter = mapper.writerFor(TransferRequest.class);
+        responseReader = mapper.readerFor(TransferResponse.class);
+        responseWriter = mapper.writerFor(TransferResponse.class);
+
+        request = new TransferRequest("1234567890", "0987654321", new BigDecimal("125.50"), "Pago de alquiler");
+        response = TransferResponse.builder()
+            .id(123456L)
+            .sourceAccountNumber(request.getSourceAccountNumber())
+            .destinationAccountNumber(request.getDestinationAccountNumber())
+            .amount(request.getAmount())
+            .description(request.getDescription())
+            .status(Transfer.Status.COMPLETED)
+            .createdAt(LocalDateTime.of(2024, 1, 15, 10, 30, 45, 123_000_000))
+            .message("Transferencia realizada exitosamente")
+            .build();
+        requestJson = requestWriter.writeValueAsBytes(request);
+        responseJson = responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public TransferRequest readRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public byte[] writeRequest() throws IOException {
+        return requestWriter.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public TransferResponse readResponse() throws IOException {
+        return responseReader.readValue(responseJson);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,76 @@
+/*¿Para qué sirve?
+
+Coste del camino de una transferencia FALLIDA (saldo insuficiente)
+
+- runtimeException:  new RuntimeException("Saldo insuficiente. Disponible: " + ...),
+                     como lo hacían los ejecutores antes de TransferException
+- stacklessException: new InsufficientFundsException(centavos) (sin stack trace)
+
+Ambos siguen el mismo recorrido que performTransfer:
+Mono.error → onErrorResume → TransferResponse FAILED con el mensaje.
+
+stackDepth simula la profundidad de pila en la que se crea el error:
+en un pipeline reactivo real son cientos de frames, y llenar el stack trace
+cuesta en proporción a esa profundidad.
+ *
+ */
+
+package com.example.transfers.bench;
+
+import com.example.transfers.dto.TransferResponse;
+import com.example.transfers.exception.ErrorCode;
+import com.example.transfers.exception.InsufficientFundsException;
+import com.example.transfers.model.Money;
+import com.example.transfers.model.Transfer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import reactor.core.publisher.Mono;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FailurePathBenchmark {
+
+    @Param({"10", "100"})
+    public int stackDepth;
+
+    private final long availableCents = 4_250L;
+
+    @Benchmark
+    public TransferResponse runtimeException() {
+        return failedTransfer(cents -> new RuntimeException(
+            "Saldo insuficiente. Disponible: " + Money.toDecimal(cents)));
+    }
+
+    @Benchmark
+    public TransferResponse stacklessException() {
+        return failedTransfer(cents -> new InsufficientFundsException(1L, 2L, cents));
+    }
+
+    private TransferResponse failedTransfer(LongFunction<RuntimeException> factory) {
+        return Mono.<TransferResponse>error(createAt(stackDepth, factory))
+            .onErrorResume(error -> Mono.just(TransferResponse.builder()
+                .status(Transfer.Status.FAILED)
+                .message("Error: " + error.getMessage())
+                .errorCode(ErrorCode.of(error))
+                .build()))
+            .block();
+    }
+
+    /**
+     * Crear el error con stackDepth frames por encima
+     */
+    private RuntimeException createAt(int depth, LongFunction<RuntimeException> factory) {
+        if (depth == 0) {
+            return factory.apply(availableCents);
+        }
+        return createAt(depth - 1, factory);
+    }
+}
@@ -0,0 +1,119 @@
+/*¿Para qué sirve?
+
+Sobrecoste de Reactor en el camino de una transferencia, sin BD
+
+Misma lógica (validar saldo, debitar, acreditar, armar la respuesta) ejecutada:
+- direct:        llamadas Java normales (referencia)
+- monoChain:     la cadena de operadores de performTransfer
+                 (zip de las dos cuentas → flatMap → doOnNext → map → doOnSuccess → onErrorResume)
+- schedulerHop:  la misma cadena con un publishOn (salto de hilo, como LedgerEngine)
+
+La diferencia entre direct y monoChain es lo que cuesta el modelo reactivo
+por petición; frente a un round trip a la BD debería ser despreciable.
+ *
+ */
+
+package com.example.transfers.bench;
+
+import com.example.transfers.dto.TransferResponse;
+import com.example.transfers.model.Account;
+import com.example.transfers.model.Money;
+import com.example.transfers.model.Transfer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReactivePipelineBenchmark {
+
+    private static final long AMOUNT_CENTS = 12_550L;
+
+    private Account source;
+    private Account destination;
+    private Scheduler scheduler;
+
+    @Setup
+    public void setUp() {
+        source = account(1L, "BENCH000001");
+        destination = account(2L, "BENCH000002");
+        scheduler = Schedulers.newSingle("jmh-hop");
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Benchmark
+    public TransferResponse direct() {
+        return toResponse(apply(source, destination));
+    }
+
+    @Benchmark
+    public TransferResponse monoChain() {
+        return pipeline(Mono.zip(Mono.just(source), Mono.just(destination))).block();
+    }
+
+    @Benchmark
+    public TransferResponse schedulerHop() {
+        return pipeline(Mono.zip(Mono.just(source), Mono.just(destination)).publishOn(scheduler)).block();
+    }
+
+    private Mono<TransferResponse> pipeline(Mono<Tuple2<Account, Account>> accounts) {
+        return accounts
+            .flatMap(tuple -> Mono.just(apply(tuple.getT1(), tuple.getT2())))
+            .doOnNext(transfer -> { })
+            .map(ReactivePipelineBenchmark::toResponse)
+            .doOnSuccess(response -> { })
+            .onErrorResume(error -> Mono.empty());
+    }
+
+    private static Transfer apply(Account source, Account destination) {
+        if (!source.hasFunds(AMOUNT_CENTS)) {
+            throw new IllegalStateException("Saldo insuficiente");
+        }
+        // Ida y vuelta: los saldos no cambian entre invocaciones
+        source.withdraw(AMOUNT_CENTS);
+        destination.deposit(AMOUNT_CENTS);
+        destination.withdraw(AMOUNT_CENTS);
+        source.deposit(AMOUNT_CENTS);
+
+        Transfer transfer = new Transfer();
+        transfer.setId(1L);
+        transfer.setSourceAccountId(source.getId());
+        transfer.setDestinationAccountId(destination.getId());
+        transfer.setAmount(Money.toDecimal(AMOUNT_CENTS));
+        transfer.setStatus(Transfer.Status.COMPLETED);
+        return transfer;
+    }
+
+    private static TransferResponse toResponse(Transfer transfer) {
+        return TransferResponse.builder()
+            .id(transfer.getId())
+            .amount(transfer.getAmount())
+            .status(transfer.getStatus())
+            .message("Transferencia realizada exitosamente")
+            .build();
+    }
+
+    private static Account account(Long id, String number) {
+        Account account = new Account();
+        account.setId(id);
+        account.setAccountNumber(number);
+        account.setOwnerName("Cuenta de benchmark");
+        account.setBalanceCents(100_000_00L);
+        return account;
+    }
+}
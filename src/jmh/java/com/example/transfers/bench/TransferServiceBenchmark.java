@@ -0,0 +1,101 @@
+/*¿Para qué sirve?
+
+Coste de extremo a extremo de TransferServiceImpl (sin HTTP) sobre H2
+
+- performTransfer:     ejecutor + listeners + DTO de respuesta
+- getTransferHistory:  caché de cuentas + dos streams por índice + mergeComparing
+
+CÓMO SE EVITA QUE EL SALDO SE AGOTE:
+Cada invocación mueve 0.05 entre un par de cuentas y la siguiente invocación
+sobre ese par lo devuelve (A→B, B→A), así los saldos oscilan sin bajar.
+
+modes: solo los ejecutores cuyo SQL entiende H2
+(atomic usa CTEs con UPDATE; ledger y group_commit, unnest/ON CONFLICT)
+ *
+ */
+
+package com.example.transfers.bench;
+
+import com.example.transfers.dto.TransferFilter;
+import com.example.transfers.dto.TransferPage;
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.dto.TransferResponse;
+import com.example.transfers.service.TransferService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransferServiceBenchmark {
+
+    private static final int ACCOUNTS = 100;
+    // Transferencias previas para que el historial tenga varias páginas
+    private static final int HISTORY_TRANSFERS = 5_000;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.05");
+
+    @Param({"standard", "locked", "optimistic"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private List<String> accounts;
+    private TransferFilter historyFilter;
+    private long invocations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(mode);
+        transferService = context.getBean(TransferService.class);
+        accounts = BenchmarkContext.createAccounts(context, ACCOUNTS, 100_000_000L);
+
+        // La primera cuenta participa en todas las transferencias previas
+        Flux.range(1, HISTORY_TRANSFERS)
+            .concatMap(i -> transferService.performTransfer(
+                request(accounts.get(i % 2 == 0 ? 0 : 1 + i % (ACCOUNTS - 1)),
+                        accounts.get(i % 2 == 0 ? 1 + i % (ACCOUNTS - 1) : 0))))
+            .blockLast();
+        historyFilter = TransferFilter.builder()
+            .accountNumber(accounts.get(0))
+            .limit(50)
+            .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransferResponse performTransfer() {
+        long n = invocations++;
+        // Pares (0,1), (2,3), ... y en la vuelta siguiente el sentido contrario
+        int pair = (int) ((n / 2) % (ACCOUNTS / 2));
+        String a = accounts.get(pair * 2);
+        String b = accounts.get(pair * 2 + 1);
+        TransferRequest request = n % 2 == 0 ? request(a, b) : request(b, a);
+        return transferService.performTransfer(request).block();
+    }
+
+    @Benchmark
+    public TransferPage getTransferHistory() {
+        return transferService.getTransferHistory(historyFilter).block();
+    }
+
+    private static TransferRequest request(String source, String destination) {
+        return new TransferRequest(source, destination, AMOUNT, "jmh");
+    }
+}
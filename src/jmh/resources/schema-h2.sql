@@ -0,0 +1,92 @@
+-- Esquema de schema.sql traducido a H2 (solo para los benchmarks JMH)
+-- Mismas tablas, columnas e índices; sin datos de prueba (los crea el benchmark)
+DROP TABLE IF EXISTS ledger_dead_letters CASCADE;
+DROP TABLE IF EXISTS transfer_outbox CASCADE;
+DROP TABLE IF EXISTS account_daily_balances CASCADE;
+DROP TABLE IF EXISTS transfer_idempotency CASCADE;
+DROP TABLE IF EXISTS transfers CASCADE;
+DROP TABLE IF EXISTS accounts CASCADE;
+
+CREATE TABLE accounts (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    account_number VARCHAR(20) UNIQUE NOT NULL,
+    owner_name VARCHAR(100) NOT NULL,
+    tier VARCHAR(20) NOT NULL DEFAULT 'STANDARD',
+    balance_cents BIGINT NOT NULL DEFAULT 0,
+    balance NUMERIC(15, 2) GENERATED ALWAYS AS (CAST(balance_cents / 100.0 AS NUMERIC(15, 2))),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT positive_balance CHECK (balance_cents >= 0)
+);
+
+CREATE TABLE transfers (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    source_account_id BIGINT,
+    destination_account_id BIGINT,
+    amount NUMERIC(15, 2) NOT NULL,
+    description VARCHAR(255),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    scheduled_at TIMESTAMP,
+    executed_transfer_id BIGINT,
+    CONSTRAINT fk_source_account FOREIGN KEY (source_account_id) REFERENCES accounts(id),
+    CONSTRAINT fk_destination_account FOREIGN KEY (destination_account_id) REFERENCES accounts(id),
+    CONSTRAINT positive_amount CHECK (amount > 0),
+    CONSTRAINT different_accounts CHECK (status = 'FAILED' OR source_account_id <> destination_account_id),
+    CONSTRAINT accounts_required CHECK (status = 'FAILED' OR (source_account_id IS NOT NULL AND destination_account_id IS NOT NULL))
+);
+
+CREATE TABLE transfer_idempotency (
+    idempotency_key VARCHAR(100) PRIMARY KEY,
+    transfer_id BIGINT,
+    source_account_number VARCHAR(20),
+    destination_account_number VARCHAR(20),
+    amount NUMERIC(15, 2),
+    description VARCHAR(255),
+    status VARCHAR(20),
+    message VARCHAR(500),
+    error_code VARCHAR(40),
+    transfer_created_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE account_daily_balances (
+    account_id BIGINT NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    day DATE NOT NULL,
+    opening_balance NUMERIC(15, 2) NOT NULL,
+    total_debits NUMERIC(15, 2) NOT NULL DEFAULT 0,
+    total_credits NUMERIC(15, 2) NOT NULL DEFAULT 0,
+    transfer_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (account_id, day)
+);
+
+CREATE TABLE transfer_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type VARCHAR(30) NOT NULL,
+    transfer_id BIGINT NOT NULL,
+    source_account_id BIGINT,
+    destination_account_id BIGINT,
+    amount NUMERIC(15, 2) NOT NULL,
+    transfer_created_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE ledger_dead_letters (
+    transfer_id BIGINT PRIMARY KEY,
+    source_account_id BIGINT,
+    destination_account_id BIGINT,
+    amount NUMERIC(15, 2) NOT NULL,
+    description CLOB,
+    status VARCHAR(20) NOT NULL,
+    transfer_created_at TIMESTAMP NOT NULL,
+    error VARCHAR(500),
+    failed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_transfer_source_created ON transfers(source_account_id, created_at, id);
+CREATE INDEX idx_transfer_destination_created ON transfers(destination_account_id, created_at, id);
+CREATE INDEX idx_transfer_created ON transfers(created_at, id);
+CREATE INDEX idx_transfer_scheduled ON transfers(scheduled_at, id);
+CREATE INDEX idx_transfer_status_created ON transfers(status, created_at, id);
+CREATE INDEX idx_idempotency_created ON transfer_idempotency(created_at);
@@ -0,0 +1,54 @@
+/*¿Para qué sirve?
+
+Contadores de contención de la app embebida, al lado de los percentiles:
+sin ellos, CROSS y HOT_ACCOUNT solo muestran el síntoma (latencia, FAILED)
+y no cuánto se reintentó para lograrlo.
+
+- transfers.lock.*        → mode = locked (reintentos por deadlock / timeout de lock)
+- transfers.optimistic.*  → mode = optimistic (intentos y conflictos de versión)
+
+Solo con la app embebida (sin loadtest.target): se leen de su MeterRegistry.
+Incluyen el calentamiento, igual que los contadores de la app.
+ *
+ */
+
+package com.example.transfers.loadtest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+final class ContentionReport {
+
+    private static final List<String> PREFIXES = List.of("transfers.lock.", "transfers.optimistic.");
+
+    private ContentionReport() {
+    }
+
+    /**
+     * @param transfers - Transferencias enviadas (para el promedio por transferencia)
+     */
+    static void print(PrintStream out, ConfigurableApplicationContext context, long transfers) {
+        // Un contador puede tener varias series (tags): se suman por nombre
+        Map<String, Double> totals = new TreeMap<>();
+        for (Meter meter : context.getBean(MeterRegistry.class).getMeters()) {
+            String name = meter.getId().getName();
+            if (meter instanceof Counter counter && PREFIXES.stream().anyMatch(name::startsWith)) {
+                totals.merge(name, counter.count(), Double::sum);
+            }
+        }
+        if (totals.isEmpty()) {
+            return;
+        }
+        out.println();
+        out.printf(Locale.ROOT, "%-36s %12s %16s%n", "contención (con calentamiento)", "total", "por transfer.");
+        totals.forEach((name, total) -> out.printf(Locale.ROOT, "%-36s %12.0f %16.4f%n",
+            name, total, transfers == 0 ? 0.0 : total / transfers));
+    }
+}
@@ -0,0 +1,144 @@
+/*¿Para qué sirve?
+
+Prueba de carga de extremo a extremo: ./gradlew loadTest
+
+PROBLEMA que resuelve:
+Sin medir el throughput de /api/transfers con concurrencia, el tamaño de las
+instancias en Render se decide a ojo.
+
+FLUJO:
+1. Sin loadtest.target arranca la app aquí mismo (puerto aleatorio), sobre
+   H2 en memoria o sobre el PostgreSQL local de application.yml
+2. Crea loadtest.accounts cuentas nuevas (prefijo único por ejecución)
+3. Genera llegadas abiertas a loadtest.rate por segundo durante
+   warmup + duration con la mezcla y el escenario elegidos (OpenLoopDriver)
+4. Imprime percentiles y tasa de errores por operación y guarda los
+   histogramas en build/reports/loadtest/*.hgrm
+5. Con la app embebida, también los reintentos de locked / optimistic
+   (ContentionReport): lo que cuesta la contención de CROSS y HOT_ACCOUNT
+
+Las cifras con H2 sirven para comparar modos y versiones entre sí;
+para dimensionar instancias, usar database=postgres o un target real.
+ *
+ */
+
+package com.example.transfers.loadtest;
+
+import com.example.transfers.TransfersApplication;
+import com.example.transfers.dto.AccountImportResult;
+import com.example.transfers.model.Account;
+import com.example.transfers.repository.AccountRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+public final class LoadTest {
+
+    // Saldo inicial de cada cuenta: 1.000.000,00 (no se agota durante la prueba)
+    private static final long INITIAL_BALANCE_CENTS = 100_000_000L;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+        ConfigurableApplicationContext context = options.embedded() ? start(options) : null;
+        String baseUrl = context != null
+            ? "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+            : options.target();
+        TransferApiClient client = new TransferApiClient(baseUrl, options.connections(), options.timeout());
+        try {
+            List<String> accounts = accountNumbers(options.accounts());
+            createAccounts(options, context, client, accounts);
+
+            System.out.printf(Locale.ROOT, "Carga: %s | escenario %s | %d req/s | %s + %s de calentamiento | mezcla %s%n",
+                              baseUrl, options.scenario().name().toLowerCase(Locale.ROOT), options.rate(),
+                              options.duration(), options.warmup(), options.mix());
+            LoadTestResults results = new OpenLoopDriver(options, client, accounts).run();
+            results.print(System.out, options.duration());
+            if (context != null) {
+                ContentionReport.print(System.out, context, results.sentCount(OperationType.TRANSFER));
+            }
+            results.write(options.reportDir());
+            System.out.println("Histogramas: " + options.reportDir().toAbsolutePath());
+        } finally {
+            client.close();
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(LoadTestOptions options) {
+        List<String> args = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--transfers.mode=" + options.mode(),
+            // La carga sintética supera a propósito los límites por cuenta
+            "--transfers.limits.enabled=false",
+            // Un INFO por petición dominaría la medición
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.transfers=WARN"));
+        if ("h2".equals(options.database())) {
+            args.addAll(List.of(
+                "--spring.profiles.active=loadtest",
+                "--spring.r2dbc.url=r2dbc:h2:mem:///transfers_loadtest;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "--spring.r2dbc.username=sa",
+                "--spring.r2dbc.password=",
+                "--transfers.database.schema=schema-h2.sql",
+                "--transfers.database.triggers=",
+                "--transfers.account-cache.cross-node-invalidation=false",
+                "--transfers.daily-balances.enabled=false",
+                "--transfers.outbox.enabled=false",
+                // El INSERT por lotes de las FAILED usa unnest (solo PostgreSQL)
+                "--transfers.failed-transfers.policy=none"));
+        } else if (!"postgres".equals(options.database())) {
+            throw new IllegalArgumentException("loadtest.database debe ser h2 o postgres: " + options.database());
+        }
+        return new SpringApplicationBuilder(TransfersApplication.class)
+            .web(WebApplicationType.REACTIVE)
+            .logStartupInfo(false)
+            .run(args.toArray(String[]::new));
+    }
+
+    /**
+     * LT + 4 cifras al azar + 6 cifras: no choca con cuentas de ejecuciones anteriores
+     */
+    private static List<String> accountNumbers(int count) {
+        int run = ThreadLocalRandom.current().nextInt(10_000);
+        List<String> numbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            numbers.add(String.format(Locale.ROOT, "LT%04d%06d", run, i));
+        }
+        return numbers;
+    }
+
+    private static void createAccounts(LoadTestOptions options, ConfigurableApplicationContext context,
+                                       TransferApiClient client, List<String> numbers) {
+        if (context == null) {
+            // Instancia externa: alta por la API (COPY en PostgreSQL)
+            AccountImportResult result = client.createAccounts(numbers, INITIAL_BALANCE_CENTS).block();
+            if (result == null || result.getImported() != numbers.size()) {
+                throw new IllegalStateException("No se pudieron crear las cuentas de prueba: " + result);
+            }
+            return;
+        }
+        // App embebida: directo por el repositorio (H2 no tiene COPY)
+        AccountRepository repository = context.getBean(AccountRepository.class);
+        repository.saveAll(Flux.fromIterable(numbers).map(LoadTest::newAccount))
+            .then()
+            .block();
+    }
+
+    private static Account newAccount(String number) {
+        Account account = new Account();
+        account.setAccountNumber(number);
+        account.setOwnerName("Cuenta de prueba de carga");
+        account.setBalanceCents(INITIAL_BALANCE_CENTS);
+        return account;
+    }
+}
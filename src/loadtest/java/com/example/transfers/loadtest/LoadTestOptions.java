@@ -0,0 +1,97 @@
+/*¿Para qué sirve?
+
+Opciones de la prueba de carga (system properties "loadtest.*")
+./gradlew loadTest -Ploadtest.rate=500 → -Dloadtest.rate=500
+
+loadtest.target        URL de una instancia ya en marcha; vacío → arranca la app aquí
+loadtest.database      h2 (por defecto) | postgres (application.yml, perfil default)
+loadtest.mode          transfers.mode de la app embebida (standard, atomic, locked, ...)
+loadtest.scenario      mixed | hot_account | cross
+loadtest.rate          peticiones por segundo (llegadas abiertas, no depende de las respuestas)
+loadtest.duration      duración medida (60s)
+loadtest.warmup        calentamiento previo, no se mide (10s)
+loadtest.accounts      cuentas creadas para la prueba (1000)
+loadtest.mix           reparto de operaciones: transfer=80,history=15,account=5
+loadtest.hot-share     hot_account: fracción de transferencias que tocan la cuenta caliente (0.9)
+loadtest.connections   conexiones HTTP máximas (500)
+loadtest.max-in-flight peticiones pendientes antes de descartar llegadas (10000)
+loadtest.timeout       tiempo máximo por petición (10s)
+ *
+ */
+
+package com.example.transfers.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+record LoadTestOptions(String target,
+                       String database,
+                       String mode,
+                       Scenario scenario,
+                       int rate,
+                       Duration duration,
+                       Duration warmup,
+                       int accounts,
+                       Map<OperationType, Integer> mix,
+                       double hotShare,
+                       int connections,
+                       int maxInFlight,
+                       Duration timeout,
+                       Path reportDir) {
+
+    static LoadTestOptions fromSystemProperties() {
+        LoadTestOptions options = new LoadTestOptions(
+            property("target", ""),
+            property("database", "h2").toLowerCase(Locale.ROOT),
+            property("mode", "standard"),
+            Scenario.valueOf(property("scenario", "mixed").toUpperCase(Locale.ROOT)),
+            Integer.parseInt(property("rate", "200")),
+            DurationStyle.detectAndParse(property("duration", "60s")),
+            DurationStyle.detectAndParse(property("warmup", "10s")),
+            Integer.parseInt(property("accounts", "1000")),
+            parseMix(property("mix", "transfer=80,history=15,account=5")),
+            Double.parseDouble(property("hot-share", "0.9")),
+            Integer.parseInt(property("connections", "500")),
+            Integer.parseInt(property("max-in-flight", "10000")),
+            DurationStyle.detectAndParse(property("timeout", "10s")),
+            Path.of(property("report-dir", "build/reports/loadtest")));
+        if (options.rate() <= 0 || options.accounts() < 2) {
+            throw new IllegalArgumentException("loadtest.rate debe ser > 0 y loadtest.accounts >= 2");
+        }
+        return options;
+    }
+
+    boolean embedded() {
+        return target.isBlank();
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue).trim();
+    }
+
+    /**
+     * "transfer=80,history=15,account=5" → pesos por operación (no hace falta que sumen 100)
+     */
+    private static Map<OperationType, Integer> parseMix(String value) {
+        Map<OperationType, Integer> mix = new EnumMap<>(OperationType.class);
+        for (String part : value.split(",")) {
+            String[] entry = part.split("=");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("loadtest.mix inválido: " + value);
+            }
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("loadtest.mix no admite pesos negativos: " + value);
+            }
+            mix.put(OperationType.valueOf(entry[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("loadtest.mix necesita al menos un peso > 0: " + value);
+        }
+        return mix;
+    }
+}
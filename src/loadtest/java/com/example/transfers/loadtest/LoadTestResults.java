@@ -0,0 +1,125 @@
+/*¿Para qué sirve?
+
+Resultados por tipo de operación: histograma de latencias y contadores
+
+- latencia = respuesta - instante PLANIFICADO de la llegada (no el de envío):
+  si el generador o el cliente se atrasan, ese atraso cuenta como latencia
+  (evita la "coordinated omission")
+- ok        → 2xx con status != FAILED
+- failed    → transferencia rechazada por negocio (status FAILED: saldo, conflicto...)
+- errors    → HTTP 4xx/5xx, timeout o conexión caída
+- dropped   → llegada descartada por superar loadtest.max-in-flight
+
+Los histogramas también se guardan en formato .hgrm (HdrHistogram)
+para graficarlos o comparar ejecuciones.
+ *
+ */
+
+package com.example.transfers.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+final class LoadTestResults {
+
+    private final Map<OperationType, Stats> stats = new EnumMap<>(OperationType.class);
+
+    LoadTestResults(Duration timeout) {
+        // Un poco por encima del timeout: las llegadas atrasadas pueden superarlo
+        long highestMicros = TimeUnit.NANOSECONDS.toMicros(timeout.toNanos()) * 4;
+        for (OperationType type : OperationType.values()) {
+            stats.put(type, new Stats(new ConcurrentHistogram(highestMicros, 3)));
+        }
+    }
+
+    void sent(OperationType type) {
+        stats.get(type).sent.increment();
+    }
+
+    long sentCount(OperationType type) {
+        return stats.get(type).sent.sum();
+    }
+
+    void dropped(OperationType type) {
+        stats.get(type).dropped.increment();
+    }
+
+    void completed(OperationType type, Outcome outcome, long latencyNanos) {
+        Stats entry = stats.get(type);
+        switch (outcome) {
+            case OK -> entry.ok.increment();
+            case FAILED -> entry.failed.increment();
+            case ERROR -> entry.errors.increment();
+        }
+        long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        entry.histogram.recordValue(Math.min(micros, entry.histogram.getHighestTrackableValue()));
+    }
+
+    void print(PrintStream out, Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+        out.printf(Locale.ROOT, "%-9s %9s %9s %8s %8s %8s %10s %9s %9s %9s %9s %9s%n",
+                   "operación", "enviadas", "ok", "failed", "errores", "descart.", "req/s",
+                   "p50 ms", "p99 ms", "p99.9 ms", "max ms", "% error");
+        for (Map.Entry<OperationType, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            long sent = s.sent.sum();
+            if (sent == 0 && s.dropped.sum() == 0) {
+                continue;
+            }
+            long completed = s.histogram.getTotalCount();
+            long bad = s.failed.sum() + s.errors.sum() + s.dropped.sum();
+            out.printf(Locale.ROOT, "%-9s %9d %9d %8d %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %8.2f%%%n",
+                       entry.getKey().name().toLowerCase(Locale.ROOT),
+                       sent, s.ok.sum(), s.failed.sum(), s.errors.sum(), s.dropped.sum(),
+                       completed / seconds,
+                       millis(s.histogram, 50.0), millis(s.histogram, 99.0), millis(s.histogram, 99.9),
+                       s.histogram.getMaxValue() / 1000.0,
+                       sent + s.dropped.sum() == 0 ? 0.0 : 100.0 * bad / (sent + s.dropped.sum()));
+        }
+    }
+
+    /**
+     * Un archivo <operación>.hgrm por tipo (percentiles en milisegundos)
+     */
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<OperationType, Stats> entry : stats.entrySet()) {
+            if (entry.getValue().histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Path file = directory.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    enum Outcome { OK, FAILED, ERROR }
+
+    private static final class Stats {
+        private final Histogram histogram;
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+
+        Stats(Histogram histogram) {
+            this.histogram = histogram;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*¿Para qué sirve?
+
+Generador de llegadas ABIERTO (open loop) a tasa fija
+
+PROBLEMA que resuelve:
+Un generador cerrado (N hilos que esperan cada respuesta antes de enviar
+la siguiente) baja su ritmo cuando el servidor se atasca y oculta justo
+las latencias que importan.
+
+CÓMO FUNCIONA:
+- Un hilo planifica la llegada i en start + i / rate, sin mirar las respuestas
+- Cada llegada se envía sin bloquear (subscribe) y se mide desde su
+  instante PLANIFICADO: si el hilo o el pool se atrasan, el atraso cuenta
+- Si hay más de max-in-flight pendientes, la llegada se descarta y se
+  cuenta como "descart." (el servidor no da abasto a esa tasa)
+- Las llegadas del calentamiento se envían pero no se registran
+ *
+ */
+
+package com.example.transfers.loadtest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+final class OpenLoopDriver {
+
+    private final LoadTestOptions options;
+    private final TransferApiClient client;
+    private final List<String> accounts;
+    private final OperationType[] weightedTypes;
+    private final SplittableRandom random = new SplittableRandom();
+
+    OpenLoopDriver(LoadTestOptions options, TransferApiClient client, List<String> accounts) {
+        this.options = options;
+        this.client = client;
+        this.accounts = accounts;
+        this.weightedTypes = expand(options.mix());
+    }
+
+    /**
+     * Ejecuta calentamiento + medición y espera a que terminen las pendientes
+     */
+    LoadTestResults run() throws InterruptedException {
+        LoadTestResults results = new LoadTestResults(options.timeout());
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        double intervalNanos = 1e9 / options.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intended >= measureFrom;
+            Operation operation = options.scenario().next(
+                weightedTypes[random.nextInt(weightedTypes.length)], accounts, options.hotShare(), random);
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    results.dropped(operation.type());
+                }
+                continue;
+            }
+            if (measured) {
+                results.sent(operation.type());
+            }
+            client.execute(operation)
+                .doFinally(signal -> inFlight.release())
+                .subscribe(outcome -> {
+                    if (measured) {
+                        results.completed(operation.type(), outcome, System.nanoTime() - intended);
+                    }
+                });
+        }
+
+        // Esperar las respuestas pendientes (como mucho un timeout más)
+        if (!inFlight.tryAcquire(options.maxInFlight(), options.timeout().toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            System.err.println("Aviso: quedaron peticiones sin respuesta al terminar");
+        }
+        return results;
+    }
+
+    /**
+     * {TRANSFER=80, HISTORY=15} → arreglo con 80 TRANSFER y 15 HISTORY (sorteo O(1))
+     */
+    private static OperationType[] expand(Map<OperationType, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        OperationType[] types = new OperationType[total];
+        int index = 0;
+        for (Map.Entry<OperationType, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                types[index++] = entry.getKey();
+            }
+        }
+        return types;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.transfers.loadtest;
+
+/**
+ * Una petición concreta
+ * @param account     - Cuenta consultada, u origen de la transferencia
+ * @param destination - Destino (solo TRANSFER)
+ * @param amountCents - Monto en centavos (solo TRANSFER)
+ */
+record Operation(OperationType type, String account, String destination, long amountCents) {
+
+    static Operation transfer(String source, String destination, long amountCents) {
+        return new Operation(OperationType.TRANSFER, source, destination, amountCents);
+    }
+
+    static Operation read(OperationType type, String account) {
+        return new Operation(type, account, null, 0);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.transfers.loadtest;
+
+/**
+ * Tipos de petición que genera la prueba de carga (cada uno con su histograma)
+ */
+enum OperationType {
+    // POST /api/transfers
+    TRANSFER,
+    // GET /api/transfers/history/{cuenta}
+    HISTORY,
+    // GET /api/accounts/{cuenta}
+    ACCOUNT
+}
@@ -0,0 +1,86 @@
+/*¿Para qué sirve?
+
+Escenarios de carga: qué cuentas toca cada operación
+
+- MIXED        cuentas al azar (poca contención, el caso típico)
+- HOT_ACCOUNT  casi todas las transferencias entran o salen de UNA cuenta
+               (cuenta recaudadora, comercio popular): mide la contención por fila
+- CROSS        solo A↔B en ambos sentidos a la vez: el peor caso de
+               locks cruzados (deadlocks con locks sin orden, conflictos @Version)
+
+En todos el sentido de cada transferencia es al azar, así los saldos
+oscilan alrededor del inicial y no se agotan durante la prueba.
+ *
+ */
+
+package com.example.transfers.loadtest;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+enum Scenario {
+
+    MIXED {
+        @Override
+        Operation transfer(List<String> accounts, double hotShare, SplittableRandom random) {
+            int source = random.nextInt(accounts.size());
+            // Otra cuenta distinta del origen
+            int destination = (source + 1 + random.nextInt(accounts.size() - 1)) % accounts.size();
+            return Operation.transfer(accounts.get(source), accounts.get(destination), amount(random));
+        }
+
+        @Override
+        String readTarget(List<String> accounts, double hotShare, SplittableRandom random) {
+            return accounts.get(random.nextInt(accounts.size()));
+        }
+    },
+
+    HOT_ACCOUNT {
+        @Override
+        Operation transfer(List<String> accounts, double hotShare, SplittableRandom random) {
+            if (random.nextDouble() >= hotShare) {
+                return MIXED.transfer(accounts, hotShare, random);
+            }
+            // La cuenta caliente es la primera; la otra parte, cualquiera de las demás
+            String hot = accounts.get(0);
+            String other = accounts.get(1 + random.nextInt(accounts.size() - 1));
+            return random.nextBoolean()
+                ? Operation.transfer(hot, other, amount(random))
+                : Operation.transfer(other, hot, amount(random));
+        }
+
+        @Override
+        String readTarget(List<String> accounts, double hotShare, SplittableRandom random) {
+            return random.nextDouble() < hotShare ? accounts.get(0) : MIXED.readTarget(accounts, hotShare, random);
+        }
+    },
+
+    CROSS {
+        @Override
+        Operation transfer(List<String> accounts, double hotShare, SplittableRandom random) {
+            return random.nextBoolean()
+                ? Operation.transfer(accounts.get(0), accounts.get(1), amount(random))
+                : Operation.transfer(accounts.get(1), accounts.get(0), amount(random));
+        }
+
+        @Override
+        String readTarget(List<String> accounts, double hotShare, SplittableRandom random) {
+            return accounts.get(random.nextInt(2));
+        }
+    };
+
+    abstract Operation transfer(List<String> accounts, double hotShare, SplittableRandom random);
+
+    abstract String readTarget(List<String> accounts, double hotShare, SplittableRandom random);
+
+    Operation next(OperationType type, List<String> accounts, double hotShare, SplittableRandom random) {
+        return type == OperationType.TRANSFER
+            ? transfer(accounts, hotShare, random)
+            : Operation.read(type, readTarget(accounts, hotShare, random));
+    }
+
+    // Entre 0.05 y 5.00: por encima del mínimo de TransferRequest (> 0.01)
+    private static long amount(SplittableRandom random) {
+        return 5 + random.nextInt(496);
+    }
+}
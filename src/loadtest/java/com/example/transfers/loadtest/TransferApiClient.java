@@ -0,0 +1,95 @@
+/*¿Para qué sirve?
+
+Cliente HTTP (WebClient) de la prueba de carga
+
+- execute(): una operación → OK / FAILED / ERROR (nunca propaga errores)
+- createAccounts(): alta de las cuentas de prueba por POST /api/accounts/import
+  (solo contra una instancia externa; la app embebida usa el repositorio)
+
+Pool de conexiones propio, sin cola de espera acotada: si faltan conexiones,
+la espera se ve en la latencia en lugar de convertirse en errores del cliente.
+ *
+ */
+
+package com.example.transfers.loadtest;
+
+import com.example.transfers.dto.AccountImportResult;
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.dto.TransferResponse;
+import com.example.transfers.model.Money;
+import com.example.transfers.model.Transfer;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import java.time.Duration;
+import java.util.List;
+
+final class TransferApiClient {
+
+    private final WebClient webClient;
+    private final ConnectionProvider connections;
+    private final Duration timeout;
+
+    TransferApiClient(String baseUrl, int maxConnections, Duration timeout) {
+        this.connections = ConnectionProvider.builder("loadtest")
+            .maxConnections(maxConnections)
+            .pendingAcquireMaxCount(-1)
+            .build();
+        this.webClient = WebClient.builder()
+            .baseUrl(baseUrl)
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+            .build();
+        this.timeout = timeout;
+    }
+
+    Mono<LoadTestResults.Outcome> execute(Operation operation) {
+        Mono<LoadTestResults.Outcome> call = switch (operation.type()) {
+            case TRANSFER -> webClient.post()
+                .uri("/api/transfers")
+                .bodyValue(new TransferRequest(operation.account(), operation.destination(),
+                                               Money.toDecimal(operation.amountCents()), "loadtest"))
+                // Una FAILED de negocio llega con 4xx/5xx (según su errorCode) y el body de la fallida
+                .exchangeToMono(response -> response.statusCode().is2xxSuccessful()
+                    ? response.releaseBody().thenReturn(LoadTestResults.Outcome.OK)
+                    : response.bodyToMono(TransferResponse.class)
+                        .map(body -> Transfer.Status.FAILED.equals(body.getStatus())
+                            ? LoadTestResults.Outcome.FAILED
+                            : LoadTestResults.Outcome.ERROR)
+                        .defaultIfEmpty(LoadTestResults.Outcome.ERROR));
+            case HISTORY -> webClient.get()
+                .uri("/api/transfers/history/{account}?limit=20", operation.account())
+                .retrieve()
+                .toBodilessEntity()
+                .thenReturn(LoadTestResults.Outcome.OK);
+            case ACCOUNT -> webClient.get()
+                .uri("/api/accounts/{account}", operation.account())
+                .retrieve()
+                .toBodilessEntity()
+                .thenReturn(LoadTestResults.Outcome.OK);
+        };
+        return call
+            .timeout(timeout)
+            .onErrorReturn(LoadTestResults.Outcome.ERROR);
+    }
+
+    Mono<AccountImportResult> createAccounts(List<String> accountNumbers, long balanceCents) {
+        StringBuilder csv = new StringBuilder("account_number,owner_name,balance\n");
+        String balance = Money.toDecimal(balanceCents).toPlainString();
+        for (String number : accountNumbers) {
+            csv.append(number).append(",Cuenta de prueba de carga,").append(balance).append('\n');
+        }
+        return webClient.post()
+            .uri("/api/accounts/import")
+            .contentType(new MediaType("text", "csv"))
+            .bodyValue(csv.toString())
+            .retrieve()
+            .bodyToMono(AccountImportResult.class);
+    }
+
+    void close() {
+        connections.dispose();
+    }
+}
@@ -17,6 +17,7 @@ package com.example.transfers;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
 
 @SpringBootApplication// ← Anotación "paraguas" que incluye:
@@ -25,6 +26,7 @@ import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
 //                          - @ComponentScan (escanea @Component, @Service, etc.)
 
 @EnableR2dbcRepositories// ← Activa repositorios R2DBC reactivos
+@ConfigurationPropertiesScan// ← Registra las clases @ConfigurationProperties (config/TransferProperties)
 public class TransfersApplication {
     
     public static void main(String[] args) {
@@ -4,6 +4,9 @@
 Define beans (objetos que Spring gestiona)
 En este caso: ejecuta schema.sql automáticamente al arrancar
 Crea las tablas y datos iniciales
+Después ejecuta los triggers: account_notify.sql (avisos LISTEN/NOTIFY)
+y, solo con transfers.outbox.enabled, transfer_outbox.sql (eventos de transferencias completadas)
+Ambos scripts se configuran en transfers.database (los benchmarks JMH usan un esquema H2)
  */
 
 package com.example.transfers.config;
@@ -12,8 +15,10 @@ import io.r2dbc.spi.ConnectionFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.CompositeDatabasePopulator;
 import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
 import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.util.StringUtils;
 
 @Configuration
 public class DatabaseConfig {
@@ -23,11 +28,15 @@ public class DatabaseConfig {
      * PROPÓSITO: Ejecutar schema.sql al iniciar la aplicación
      * 
      * @param connectionFactory - Spring lo inyecta automáticamente
+     * @param properties - transfers.database: qué scripts ejecutar
      * @return Inicializador configurado
      */
     
     @Bean
-    public ConnectionFactoryInitializer initializer(ConnectionFactory connectionFactory) {
+    public ConnectionFactoryInitializer initializer(ConnectionFactory connectionFactory,
+                                                    TransferProperties properties) {
+        TransferProperties.Database database = properties.getDatabase();
+        TransferProperties.Outbox outbox = properties.getOutbox();
         // Crear el inicializador
         ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
         initializer.setConnectionFactory(connectionFactory);
@@ -35,9 +44,29 @@ public class DatabaseConfig {
         // Configurar el script SQL a ejecutar
         ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
         // ClassPathResource busca el archivo en src/main/resources/
-        populator.addScript(new ClassPathResource("schema.sql"));
-        // Asignar el populator al inicializador
-        initializer.setDatabasePopulator(populator);
+        populator.addScript(new ClassPathResource(database.getSchema()));
+        
+        // Sin script de triggers (bases que no son PostgreSQL): solo el esquema
+        // (el del outbox tampoco: usa plpgsql)
+        if (!StringUtils.hasText(database.getTriggers())) {
+            initializer.setDatabasePopulator(populator);
+            return initializer;
+        }
+        
+        // Triggers (lista separada por comas): el cuerpo plpgsql tiene ';' internos,
+        // así que estos scripts separan sentencias con "@@"
+        ResourceDatabasePopulator triggers = new ResourceDatabasePopulator();
+        for (String script : StringUtils.commaDelimitedListToStringArray(database.getTriggers())) {
+            triggers.addScript(new ClassPathResource(script.trim()));
+        }
+        // Outbox apagado → sin trigger: nadie drenaría transfer_outbox y crecería sin límite
+        if (outbox.isEnabled()) {
+            triggers.addScript(new ClassPathResource(outbox.getTrigger()));
+        }
+        triggers.setSeparator("@@");
+        
+        // Asignar los populators al inicializador (se ejecutan en orden)
+        initializer.setDatabasePopulator(new CompositeDatabasePopulator(populator, triggers));
         
         return initializer;
     }
@@ -0,0 +1,52 @@
+/*¿Para qué sirve?
+
+Configuración de métricas (Micrometer)
+
+- Envuelve el ConnectionFactory (el pool R2DBC) con MeteredConnectionFactory
+  para medir la espera de conexión; el envoltorio también cierra el pool
+  al apagar la app (destroyMethod = "dispose" del bean original)
+- Tope de seguridad de cardinalidad: si algún cambio futuro llegara a usar
+  valores libres en el tag reason, las series nuevas se descartan
+  en lugar de crecer sin límite
+ *
+ */
+
+package com.example.transfers.config;
+
+import com.example.transfers.service.metrics.FailureReason;
+import com.example.transfers.service.metrics.MeteredConnectionFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * static: los BeanPostProcessor se crean antes que el resto de beans
+     * El MeterRegistry se pide tarde (ObjectProvider) para no adelantar su creación
+     */
+    @Bean
+    public static BeanPostProcessor meteredConnectionFactoryPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConnectionFactory connectionFactory
+                        && !(bean instanceof MeteredConnectionFactory)) {
+                    return new MeteredConnectionFactory(connectionFactory, meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterFilter transferFailureReasonCardinalityLimit() {
+        return MeterFilter.maximumAllowableTags("transfers.failures", "reason",
+                                                FailureReason.values().length, MeterFilter.deny());
+    }
+}
@@ -0,0 +1,363 @@
+/*¿Para qué sirve?
+
+Agrupa la configuración propia de la API bajo el prefijo "transfers"
+Spring la llena automáticamente desde application.yml:
+
+transfers:
+  mode: atomic
+
+Así evitamos valores "mágicos" repartidos por el código.
+ *
+ */
+
+package com.example.transfers.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "transfers")
+public class TransferProperties {
+
+    /**
+     * Modo de ejecución de las transferencias
+     * STANDARD es el flujo original (lecturas + saves desde Java)
+     */
+    private Mode mode = Mode.STANDARD;
+
+    // Motor de saldos en memoria (solo se usa con mode = LEDGER)
+    private Ledger ledger = new Ledger();
+
+    // Agrupación de escrituras (solo se usa con mode = GROUP_COMMIT)
+    private GroupCommit groupCommit = new GroupCommit();
+
+    // Locks pesimistas ordenados (solo se usa con mode = LOCKED)
+    private Locking locking = new Locking();
+
+    // Bloqueo optimista con @Version (solo se usa con mode = OPTIMISTIC)
+    private Optimistic optimistic = new Optimistic();
+
+    // Header Idempotency-Key de POST /api/transfers
+    private Idempotency idempotency = new Idempotency();
+
+    // POST /api/transfers/bulk
+    private Bulk bulk = new Bulk();
+
+    // Tamaño de página de GET /api/transfers
+    private Pagination pagination = new Pagination();
+
+    // Snapshots diarios de saldo (service/balance/DailyBalanceAggregator)
+    private DailyBalances dailyBalances = new DailyBalances();
+
+    // Exportación de extractos (service/export/StatementExporter)
+    private Export export = new Export();
+
+    // Alta masiva de cuentas (service/onboarding/AccountImporter)
+    private AccountImport accountImport = new AccountImport();
+
+    // Scripts que ejecuta DatabaseConfig al arrancar
+    private Database database = new Database();
+
+    // Registro de las transferencias FAILED (service/audit/FailedTransferRecorder)
+    private FailedTransfers failedTransfers = new FailedTransfers();
+
+    // Publicación de eventos de transferencias (service/outbox/OutboxRelay)
+    private Outbox outbox = new Outbox();
+
+    // GET /api/transfers/stream (service/stream/TransferFeed)
+    private Stream stream = new Stream();
+
+    // POST /api/transfers asíncrono: PENDING + workers (service/settlement/SettlementWorkers)
+    private Async async = new Async();
+
+    // Transferencias programadas (service/schedule/TransferScheduler)
+    private Scheduling scheduling = new Scheduling();
+
+    // Límites diarios y de velocidad por cuenta (service/limits/AccountLimiter)
+    private Limits limits = new Limits();
+
+    // Caché de lecturas de cuentas por número (service/cache/AccountCache)
+    private AccountCache accountCache = new AccountCache();
+
+    // ===== MODOS DE EJECUCIÓN =====
+    public enum Mode {
+        // Busca ambas cuentas, calcula en Java y guarda las filas completas
+        STANDARD,
+        // Débito, crédito e INSERT en una sola sentencia SQL (un round trip)
+        ATOMIC,
+        // Saldos en memoria con un único hilo escritor; la BD se actualiza por lotes
+        LEDGER,
+        // Agrupa las transferencias de una ventana corta en una sola transacción
+        GROUP_COMMIT,
+        // SELECT ... FOR UPDATE ordenado por id dentro de una transacción
+        LOCKED,
+        // Sin locks: @Version en Account y reintento ante conflicto
+        OPTIMISTIC
+    }
+
+    @Data
+    public static class Ledger {
+        // Comandos en cola antes de rechazar transferencias (motor saturado)
+        private int ringSize = 65536;
+        // Máximo de entradas del journal escritas en una transacción
+        private int journalBatchSize = 500;
+        // Tiempo máximo que una entrada espera a completar su lote
+        private Duration journalMaxWait = Duration.ofMillis(5);
+        // Entradas pendientes de escribir antes de rechazar transferencias
+        private int journalQueueCapacity = 262144;
+        // Intentos por lote ante errores transitorios (conexión, serialización);
+        // agotados, sus entradas se escriben de a una o van a ledger_dead_letters
+        private int journalMaxAttempts = 10;
+        // IDs de transferencia reservados por cada viaje a la secuencia
+        private int idBlockSize = 1000;
+    }
+
+    @Data
+    public static class GroupCommit {
+        // Tiempo máximo que una transferencia espera a que se forme su lote
+        private Duration window = Duration.ofMillis(2);
+        // Máximo de transferencias por transacción
+        private int maxBatchSize = 200;
+        // Transferencias en espera antes de rechazar nuevas (sistema saturado)
+        private int queueCapacity = 10000;
+    }
+
+    @Data
+    public static class Locking {
+        // Intentos totales ante deadlock / fallo de serialización
+        private int maxAttempts = 5;
+        // Espera antes del primer reintento (crece exponencialmente con jitter)
+        private Duration minBackoff = Duration.ofMillis(10);
+        private Duration maxBackoff = Duration.ofMillis(200);
+    }
+
+    @Data
+    public static class Optimistic {
+        // Intentos totales ante OptimisticLockingFailureException
+        private int maxAttempts = 5;
+        // Espera antes del primer reintento (crece exponencialmente con jitter)
+        private Duration minBackoff = Duration.ofMillis(5);
+        private Duration maxBackoff = Duration.ofMillis(100);
+    }
+
+    @Data
+    public static class Idempotency {
+        // Cuánto tiempo se recuerda una respuesta en memoria
+        private Duration cacheTtl = Duration.ofMinutes(10);
+        // Máximo de claves en memoria (las menos usadas se descartan)
+        private long cacheMaxSize = 100_000;
+        // Cuánto tiempo se conserva una clave en la tabla
+        private Duration retention = Duration.ofHours(24);
+        // Cada cuánto se purgan las claves vencidas de la tabla
+        private Duration purgeInterval = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Bulk {
+        // Transferencias en ejecución a la vez por cada petición bulk
+        // (con mode = GROUP_COMMIT conviene que sea >= max-batch-size)
+        private int concurrency = 256;
+    }
+
+    @Data
+    public static class AccountCache {
+        private boolean enabled = true;
+        // Máximo de cuentas en memoria (W-TinyLFU: se descartan las menos usadas)
+        private long maxSize = 10_000;
+        // Tiempo máximo que una entrada puede quedar sin refrescar
+        private Duration ttl = Duration.ofSeconds(30);
+        // false → solo id/titular; GET /api/accounts/{n} sigue leyendo el saldo de la BD
+        // true → también el saldo (se invalida tras cada transferencia)
+        private boolean cacheBalance = false;
+        // Escuchar LISTEN account_changes para invalidar cambios hechos por otras réplicas
+        private boolean crossNodeInvalidation = true;
+        // Espera entre reconexiones del listener si se pierde la conexión
+        private Duration listenRetryBackoff = Duration.ofSeconds(1);
+        // Avisos "B:" (saldo cambiado) por NOTIFY; solo con cache-balance y cross-node-invalidation
+        private int balanceNotifyBatchSize = 500;
+        // Espera máxima antes de mandar un lote incompleto de avisos
+        private Duration balanceNotifyMaxWait = Duration.ofMillis(20);
+    }
+
+    @Data
+    public static class Pagination {
+        // Filas por página si el cliente no envía ?limit
+        private int defaultLimit = 50;
+        // Tope para ?limit (evita páginas que vuelvan a leer media tabla)
+        private int maxLimit = 1000;
+    }
+
+    @Data
+    public static class DailyBalances {
+        // false → no se mantienen snapshots (p. ej. BD sin ON CONFLICT, como H2 en los benchmarks)
+        private boolean enabled = true;
+        // Transferencias por UPSERT
+        private int batchSize = 1000;
+        // Espera máxima antes de escribir un lote incompleto
+        private Duration maxWait = Duration.ofMillis(200);
+        // Transferencias pendientes antes de descartar
+        private int queueCapacity = 100_000;
+    }
+
+    @Data
+    public static class Export {
+        // Filas que el driver pide al servidor en cada tanda
+        private int fetchSize = 1000;
+        // Líneas por bloque escrito en la respuesta HTTP
+        private int rowsPerChunk = 256;
+    }
+
+    @Data
+    public static class AccountImport {
+        // Filas por mensaje COPY enviado al servidor
+        private int rowsPerChunk = 500;
+        // Rechazos detallados en la respuesta (el total siempre se informa)
+        private int maxReportedRejections = 1000;
+    }
+
+    @Data
+    public static class Database {
+        // Tablas y datos iniciales (classpath)
+        private String schema = "schema.sql";
+        // Scripts de triggers separados por comas (solo PostgreSQL); vacío → no se ejecutan
+        // El del outbox va aparte (outbox.trigger): solo se instala con el outbox activo
+        private String triggers = "account_notify.sql";
+    }
+
+    @Data
+    public static class FailedTransfers {
+        private Policy policy = Policy.ALL;
+        // Filas FAILED por INSERT
+        private int batchSize = 500;
+        // Espera máxima antes de escribir un lote incompleto
+        private Duration maxWait = Duration.ofMillis(50);
+        // Filas pendientes antes de descartar (se registra en el log)
+        private int queueCapacity = 50_000;
+
+        public enum Policy {
+            // Todas las fallidas
+            ALL,
+            // Solo los rechazos de negocio (TransferException): durante una caída
+            // de la BD no se le suman INSERTs de auditoría
+            BUSINESS_ONLY,
+            // Ninguna: solo métricas (transfers.failures) y logs
+            NONE
+        }
+    }
+
+    @Data
+    public static class Stream {
+        // Resultados en espera de repartir a los suscriptores (compartido)
+        private int queueCapacity = 8192;
+        // Eventos en espera por suscriptor lento antes de descartar los más viejos
+        private int bufferSize = 256;
+        // Comentario SSE periódico para que proxies y balanceadores no corten la conexión
+        private Duration heartbeat = Duration.ofSeconds(15);
+    }
+
+    @Data
+    public static class Outbox {
+        // false → ni trigger ni relay: transfer_outbox no se llena ni se drena
+        // true exige al menos un sink activo (si no, la tabla crecería sin límite)
+        private boolean enabled = false;
+        // Script del trigger que escribe los eventos (se ejecuta tras database.triggers)
+        private String trigger = "transfer_outbox.sql";
+        // Eventos reclamados, publicados y borrados por transacción
+        private int batchSize = 500;
+        // Espera entre rondas cuando el outbox quedó vacío
+        private Duration pollInterval = Duration.ofMillis(200);
+        private FileSink file = new FileSink();
+        private InProcessSink inProcess = new InProcessSink();
+        private BrokerSink broker = new BrokerSink();
+
+        @Data
+        public static class FileSink {
+            private boolean enabled = false;
+            // Archivo NDJSON al que se agregan los eventos
+            private String path = "outbox/transfer-events.ndjson";
+        }
+
+        @Data
+        public static class InProcessSink {
+            // Sin suscriptores el lote falla y se reintenta: activarlo solo si algo consume events()
+            private boolean enabled = false;
+            // Eventos en espera por suscriptor lento antes de descartar los más viejos
+            private int bufferSize = 1024;
+        }
+
+        @Data
+        public static class BrokerSink {
+            // Stub: reemplazar por el cliente real (Kafka, RabbitMQ...)
+            private boolean enabled = false;
+            private String topic = "transfers.completed";
+            // Latencia simulada de cada envío
+            private Duration latency = Duration.ofMillis(5);
+        }
+    }
+
+    @Data
+    public static class Async {
+        // true → POST /api/transfers guarda la transferencia PENDING y responde 202;
+        // los workers la liquidan después (no compatible con mode = LEDGER)
+        private boolean enabled = false;
+        // Workers que reclaman lotes en paralelo (cada uno, una transacción por lote)
+        private int workers = 4;
+        // Transferencias PENDING reclamadas por transacción
+        private int batchSize = 200;
+        // Espera de cada worker cuando no quedaron transferencias PENDING
+        private Duration pollInterval = Duration.ofMillis(50);
+    }
+
+    @Data
+    public static class Scheduling {
+        // false → no se despachan programadas y POST con scheduledAt se rechaza
+        private boolean enabled = true;
+        // Resolución de la rueda: una programada sale como mucho un tick tarde
+        private Duration tick = Duration.ofMillis(100);
+        // Casilleros por nivel; cada nivel cubre wheelSize veces el anterior
+        private int wheelSize = 64;
+        // Niveles de la rueda (100ms x 64 → 6.4s, 6.8min, 7.3h...)
+        private int levels = 3;
+        // Cada cuánto se carga el siguiente tramo de programadas desde la tabla
+        // (en memoria solo vive lo que vence en los próximos 2 tramos)
+        private Duration slice = Duration.ofMinutes(1);
+        // Programadas ejecutándose a la vez por performTransfer
+        private int concurrency = 64;
+    }
+
+    @Data
+    public static class Limits {
+        // false → no se controla ningún límite (p. ej. benchmarks y pruebas de carga)
+        private boolean enabled = true;
+        // Cuentas con contadores en memoria (las menos usadas se descartan)
+        private long maxAccounts = 100_000;
+        // Ventana de velocidad (máximo de transferencias en este lapso)
+        private Duration rateWindow = Duration.ofMinutes(1);
+        // Tramos en que se divide rateWindow (más tramos = deslizamiento más fino)
+        private int rateBuckets = 6;
+        // Cada cuánto se recalcula el monto de 24h desde la tabla transfers
+        private Duration reconcileInterval = Duration.ofMinutes(5);
+        // Tier de las cuentas cuyo tier no está en tiers
+        private String defaultTier = "STANDARD";
+        private Map<String, Tier> tiers = new LinkedHashMap<>(Map.of(
+            "STANDARD", new Tier(new BigDecimal("10000.00"), 30),
+            "PREMIUM", new Tier(new BigDecimal("50000.00"), 120),
+            "BUSINESS", new Tier(new BigDecimal("500000.00"), 600)));
+
+        @Data
+        @NoArgsConstructor
+        @AllArgsConstructor
+        public static class Tier {
+            // Monto máximo enviado en 24 horas (ventana deslizante)
+            private BigDecimal dailyAmount;
+            // Transferencias máximas por rateWindow
+            private int maxPerWindow;
+        }
+    }
+}
@@ -23,20 +23,43 @@ Analogía: Es como las rutas en Express.js o views en Django.
 
 package com.example.transfers.controller;
 
+import com.example.transfers.config.TransferProperties;
 import com.example.transfers.dto.AccountUpdateRequest;
+import com.example.transfers.dto.AccountImportResult;
+import com.example.transfers.dto.AccountImportRow;
+import com.example.transfers.dto.BalanceResponse;
+import com.example.transfers.dto.ErrorResponse;
+import com.example.transfers.dto.TransferFilter;
+import com.example.transfers.dto.TransferPage;
 import com.example.transfers.dto.TransferRequest;
 import com.example.transfers.dto.TransferResponse;
+import com.example.transfers.exception.AccountNotFoundException;
+import com.example.transfers.exception.ErrorCode;
+import com.example.transfers.exception.TransferException;
 import com.example.transfers.model.Account;
 import com.example.transfers.model.Transfer;
+import com.example.transfers.repository.HistoryDirection;
 import com.example.transfers.service.TransferService;
+import com.example.transfers.service.export.ExportFormat;
+import com.example.transfers.service.export.StatementExporter;
+import com.example.transfers.service.onboarding.AccountImporter;
+import com.example.transfers.service.stream.TransferFeed;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+import java.util.Optional;
 
 /**
  * CONTROLADOR REST: TransferController
@@ -50,11 +73,14 @@ import reactor.core.publisher.Mono;
  * 
  * ENDPOINTS DISPONIBLES:
  * POST   /api/transfers              - Crear transferencia
- * GET    /api/transfers              - Listar todas las transferencias
+ * GET    /api/transfers              - Listar transferencias (paginado, con filtros)
  * GET    /api/transfers/{id}         - Obtener transferencia por ID
  * GET    /api/transfers/history/{accountNumber} - Historial de cuenta
  * GET    /api/accounts               - Listar todas las cuentas
  * GET    /api/accounts/{accountNumber} - Obtener cuenta por número
+ * GET    /api/exports/transfers      - Exportar extractos (CSV / NDJSON, streaming)
+ * POST   /api/accounts/import        - Alta masiva de cuentas (CSV / NDJSON, COPY)
+ * GET    /api/transfers/stream       - Resultados en vivo (SSE / NDJSON)
  */
 @RestController
 @RequestMapping("/api")
@@ -63,6 +89,10 @@ import reactor.core.publisher.Mono;
 public class TransferController {
     
     private final TransferService transferService;
+    private final StatementExporter statementExporter;
+    private final AccountImporter accountImporter;
+    private final TransferFeed transferFeed;
+    private final TransferProperties properties;
     
     /**
      * ENDPOINT: POST /api/transfers
@@ -72,7 +102,18 @@ public class TransferController {
      * @PostMapping - Mapea peticiones HTTP POST
      * @RequestBody - Parsea el JSON del body a TransferRequest
      * @Valid - Activa validaciones Bean Validation (@NotNull, @NotBlank, etc.)
-     * @ResponseStatus - Define código HTTP de respuesta exitosa (201 CREATED)
+     * 
+     * CÓDIGO HTTP:
+     * - 201 CREATED si se completó
+     * - 202 ACCEPTED si quedó PENDING (transfers.async.enabled): consultar
+     *   GET /api/transfers/{id} o GET /api/transfers/stream para ver el resultado
+     * - 202 ACCEPTED si quedó SCHEDULED ("scheduledAt" futuro): se ejecuta a esa hora
+     *   y GET /api/transfers/{id} de la programada pasa a EXECUTED con
+     *   executedTransferId (la transferencia real) o a FAILED con el motivo
+     * - Si es FAILED, el de su errorCode: 422 saldo insuficiente, 404 cuenta
+     *   inexistente, 400 misma cuenta, 409 conflicto, 429 límite diario o de
+     *   velocidad de la cuenta origen, 503 saturado
+     *   (la transferencia fallida igual queda registrada y se devuelve en el body)
      * 
      * EJEMPLO DE PETICIÓN:
      * POST http://localhost:8080/api/transfers
@@ -84,41 +125,141 @@ public class TransferController {
      *   "description": "Pago de alquiler"
      * }
      * 
+     * IDEMPOTENCIA (opcional):
+     * Idempotency-Key: 7f9c2b1e-...
+     * Si el cliente reintenta con la misma clave, recibe la respuesta original
+     * y la transferencia NO se ejecuta de nuevo
+     * Hasta 100 caracteres (si no, 400 INVALID_REQUEST). 409 si la clave sigue
+     * en curso o su resultado quedó sin guardar (nunca se vuelve a ejecutar)
+     * 
      * @param request - DTO con datos de la transferencia
-     * @return Mono<TransferResponse> - Respuesta reactiva con resultado
+     * @param idempotencyKey - Header Idempotency-Key (opcional)
+     * @return Mono<ResponseEntity<TransferResponse>> - Respuesta reactiva con resultado
      */
     @PostMapping("/transfers")
-    @ResponseStatus(HttpStatus.CREATED)
-    public Mono<TransferResponse> createTransfer(@Valid @RequestBody TransferRequest request) {
+    public Mono<ResponseEntity<TransferResponse>> createTransfer(
+            @Valid @RequestBody TransferRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("Recibida petición de transferencia: {} -> {}", 
                  request.getSourceAccountNumber(), 
                  request.getDestinationAccountNumber());
         
-        return transferService.performTransfer(request);
+        return transferService.performTransfer(request, idempotencyKey)
+            .map(response -> ResponseEntity.status(statusOf(response)).body(response));
+    }
+    
+    private static HttpStatus statusOf(TransferResponse response) {
+        if (response.getErrorCode() != null) {
+            return response.getErrorCode().getStatus();
+        }
+        return Transfer.Status.PENDING.equals(response.getStatus())
+            || Transfer.Status.SCHEDULED.equals(response.getStatus()) ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+    }
+    
+    /**
+     * ENDPOINT: POST /api/transfers/bulk
+     * Crear muchas transferencias en una sola petición (nóminas, pagos masivos)
+     * 
+     * ENTRADA Y SALIDA EN NDJSON (una transferencia por línea):
+     * - La entrada se procesa en streaming con backpressure:
+     *   nunca se carga el payload completo en memoria
+     * - Cada resultado se envía en cuanto termina (puede no seguir el orden de entrada)
+     * 
+     * EJEMPLO:
+     * POST http://localhost:8080/api/transfers/bulk
+     * Content-Type: application/x-ndjson
+     * {"sourceAccountNumber":"1234567890","destinationAccountNumber":"0987654321","amount":10.00}
+     * {"sourceAccountNumber":"1234567890","destinationAccountNumber":"1111222233","amount":5.50}
+     * 
+     * @param requests - Stream de peticiones
+     * @return Flux<TransferResponse> - Un resultado (COMPLETED o FAILED) por petición
+     */
+    @PostMapping(value = "/transfers/bulk",
+                 consumes = MediaType.APPLICATION_NDJSON_VALUE,
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransferResponse> createBulkTransfers(@RequestBody Flux<TransferRequest> requests) {
+        log.info("Recibida petición de transferencias masivas");
+        return transferService.performBulkTransfers(requests);
     }
     
     /**
      * ENDPOINT: GET /api/transfers
-     * Obtener todas las transferencias
+     * Listar transferencias paginadas (más recientes primero)
+     * 
+     * PAGINACIÓN POR CURSOR:
+     * - Antes se devolvía la tabla completa en cada llamada
+     * - Ahora se devuelve una página y un nextCursor opaco
+     * - Para la siguiente página: mismos filtros + ?cursor=<nextCursor>
+     * - nextCursor = null → no hay más páginas
+     * 
+     * FILTROS (todos opcionales):
+     * - status  → PENDING, COMPLETED, FAILED
+     * - account → número de cuenta (origen o destino)
+     * - from/to → rango de fechas ISO (from incluido, to excluido)
+     * - limit   → filas por página (máx. transfers.pagination.max-limit)
+     * 
+     * EJEMPLO:
+     * GET http://localhost:8080/api/transfers?status=COMPLETED&from=2024-01-01T00:00:00&limit=100
      * 
-     * STREAMING JSON:
-     * produces = MediaType.APPLICATION_NDJSON_VALUE
-     * - Retorna JSON en formato NDJSON (Newline Delimited JSON)
-     * - Los elementos se envían uno por uno conforme están disponibles
-     * - Ideal para grandes volúmenes de datos
-     * - Formato: cada línea es un JSON independiente
+     * RESPUESTA:
+     * {"items":[{"id":3,...},{"id":2,...}],"nextCursor":"MjAyNC0wMS0wMVQxMDowMHwy"}
      * 
-     * EJEMPLO DE RESPUESTA NDJSON:
-     * {"id":1,"amount":100.00,"status":"COMPLETED"}
-     * {"id":2,"amount":250.50,"status":"COMPLETED"}
-     * {"id":3,"amount":75.00,"status":"FAILED"}
+     * @return Mono<TransferPage> - Página de transferencias
+     */
+    @GetMapping("/transfers")
+    public Mono<TransferPage> getTransfers(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String account,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        log.info("Obteniendo página de transferencias (status={}, account={})", status, account);
+        return transferService.getTransfers(TransferFilter.builder()
+            .status(status)
+            .accountNumber(account)
+            .from(from)
+            .to(to)
+            .cursor(cursor)
+            .limit(limit)
+            .build());
+    }
+    
+    /**
+     * ENDPOINT: GET /api/transfers/stream
+     * Resultados de transferencias EN VIVO (COMPLETED y FAILED) para dashboards
+     * 
+     * - Sin consultas: cada resultado se reparte desde memoria (TransferFeed)
+     * - Solo lo que ocurre desde que el cliente se conecta
+     * - Si el cliente no lee a tiempo, pierde los eventos más viejos
+     * 
+     * FORMATOS (según Accept):
+     * - text/event-stream → SSE (EventSource en el navegador), con heartbeat
+     * - application/x-ndjson → una transferencia por línea
+     * 
+     * EJEMPLO:
+     * curl -N -H "Accept: text/event-stream" "http://localhost:8080/api/transfers/stream?account=1234567890"
      * 
-     * @return Flux<Transfer> - Stream de transferencias
+     * @param account - Solo los de esta cuenta (origen o destino); opcional
+     * @return Flux<ServerSentEvent<TransferResponse>> - Evento "COMPLETED" o "FAILED" por transferencia
      */
-    @GetMapping(value = "/transfers", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Transfer> getAllTransfers() {
-        log.info("Obteniendo todas las transferencias");
-        return transferService.getAllTransfers();
+    @GetMapping(value = "/transfers/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<TransferResponse>> streamTransfers(@RequestParam(required = false) String account) {
+        log.info("Cliente conectado al stream de transferencias (account={})", account);
+        Flux<ServerSentEvent<TransferResponse>> events = transferFeed.subscribe(account)
+            .map(response -> ServerSentEvent.builder(response)
+                .event(response.getStatus())
+                .build());
+        // Comentario vacío periódico: mantiene viva la conexión a través de proxies
+        Flux<ServerSentEvent<TransferResponse>> heartbeats = Flux.interval(properties.getStream().getHeartbeat())
+            .map(tick -> ServerSentEvent.<TransferResponse>builder().comment("").build());
+        return Flux.merge(events, heartbeats);
+    }
+    
+    @GetMapping(value = "/transfers/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransferResponse> streamTransfersNdjson(@RequestParam(required = false) String account) {
+        log.info("Cliente conectado al stream NDJSON de transferencias (account={})", account);
+        return transferFeed.subscribe(account);
     }
     
     /**
@@ -137,7 +278,7 @@ public class TransferController {
         return transferService.getTransferById(id)
             // Si no se encuentra, retornar 404 Not Found
             .switchIfEmpty(Mono.error(
-                new RuntimeException("Transferencia no encontrada con ID: " + id)
+                new TransferException(ErrorCode.TRANSFER_NOT_FOUND, "Transferencia no encontrada con ID: " + id)
             ));
     }
     
@@ -145,19 +286,38 @@ public class TransferController {
      * ENDPOINT: GET /api/transfers/history/{accountNumber}
      * Obtener historial de transferencias de una cuenta
      * 
-     * Incluye tanto transferencias enviadas como recibidas
+     * Enviadas y recibidas intercaladas por fecha (más recientes primero),
+     * paginado por cursor igual que GET /api/transfers
+     * 
+     * PARÁMETROS (opcionales):
+     * - direction → ALL (por defecto), SENT, RECEIVED
+     * - from/to   → rango de fechas ISO (from incluido, to excluido)
+     * - cursor    → nextCursor de la página anterior
+     * - limit     → filas por página
      * 
      * EJEMPLO:
-     * GET http://localhost:8080/api/transfers/history/1234567890
+     * GET http://localhost:8080/api/transfers/history/1234567890?direction=SENT&limit=20
      * 
      * @param accountNumber - Número de cuenta
-     * @return Flux<Transfer> - Historial completo
+     * @return Mono<TransferPage> - Página del historial
      */
-    @GetMapping(value = "/transfers/history/{accountNumber}", 
-                produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Transfer> getTransferHistory(@PathVariable String accountNumber) {
+    @GetMapping("/transfers/history/{accountNumber}")
+    public Mono<TransferPage> getTransferHistory(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) HistoryDirection direction,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         log.info("Obteniendo historial de transferencias para cuenta: {}", accountNumber);
-        return transferService.getTransferHistory(accountNumber);
+        return transferService.getTransferHistory(TransferFilter.builder()
+            .accountNumber(accountNumber)
+            .direction(direction)
+            .from(from)
+            .to(to)
+            .cursor(cursor)
+            .limit(limit)
+            .build());
     }
     
     /**
@@ -187,10 +347,126 @@ public class TransferController {
         log.info("Obteniendo cuenta: {}", accountNumber);
         return transferService.getAccountByNumber(accountNumber)
             .switchIfEmpty(Mono.error(
-                new RuntimeException("Cuenta no encontrada: " + accountNumber)
+                AccountNotFoundException.of(accountNumber)
+            ));
+    }
+    
+    /**
+     * ENDPOINT: GET /api/accounts/{accountNumber}/balance?asOf=
+     * Saldo que tenía la cuenta en un instante dado (extractos, conciliaciones)
+     * 
+     * Se responde desde los snapshots diarios (account_daily_balances)
+     * sin recorrer toda la historia de la cuenta.
+     * Sin asOf → ahora
+     * 
+     * EJEMPLO:
+     * GET http://localhost:8080/api/accounts/1234567890/balance?asOf=2024-01-31T23:59:59
+     * 
+     * @param accountNumber - Número de cuenta
+     * @param asOf - Instante consultado (ISO)
+     * @return Mono<BalanceResponse> - Saldo a esa fecha
+     */
+    @GetMapping("/accounts/{accountNumber}/balance")
+    public Mono<BalanceResponse> getBalanceAsOf(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        log.info("Obteniendo saldo de la cuenta {} a {}", accountNumber, asOf);
+        return transferService.getBalanceAsOf(accountNumber, asOf != null ? asOf : LocalDateTime.now())
+            .switchIfEmpty(Mono.error(
+                AccountNotFoundException.of(accountNumber)
             ));
     }
     
+    /**
+     * ENDPOINT: GET /api/exports/transfers
+     * Exportar transferencias (extractos) en CSV o NDJSON
+     * 
+     * STREAMING:
+     * - Las filas salen de PostgreSQL ya como texto y se escriben según llegan
+     * - Nunca se carga el extracto completo en memoria
+     * - Con Accept-Encoding: gzip la respuesta se comprime al vuelo
+     * 
+     * PARÁMETROS (opcionales):
+     * - format  → CSV (por defecto) o NDJSON
+     * - account → solo esta cuenta (origen o destino); sin él, todas
+     * - from/to → rango de fechas ISO (from incluido, to excluido)
+     * 
+     * EJEMPLO:
+     * curl -H "Accept-Encoding: gzip" -o extracto.csv.gz \
+     *   "http://localhost:8080/api/exports/transfers?account=1234567890&from=2024-01-01T00:00:00&to=2024-02-01T00:00:00"
+     * 
+     * @return Flux<DataBuffer> - Contenido del archivo en bloques
+     */
+    @GetMapping("/exports/transfers")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportTransfers(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) String account,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Exportando transferencias ({}) de la cuenta {}", format, account != null ? account : "TODAS");
+        // La cuenta se valida ANTES de empezar a escribir: después ya no se puede responder 400
+        Mono<Optional<Long>> accountId = account == null
+            ? Mono.just(Optional.empty())
+            : transferService.getAccountByNumber(account)
+                .switchIfEmpty(Mono.error(
+                    AccountNotFoundException.of(account)
+                ))
+                .map(found -> Optional.of(found.getId()));
+        String filename = "transfers-" + (account != null ? account : "all") + "." + format.extension();
+        return accountId.map(id -> ResponseEntity.ok()
+            .contentType(format.mediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename(filename).build().toString())
+            .body(statementExporter.export(format, id.orElse(null), from, to)));
+    }
+    
+    /**
+     * ENDPOINT: POST /api/accounts/import
+     * Alta masiva de cuentas desde CSV (onboarding de bancos asociados)
+     * 
+     * - El archivo se procesa en streaming y se carga con COPY (no un INSERT por fila)
+     * - Las filas inválidas o con account_number existente se rechazan
+     *   y se informan SIN abortar el resto del lote
+     * 
+     * EJEMPLO:
+     * curl -X POST -H "Content-Type: text/csv" --data-binary @cuentas.csv \
+     *   http://localhost:8080/api/accounts/import
+     * 
+     * account_number,owner_name,balance
+     * 5555000011,"Pérez, Ana",1500.00
+     * 
+     * @param lines - Líneas del CSV (la cabecera es opcional)
+     * @return Mono<AccountImportResult> - Totales y detalle de rechazos
+     */
+    @PostMapping(value = "/accounts/import", consumes = "text/csv")
+    public Mono<AccountImportResult> importAccountsCsv(@RequestBody Flux<String> lines) {
+        log.info("Recibida importación de cuentas (CSV)");
+        return accountImporter.importCsv(lines);
+    }
+    
+    /**
+     * ENDPOINT: POST /api/accounts/import (NDJSON)
+     * Igual que la versión CSV, una cuenta JSON por línea:
+     * {"accountNumber":"5555000011","ownerName":"Ana Pérez","balance":1500.00}
+     */
+    @PostMapping(value = "/accounts/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<AccountImportResult> importAccountsNdjson(@RequestBody Flux<AccountImportRow> rows) {
+        log.info("Recibida importación de cuentas (NDJSON)");
+        return accountImporter.importRows(rows);
+    }
+    
+    /**
+     * ERRORES DE NEGOCIO (TransferException)
+     * El estado HTTP sale del ErrorCode: 404, 409, 422...
+     * Son esperados: se registran en WARN sin stack trace
+     */
+    @ExceptionHandler(TransferException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleTransferException(TransferException ex) {
+        log.warn("Petición rechazada ({}): {}", ex.getErrorCode(), ex.getMessage());
+        return Mono.just(ResponseEntity.status(ex.getErrorCode().getStatus())
+            .body(new ErrorResponse(ex.getErrorCode(), ex.getMessage())));
+    }
+    
     /**
      * MANEJO GLOBAL DE ERRORES
      * 
@@ -232,6 +508,8 @@ public Mono<Account> updateAccount(
 /**
  * ENDPOINT: PATCH /api/transfers/{id}/cancel
  * Cancelar una transferencia pendiente
+ * (PENDING con transfers.async.enabled, hasta que un worker las liquida,
+ *  o SCHEDULED hasta que llega su hora)
  * 
  * EJEMPLO:
  * PATCH http://localhost:8080/api/transfers/1/cancel
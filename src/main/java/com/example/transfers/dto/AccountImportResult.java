@@ -0,0 +1,43 @@
+/*¿Para qué sirve?
+
+Resumen de POST /api/accounts/import
+
+{
+  "received": 100000,
+  "imported": 99997,
+  "rejected": 3,
+  "rejections": [
+    {"line": 17, "accountNumber": "1234567890", "reason": "account_number ya existe"}
+  ]
+}
+
+rejections se acorta a transfers.account-import.max-reported-rejections;
+rejected siempre es el total.
+ */
+
+package com.example.transfers.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountImportResult {
+
+    private long received;
+    private long imported;
+    private long rejected;
+    private List<Rejection> rejections;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Rejection {
+        private long line;          // Nº de línea / elemento en el archivo (desde 1)
+        private String accountNumber;
+        private String reason;
+    }
+}
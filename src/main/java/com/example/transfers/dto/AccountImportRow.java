@@ -0,0 +1,22 @@
+/*¿Para qué sirve?
+
+Una cuenta a dar de alta en POST /api/accounts/import
+(una línea NDJSON o una fila CSV: account_number,owner_name,balance)
+ */
+
+package com.example.transfers.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountImportRow {
+
+    private String accountNumber;
+    private String ownerName;
+    private BigDecimal balance;
+}
@@ -0,0 +1,23 @@
+/*¿Para qué sirve?
+
+Respuesta de GET /api/accounts/{accountNumber}/balance?asOf=
+Saldo que tenía la cuenta en un instante dado
+ */
+
+package com.example.transfers.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BalanceResponse {
+
+    private String accountNumber;
+    private LocalDateTime asOf;
+    private BigDecimal balance;
+}
@@ -0,0 +1,21 @@
+/*¿Para qué sirve?
+
+Cuerpo JSON de las respuestas de error de la API
+code es estable (ErrorCode); message es para personas
+ */
+
+package com.example.transfers.dto;
+
+import com.example.transfers.exception.ErrorCode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ErrorResponse {
+
+    private ErrorCode code;
+    private String message;
+}
@@ -0,0 +1,32 @@
+/*¿Para qué sirve?
+
+Evento publicado por el outbox cuando una transferencia queda COMPLETED
+(notificaciones, contabilidad, fraude)
+
+eventId es creciente y único: los consumidores lo usan para descartar
+duplicados (la entrega es "al menos una vez")
+ */
+
+package com.example.transfers.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferEvent {
+
+    private Long eventId;
+    private String type;
+    private Long transferId;
+    private String sourceAccountNumber;
+    private String destinationAccountNumber;
+    private BigDecimal amount;
+    private LocalDateTime transferCreatedAt;
+    // Cuándo se escribió el evento (misma transacción que la transferencia)
+    private LocalDateTime occurredAt;
+}
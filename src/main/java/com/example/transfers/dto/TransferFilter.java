@@ -0,0 +1,29 @@
+/*¿Para qué sirve?
+
+Parámetros de búsqueda de GET /api/transfers y del historial de una cuenta
+Todos son opcionales: un campo null no filtra
+ */
+
+package com.example.transfers.dto;
+
+import com.example.transfers.repository.HistoryDirection;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferFilter {
+
+    private String status;          // PENDING, COMPLETED, FAILED
+    private String accountNumber;   // Cuenta origen O destino
+    private HistoryDirection direction;  // Solo historial: ALL (por defecto), SENT, RECEIVED
+    private LocalDateTime from;     // created_at >= from
+    private LocalDateTime to;       // created_at < to
+    private String cursor;          // nextCursor de la página anterior
+    private Integer limit;          // Tamaño de página (acotado por transfers.pagination.max-limit)
+}
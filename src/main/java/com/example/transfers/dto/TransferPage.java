@@ -0,0 +1,45 @@
+/*¿Para qué sirve?
+
+Una página de transferencias (paginación por cursor / keyset)
+
+{
+  "items": [ ... ],
+  "nextCursor": "MjAyNC0wMS0wMVQxMDowMHw0Mg"   ← null si es la última página
+}
+
+Para la página siguiente se envía ?cursor=<nextCursor> con los mismos filtros.
+ */
+
+package com.example.transfers.dto;
+
+import com.example.transfers.model.Transfer;
+import com.example.transfers.repository.TransferCursor;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransferPage {
+
+    private List<Transfer> items;
+    private String nextCursor;
+
+    /**
+     * Construir la página a partir de limit + 1 filas:
+     * la fila extra solo indica que hay más, no se devuelve
+     */
+    public static TransferPage of(List<Transfer> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new TransferPage(rows, null);
+        }
+        List<Transfer> items = rows.subList(0, limit);
+        return new TransferPage(items, TransferCursor.of(items.get(limit - 1)).encode());
+    }
+
+    public static TransferPage empty() {
+        return new TransferPage(List.of(), null);
+    }
+}
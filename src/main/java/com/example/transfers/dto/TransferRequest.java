@@ -10,12 +10,16 @@ package com.example.transfers.dto;
 
 // ===== VALIDACIONES BEAN VALIDATION =====
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 @AllArgsConstructor
@@ -34,8 +38,25 @@ public class TransferRequest {
     @NotNull(message = "El monto es obligatorio")
     @DecimalMin(value = "0.01", inclusive = false, 
                 message = "El monto debe ser mayor a 0")
+    // Centavos como máximo: los saldos se mueven en centavos (Money) y transfers.amount
+    // es NUMERIC(15,2); con más decimales saldo y registro redondearían distinto
+    @Digits(integer = 13, fraction = 2,
+            message = "El monto admite hasta 13 enteros y 2 decimales")
     private BigDecimal amount;
     
-    // Descripción es opcional (sin validaciones)
+    // Descripción es opcional; como máximo lo que entra en transfers.description (VARCHAR(255)).
+    // Más larga, el INSERT fallaría recién al escribir el lote (LEDGER, GROUP_COMMIT)
+    @Size(max = 255, message = "La descripción admite hasta 255 caracteres")
     private String description;
+    
+    // ===== OPCIONAL: TRANSFERENCIA PROGRAMADA =====
+    // null = ejecutar ahora; si viene, debe ser futura (service/schedule/TransferScheduler)
+    @Future(message = "La fecha programada debe ser futura")
+    private LocalDateTime scheduledAt;
+    
+    // Transferencia inmediata (sin scheduledAt)
+    public TransferRequest(String sourceAccountNumber, String destinationAccountNumber,
+                           BigDecimal amount, String description) {
+        this(sourceAccountNumber, destinationAccountNumber, amount, description, null);
+    }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ Usa patrón Builder para crear objetos fácilmente:
 
 package com.example.transfers.dto;
 
+import com.example.transfers.exception.ErrorCode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -29,4 +30,6 @@ public class TransferResponse {
     private String status;
     private LocalDateTime createdAt;
     private String message;
-}
\ No newline at end of file
+    // Solo en FAILED: motivo estable para el cliente (el message puede cambiar)
+    private ErrorCode errorCode;
+}
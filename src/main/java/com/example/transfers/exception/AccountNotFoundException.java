@@ -0,0 +1,41 @@
+package com.example.transfers.exception;
+
+/**
+ * Cuenta inexistente; el mensaje se arma al leerlo
+ */
+public class AccountNotFoundException extends TransferException {
+
+    // "Cuenta origen no encontrada: ", "Cuenta destino no encontrada: " o "Cuenta no encontrada: "
+    private final String prefix;
+    private final String accountNumber;
+
+    private AccountNotFoundException(String prefix, String accountNumber, Long sourceAccountId) {
+        super(ErrorCode.ACCOUNT_NOT_FOUND, null, sourceAccountId, null);
+        this.prefix = prefix;
+        this.accountNumber = accountNumber;
+    }
+
+    public static AccountNotFoundException source(String accountNumber) {
+        return new AccountNotFoundException("Cuenta origen no encontrada: ", accountNumber, null);
+    }
+
+    /**
+     * @param sourceAccountId - Cuenta origen ya resuelta
+     */
+    public static AccountNotFoundException destination(String accountNumber, Long sourceAccountId) {
+        return new AccountNotFoundException("Cuenta destino no encontrada: ", accountNumber, sourceAccountId);
+    }
+
+    public static AccountNotFoundException of(String accountNumber) {
+        return new AccountNotFoundException("Cuenta no encontrada: ", accountNumber, null);
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    @Override
+    public String getMessage() {
+        return prefix + accountNumber;
+    }
+}
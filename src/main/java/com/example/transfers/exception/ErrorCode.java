@@ -0,0 +1,73 @@
+/*¿Para qué sirve?
+
+Códigos de error estables de la API (campo errorCode / code en el JSON)
+
+El cliente decide por el código, no por el texto del mensaje
+(que puede cambiar o traducirse). Cada código lleva su estado HTTP.
+ *
+ */
+
+package com.example.transfers.exception;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpStatus;
+
+public enum ErrorCode {
+    // ===== ERRORES DE NEGOCIO (TransferException) =====
+    ACCOUNT_NOT_FOUND(HttpStatus.NOT_FOUND),
+    SAME_ACCOUNT(HttpStatus.BAD_REQUEST),
+    INSUFFICIENT_FUNDS(HttpStatus.UNPROCESSABLE_ENTITY),
+    TRANSFER_NOT_FOUND(HttpStatus.NOT_FOUND),
+    // Cancelar / eliminar una transferencia en un estado que no lo permite
+    INVALID_TRANSFER_STATE(HttpStatus.CONFLICT),
+    // Eliminar una cuenta con saldo o con transferencias pendientes
+    ACCOUNT_NOT_EMPTY(HttpStatus.CONFLICT),
+    // Petición que no pasa Bean Validation (elementos de /transfers/bulk)
+    INVALID_REQUEST(HttpStatus.BAD_REQUEST),
+    // Colas llenas (motor de saldos, group commit): reintentar más tarde
+    OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE),
+    // Límite diario o de velocidad de la cuenta origen (service/limits/AccountLimiter)
+    LIMIT_EXCEEDED(HttpStatus.TOO_MANY_REQUESTS),
+    // Idempotency-Key reutilizada con otros datos, o su transferencia sigue en curso
+    IDEMPOTENCY_KEY_CONFLICT(HttpStatus.CONFLICT),
+
+    // ===== ERRORES TÉCNICOS =====
+    // Conflicto de concurrencia que sobrevivió a los reintentos
+    CONCURRENT_UPDATE(HttpStatus.CONFLICT),
+    INTERNAL_ERROR(HttpStatus.INTERNAL_SERVER_ERROR);
+
+    private final HttpStatus status;
+
+    ErrorCode(HttpStatus status) {
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Código para cualquier error: el de la TransferException o uno técnico
+     */
+    public static ErrorCode of(Throwable error) {
+        if (error instanceof TransferException transferException) {
+            return transferException.getErrorCode();
+        }
+        if (error instanceof OptimisticLockingFailureException
+                || error instanceof PessimisticLockingFailureException
+                || error instanceof TransientDataAccessException) {
+            return CONCURRENT_UPDATE;
+        }
+        return INTERNAL_ERROR;
+    }
+
+    /**
+     * Fallo pasajero, no una decisión sobre la transferencia: la misma petición
+     * puede salir bien más tarde (colas llenas, límite de velocidad, conflicto, error técnico)
+     */
+    public boolean isRetryable() {
+        return this == OVERLOADED || this == LIMIT_EXCEEDED || this == CONCURRENT_UPDATE || this == INTERNAL_ERROR;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.transfers.exception;
+
+import com.example.transfers.model.Money;
+
+/**
+ * Saldo insuficiente; el mensaje con el saldo disponible se arma al leerlo
+ */
+public class InsufficientFundsException extends TransferException {
+
+    private final long availableCents;
+
+    public InsufficientFundsException(Long sourceAccountId, Long destinationAccountId, long availableCents) {
+        super(ErrorCode.INSUFFICIENT_FUNDS, null, sourceAccountId, destinationAccountId);
+        this.availableCents = availableCents;
+    }
+
+    public long getAvailableCents() {
+        return availableCents;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Saldo insuficiente. Disponible: " + Money.toDecimal(availableCents);
+    }
+}
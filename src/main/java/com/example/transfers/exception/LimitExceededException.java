@@ -0,0 +1,48 @@
+package com.example.transfers.exception;
+
+import com.example.transfers.model.Money;
+import java.time.Duration;
+
+/**
+ * Límite de la cuenta origen superado; el mensaje se arma al leerlo
+ */
+public class LimitExceededException extends TransferException {
+
+    public enum Limit {
+        // Monto acumulado en las últimas 24 horas
+        DAILY_AMOUNT,
+        // Cantidad de transferencias en la ventana de velocidad
+        RATE
+    }
+
+    private final Limit limit;
+    private final long used;
+    private final long max;
+    private final Duration window;
+
+    /**
+     * @param used - Centavos (DAILY_AMOUNT) o transferencias (RATE) ya consumidos en la ventana
+     * @param max - Tope del tier de la cuenta, en la misma unidad
+     */
+    public LimitExceededException(Long sourceAccountId, Limit limit, long used, long max, Duration window) {
+        super(ErrorCode.LIMIT_EXCEEDED, null, sourceAccountId, null);
+        this.limit = limit;
+        this.used = used;
+        this.max = max;
+        this.window = window;
+    }
+
+    public Limit getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String getMessage() {
+        if (limit == Limit.DAILY_AMOUNT) {
+            return "Límite diario excedido. Usado en 24h: " + Money.toDecimal(used)
+                + ", límite: " + Money.toDecimal(max);
+        }
+        return "Demasiadas transferencias: " + used + " en los últimos " + window.toSeconds()
+            + "s, máximo " + max;
+    }
+}
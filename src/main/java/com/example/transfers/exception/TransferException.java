@@ -0,0 +1,66 @@
+/*¿Para qué sirve?
+
+Error ESPERADO de una regla de negocio (saldo insuficiente, cuenta inexistente...)
+
+PROBLEMA que resuelve:
+new RuntimeException("..." + saldo) recorre la pila para llenar el stack trace
+(en un pipeline reactivo, cientos de frames) y arma el mensaje aunque nadie
+lo lea. En una ráfaga de fraude son miles por segundo.
+
+SOLUCIÓN:
+- Sin stack trace ni suppressed (writableStackTrace = false): crearla
+  cuesta lo mismo que un objeto normal
+- errorCode tipado → estado HTTP en TransferController
+- Las subclases con datos (InsufficientFundsException, AccountNotFoundException)
+  arman el mensaje solo si alguien llama a getMessage()
+
+Los errores sin parámetros (SAME_ACCOUNT) son constantes compartidas:
+sin stack trace no guardan nada propio de cada petición.
+
+sourceAccountId / destinationAccountId: las cuentas que el ejecutor ya
+resolvió antes de rechazar; el registro FAILED las reutiliza sin volver
+a buscarlas (null = no se llegó a resolver).
+ *
+ */
+
+package com.example.transfers.exception;
+
+public class TransferException extends RuntimeException {
+
+    public static final TransferException SAME_ACCOUNT =
+        new TransferException(ErrorCode.SAME_ACCOUNT, "No se puede transferir a la misma cuenta");
+
+    private final ErrorCode errorCode;
+    private final Long sourceAccountId;
+    private final Long destinationAccountId;
+
+    public TransferException(ErrorCode errorCode, String message) {
+        this(errorCode, message, null, null);
+    }
+
+    public TransferException(ErrorCode errorCode, String message, Long sourceAccountId, Long destinationAccountId) {
+        super(message, null, false, false);
+        this.errorCode = errorCode;
+        this.sourceAccountId = sourceAccountId;
+        this.destinationAccountId = destinationAccountId;
+    }
+
+    /**
+     * Misma cuenta ya resuelta (si todavía no se buscó, usar SAME_ACCOUNT)
+     */
+    public static TransferException sameAccount(Long accountId) {
+        return new TransferException(ErrorCode.SAME_ACCOUNT, SAME_ACCOUNT.getMessage(), accountId, accountId);
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    public Long getSourceAccountId() {
+        return sourceAccountId;
+    }
+
+    public Long getDestinationAccountId() {
+        return destinationAccountId;
+    }
+}
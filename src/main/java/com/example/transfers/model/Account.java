@@ -8,6 +8,9 @@ account_number (SQL) → accountNumber (Java)
 
 Incluye métodos de negocio (withdraw(), deposit())
 
+El saldo se guarda en centavos (long balanceCents → columna balance_cents BIGINT);
+getBalance() / setBalance() lo convierten a BigDecimal solo para JSON y DTOs.
+
 Anotaciones:
 
 @Table("accounts") → Mapea a tabla SQL
@@ -19,7 +22,11 @@ Anotaciones:
 
 package com.example.transfers.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id; // Marca el ID
+import org.springframework.data.annotation.Transient; // No se guarda en la BD
+import org.springframework.data.annotation.Version; // Bloqueo optimista
+import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table; // Mapea a tabla
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -40,33 +47,65 @@ public class Account {
     private Long id;
     private String accountNumber;
     private String ownerName;
-    private BigDecimal balance; // BigDecimal = tipo Java para dinero (evita errores de redondeo)
+    // Categoría de límites (transfers.limits.tiers): STANDARD, PREMIUM, BUSINESS...
+    private String tier;
+    // Saldo en centavos (ver Money): aritmética con long, sin crear objetos
+    @Column("balance_cents")
+    @JsonIgnore // En el JSON se publica "balance" con decimales
+    private long balanceCents;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    // Bloqueo optimista: save() hace UPDATE ... WHERE id = ? AND version = ?
+    // Si otro proceso modificó la fila antes, lanza OptimisticLockingFailureException
+    @Version
+    private Long version;
+    
+    /**
+     * Saldo con decimales (JSON, DTOs)
+     * @Transient: no es una columna, se calcula desde balanceCents
+     */
+    @Transient
+    public BigDecimal getBalance() {
+        return Money.toDecimal(balanceCents);
+    }
+    
+    @Transient
+    public void setBalance(BigDecimal balance) {
+        this.balanceCents = Money.toCents(balance);
+    }
+    
+    /**
+     * ¿Alcanza el saldo para este monto?
+     * @param amountCents - Monto en centavos
+     */
+    public boolean hasFunds(long amountCents) {
+        return balanceCents >= amountCents;
+    }
+    
     /**
      * Retirar dinero de la cuenta
-     * @param amount - Monto a retirar
+     * @param amountCents - Monto a retirar en centavos
      * @throws IllegalArgumentException si no hay saldo suficiente
      */
     
-    public void withdraw(BigDecimal amount) {
-        if (balance.compareTo(amount) < 0) {
+    public void withdraw(long amountCents) {
+        if (balanceCents < amountCents) {
             throw new IllegalArgumentException(
-                "Saldo insuficiente. Disponible: " + balance + ", Requerido: " + amount
+                "Saldo insuficiente. Disponible: " + getBalance() + ", Requerido: " + Money.toDecimal(amountCents)
             );
         }
-        this.balance = this.balance.subtract(amount);
+        this.balanceCents -= amountCents;
         this.updatedAt = LocalDateTime.now();
     }
     
     /**
      * Depositar dinero en la cuenta
-     * @param amount - Monto a depositar
+     * @param amountCents - Monto a depositar en centavos
      */
 
-    public void deposit(BigDecimal amount) {
-        this.balance = this.balance.add(amount);
+    public void deposit(long amountCents) {
+        this.balanceCents += amountCents;
         this.updatedAt = LocalDateTime.now();
     }
 }
@@ -0,0 +1,37 @@
+/*¿Para qué sirve?
+
+Representa la tabla account_daily_balances en la BD
+Una fila por cuenta y por día CON movimientos:
+
+saldo al cierre del día = openingBalance + totalCredits - totalDebits
+
+La mantiene DailyBalanceAggregator a medida que se completan transferencias.
+Clave primaria compuesta (account_id, day): se lee con DatabaseClient
+(Spring Data R2DBC no soporta @Id compuestos).
+ *
+ */
+
+package com.example.transfers.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountDailyBalance {
+
+    private Long accountId;
+    private LocalDate day;
+    private BigDecimal openingBalance;  // Saldo antes de la primera transferencia del día
+    private BigDecimal totalDebits;     // Suma enviada
+    private BigDecimal totalCredits;    // Suma recibida
+    private Integer transferCount;
+
+    public BigDecimal closingBalance() {
+        return openingBalance.add(totalCredits).subtract(totalDebits);
+    }
+}
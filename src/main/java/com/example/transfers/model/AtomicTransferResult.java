@@ -0,0 +1,35 @@
+/*¿Para qué sirve?
+
+Resultado de la sentencia atómica de transferencia (TransferRepository.executeAtomicTransfer)
+NO es una tabla: es la fila que devuelve el SELECT final del CTE
+
+Siempre llega exactamente una fila:
+- transferId != null → la transferencia se realizó
+- transferId == null → algo falló; los demás campos permiten saber qué
+ *
+ */
+
+package com.example.transfers.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AtomicTransferResult {
+
+    // IDs resueltos a partir de los números de cuenta (null = no existe)
+    private Long sourceAccountId;
+    private Long destinationAccountId;
+
+    // Saldo de la cuenta origen ANTES del débito (para el mensaje de error)
+    private BigDecimal sourceBalance;
+
+    // Datos de la transferencia insertada (null si no se realizó)
+    private Long transferId;
+    private LocalDateTime createdAt;
+}
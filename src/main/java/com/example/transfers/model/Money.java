@@ -0,0 +1,44 @@
+/*¿Para qué sirve?
+
+Dinero como long en centavos (unidad mínima, 2 decimales)
+
+PROBLEMA que resuelve:
+Cada compareTo / subtract / add de BigDecimal crea objetos nuevos y
+decodificar NUMERIC desde R2DBC es caro. En el camino de una transferencia
+basta con enteros: 1500.25 → 150025.
+
+REGLA:
+- Dentro del servicio y en Account los importes son long (centavos)
+- BigDecimal solo en los DTO / JSON (TransferRequest, TransferResponse)
+  y se convierte UNA vez con toCents() / toDecimal()
+ *
+ */
+
+package com.example.transfers.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public final class Money {
+
+    // Decimales de la moneda (centavos)
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * 1500.25 → 150025
+     * @throws ArithmeticException si no cabe en un long
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /**
+     * 150025 → 1500.25
+     */
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+}
@@ -31,14 +31,28 @@ public class Transfer {
 
     private BigDecimal amount;
     private String description;
-    private String status; // PENDING, COMPLETED, FAILED
+    private String status; // PENDING, SCHEDULED, DISPATCHING, EXECUTED, UNKNOWN, COMPLETED, FAILED
     private LocalDateTime createdAt;
+    // Solo en programadas: cuándo debe ejecutarse (service/schedule)
+    private LocalDateTime scheduledAt;
+    // Solo en EXECUTED: la transferencia real que generó esta programada
+    private Long executedTransferId;
     
     // ===== CLASE INTERNA CON CONSTANTES =====
     // En lugar de usar Strings directos ("COMPLETED"),
     // usamos constantes para evitar typos
     public static class Status {
         public static final String PENDING = "PENDING";
+        // Programada para scheduledAt
+        public static final String SCHEDULED = "SCHEDULED";
+        // Programada que el scheduler ya reclamó y está ejecutando
+        public static final String DISPATCHING = "DISPATCHING";
+        // Programada ya ejecutada: el resultado es executedTransferId
+        // (si la ejecución termina FAILED, la programada pasa a FAILED)
+        public static final String EXECUTED = "EXECUTED";
+        // Programada que quedó a medias en una réplica caída: no se sabe si el
+        // dinero se movió, así que NO se reintenta sola (revisar a mano)
+        public static final String UNKNOWN = "UNKNOWN";
         public static final String COMPLETED = "COMPLETED";
         public static final String FAILED = "FAILED";
     }
@@ -0,0 +1,86 @@
+/*¿Para qué sirve?
+
+Representa la tabla transfer_idempotency en la BD
+Guarda la respuesta entregada para cada Idempotency-Key, así un reintento
+del cliente recibe la misma respuesta sin volver a mover dinero.
+
+status == null      → la transferencia de esa clave todavía se está ejecutando
+status == UNKNOWN   → se ejecutó pero su respuesta no se pudo guardar (409 para siempre)
+ *
+ */
+
+package com.example.transfers.model;
+
+import com.example.transfers.dto.TransferResponse;
+import com.example.transfers.exception.ErrorCode;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table("transfer_idempotency")
+public class TransferIdempotency {
+
+    // Largos de las columnas: un mensaje de error largo no debe impedir guardar la respuesta
+    private static final int MAX_DESCRIPTION = 255;
+    private static final int MAX_MESSAGE = 500;
+
+    @Id
+    private String idempotencyKey;
+    private Long transferId;
+    private String sourceAccountNumber;
+    private String destinationAccountNumber;
+    private BigDecimal amount;
+    private String description;
+    private String status;
+    private String message;
+    private ErrorCode errorCode;
+    private LocalDateTime transferCreatedAt;
+    private LocalDateTime createdAt;
+
+    /**
+     * Registro completo a partir de la respuesta entregada al cliente
+     */
+    public static TransferIdempotency of(String idempotencyKey, TransferResponse response) {
+        return new TransferIdempotency(
+            idempotencyKey,
+            response.getId(),
+            response.getSourceAccountNumber(),
+            response.getDestinationAccountNumber(),
+            response.getAmount(),
+            truncate(response.getDescription(), MAX_DESCRIPTION),
+            response.getStatus(),
+            truncate(response.getMessage(), MAX_MESSAGE),
+            response.getErrorCode(),
+            response.getCreatedAt(),
+            LocalDateTime.now()
+        );
+    }
+
+    private static String truncate(String text, int max) {
+        return text != null && text.length() > max ? text.substring(0, max) : text;
+    }
+
+    /**
+     * Reconstruir la respuesta original
+     */
+    public TransferResponse toResponse() {
+        return TransferResponse.builder()
+            .id(transferId)
+            .sourceAccountNumber(sourceAccountNumber)
+            .destinationAccountNumber(destinationAccountNumber)
+            .amount(amount)
+            .description(description)
+            .status(status)
+            .createdAt(transferCreatedAt)
+            .message(message)
+            .errorCode(errorCode)
+            .build();
+    }
+}
@@ -0,0 +1,140 @@
+/*¿Para qué sirve?
+
+Acceso a account_daily_balances y consultas de "saldo a una fecha"
+
+Clase (no interfaz) porque la tabla tiene clave compuesta y las sentencias
+usan arrays / subconsultas que Spring Data no puede derivar.
+ *
+ */
+
+package com.example.transfers.repository;
+
+import com.example.transfers.model.AccountDailyBalance;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Repository
+@RequiredArgsConstructor
+public class AccountDailyBalanceRepository {
+
+    /**
+     * Sumar los movimientos de un lote (ya agregados por cuenta y día)
+     *
+     * - Fila nueva  → opening = saldo actual - neto de las transferencias COMPLETED
+     *                 desde el inicio de ese día (saldo y transferencias se leen en
+     *                 la misma instantánea, así que son coherentes entre sí)
+     * - Fila existente → solo se suman débitos, créditos y cantidad
+     */
+    private static final String UPSERT = """
+        INSERT INTO account_daily_balances (account_id, day, opening_balance, total_debits, total_credits, transfer_count)
+        SELECT v.account_id, v.day,
+               a.balance
+                 - COALESCE((SELECT SUM(t.amount) FROM transfers t
+                              WHERE t.destination_account_id = v.account_id AND t.status = 'COMPLETED'
+                                AND t.created_at >= v.day), 0)
+                 + COALESCE((SELECT SUM(t.amount) FROM transfers t
+                              WHERE t.source_account_id = v.account_id AND t.status = 'COMPLETED'
+                                AND t.created_at >= v.day), 0),
+               v.debits_cents / 100.0, v.credits_cents / 100.0, v.transfer_count
+          FROM unnest(CAST(:accountIds AS bigint[]), CAST(CAST(:days AS varchar[]) AS date[]), CAST(:debits AS bigint[]),
+                      CAST(:credits AS bigint[]), CAST(:counts AS int[]))
+               AS v(account_id, day, debits_cents, credits_cents, transfer_count)
+          JOIN accounts a ON a.id = v.account_id
+        ON CONFLICT (account_id, day) DO UPDATE
+           SET total_debits = account_daily_balances.total_debits + EXCLUDED.total_debits,
+               total_credits = account_daily_balances.total_credits + EXCLUDED.total_credits,
+               transfer_count = account_daily_balances.transfer_count + EXCLUDED.transfer_count
+        """;
+
+    // Neto (créditos - débitos) en [from, to); cada lado usa su índice (cuenta, created_at, id)
+    private static final String NET_CHANGE = """
+        SELECT COALESCE((SELECT SUM(amount) FROM transfers
+                          WHERE destination_account_id = :accountId AND status = 'COMPLETED'
+                            AND created_at >= :from AND created_at < :to), 0)
+             - COALESCE((SELECT SUM(amount) FROM transfers
+                          WHERE source_account_id = :accountId AND status = 'COMPLETED'
+                            AND created_at >= :from AND created_at < :to), 0) AS net
+        """;
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Aplicar un lote de deltas (cada (cuenta, día) debe aparecer una sola vez)
+     * Los días viajan como texto ISO (yyyy-MM-dd), igual que created_at en TransferBatchStatements
+     */
+    public Mono<Void> upsert(Long[] accountIds, String[] days, Long[] debitsCents,
+                             Long[] creditsCents, Integer[] counts) {
+        if (accountIds.length == 0) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(UPSERT)
+            .bind("accountIds", accountIds)
+            .bind("days", days)
+            .bind("debits", debitsCents)
+            .bind("credits", creditsCents)
+            .bind("counts", counts)
+            .fetch()
+            .rowsUpdated()
+            .then();
+    }
+
+    /**
+     * Snapshot más reciente con day <= :day
+     */
+    public Mono<AccountDailyBalance> findLatestOnOrBefore(Long accountId, LocalDate day) {
+        return databaseClient.sql("""
+                SELECT * FROM account_daily_balances
+                 WHERE account_id = :accountId AND day <= :day
+                 ORDER BY day DESC
+                 LIMIT 1
+                """)
+            .bind("accountId", accountId)
+            .bind("day", day)
+            .map(row -> new AccountDailyBalance(
+                row.get("account_id", Long.class),
+                row.get("day", LocalDate.class),
+                row.get("opening_balance", BigDecimal.class),
+                row.get("total_debits", BigDecimal.class),
+                row.get("total_credits", BigDecimal.class),
+                row.get("transfer_count", Integer.class)))
+            .one();
+    }
+
+    /**
+     * Créditos - débitos COMPLETED de la cuenta en [from, to)
+     */
+    public Mono<BigDecimal> netChange(Long accountId, LocalDateTime from, LocalDateTime to) {
+        return databaseClient.sql(NET_CHANGE)
+            .bind("accountId", accountId)
+            .bind("from", from)
+            .bind("to", to)
+            .map(row -> row.get("net", BigDecimal.class))
+            .one();
+    }
+
+    /**
+     * Sin snapshots anteriores: saldo actual - neto desde asOf (misma instantánea)
+     */
+    public Mono<BigDecimal> balanceFromCurrent(Long accountId, LocalDateTime asOf) {
+        return databaseClient.sql("""
+                SELECT a.balance
+                     - COALESCE((SELECT SUM(amount) FROM transfers
+                                  WHERE destination_account_id = a.id AND status = 'COMPLETED'
+                                    AND created_at >= :asOf), 0)
+                     + COALESCE((SELECT SUM(amount) FROM transfers
+                                  WHERE source_account_id = a.id AND status = 'COMPLETED'
+                                    AND created_at >= :asOf), 0) AS balance
+                  FROM accounts a
+                 WHERE a.id = :accountId
+                """)
+            .bind("accountId", accountId)
+            .bind("asOf", asOf)
+            .map(row -> row.get("balance", BigDecimal.class))
+            .one();
+    }
+}
@@ -9,8 +9,12 @@ NO necesitas escribir código de implementación
 package com.example.transfers.repository;
 
 import com.example.transfers.model.Account;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository  // Marca esta interfaz como repositorio
@@ -37,4 +41,24 @@ public interface AccountRepository extends ReactiveCrudRepository<Account, Long>
      */
 
     Mono<Boolean> existsByAccountNumber(String accountNumber);
-}
\ No newline at end of file
+
+    /**
+     * Bloquear las dos cuentas de una transferencia (SELECT ... FOR UPDATE)
+     *
+     * ORDER BY id → PostgreSQL bloquea las filas en ese orden, así que
+     * A→B y B→A siempre piden los locks en el mismo orden (sin deadlocks).
+     * Debe ejecutarse dentro de una transacción.
+     */
+    @Query("SELECT * FROM accounts WHERE account_number IN (:source, :destination) ORDER BY id FOR UPDATE")
+    Flux<Account> lockByAccountNumbersOrderedById(@Param("source") String sourceAccountNumber,
+                                                  @Param("destination") String destinationAccountNumber);
+
+    /**
+     * Sumar (o restar, con delta negativo) al saldo sin reescribir la fila entera
+     *
+     * SQL: UPDATE accounts SET balance_cents = balance_cents + ? WHERE id = ?  (delta en centavos)
+     */
+    @Modifying
+    @Query("UPDATE accounts SET balance_cents = balance_cents + :delta, updated_at = CURRENT_TIMESTAMP, version = version + 1 WHERE id = :id")
+    Mono<Integer> addToBalance(@Param("id") Long id, @Param("delta") long deltaCents);
+}
@@ -0,0 +1,16 @@
+/*¿Para qué sirve?
+
+Qué lado del historial de una cuenta se consulta
+(GET /api/transfers/history/{accountNumber}?direction=...)
+ */
+
+package com.example.transfers.repository;
+
+public enum HistoryDirection {
+    // Enviadas y recibidas, intercaladas por fecha
+    ALL,
+    // Solo donde la cuenta es origen
+    SENT,
+    // Solo donde la cuenta es destino
+    RECEIVED
+}
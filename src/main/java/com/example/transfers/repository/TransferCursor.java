@@ -0,0 +1,51 @@
+/*¿Para qué sirve?
+
+Posición dentro de un listado de transferencias ordenado por (created_at, id)
+
+PAGINACIÓN POR CURSOR (keyset) en lugar de OFFSET:
+- OFFSET 100000 obliga a PostgreSQL a leer y descartar 100000 filas
+- Con el cursor la página siguiente es WHERE (created_at, id) < (cursor)
+  y el índice (created_at, id) salta directo a esa posición: cada página
+  cuesta lo mismo sin importar lo profunda que sea
+
+El cliente lo recibe como texto opaco (Base64 URL-safe de "created_at|id").
+ *
+ */
+
+package com.example.transfers.repository;
+
+import com.example.transfers.model.Transfer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public record TransferCursor(LocalDateTime createdAt, Long id) {
+
+    public static TransferCursor of(Transfer transfer) {
+        return new TransferCursor(transfer.getCreatedAt(), transfer.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token - Cursor recibido del cliente (null o vacío = primera página)
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static TransferCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new TransferCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                      Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido: " + token);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*¿Para qué sirve?
+
+Acceso a la tabla transfer_idempotency
+claim() es la pieza clave: solo UNA réplica puede "reservar" una clave
+(INSERT ... ON CONFLICT DO NOTHING), las demás ven 0 filas insertadas.
+ *
+ */
+
+package com.example.transfers.repository;
+
+import com.example.transfers.model.TransferIdempotency;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+
+@Repository
+public interface TransferIdempotencyRepository extends ReactiveCrudRepository<TransferIdempotency, String> {
+    // ===== MÉTODOS HEREDADOS QUE SE USAN =====
+    // findById(key)  → respuesta guardada
+    // save(entity)   → como el ID (la clave) no es null, Spring hace UPDATE
+    // deleteById(key) → liberar la clave si la ejecución falló
+
+    /**
+     * Reservar una clave
+     * @return 1 si esta llamada la reservó, 0 si ya existía
+     */
+    @Modifying
+    @Query("INSERT INTO transfer_idempotency (idempotency_key, created_at) VALUES (:key, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING")
+    Mono<Integer> claim(@Param("key") String idempotencyKey);
+
+    /**
+     * Marcar un claim cuya transferencia se ejecutó pero cuya respuesta no se guardó
+     * (la clave queda bloqueada: un reintento no vuelve a mover dinero)
+     */
+    @Modifying
+    @Query("UPDATE transfer_idempotency SET status = 'UNKNOWN' WHERE idempotency_key = :key AND status IS NULL")
+    Mono<Integer> markUnknown(@Param("key") String idempotencyKey);
+
+    /**
+     * Purgar claves más antiguas que el período de retención
+     */
+    @Modifying
+    @Query("DELETE FROM transfer_idempotency WHERE created_at < :cutoff")
+    Mono<Integer> deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
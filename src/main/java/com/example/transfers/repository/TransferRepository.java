@@ -5,19 +5,25 @@ Spring genera queries basadas en los nombres de métodos:
 
 findBySourceAccountId() → WHERE source_account_id = ?
 findByStatus() → WHERE status = ?
- * 
+
+Los listados paginados con filtros están en TransferRepositoryCustom
+ *
  */
 
 package com.example.transfers.repository;
 
+import com.example.transfers.model.AtomicTransferResult;
 import com.example.transfers.model.Transfer;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Repository
-public interface TransferRepository extends ReactiveCrudRepository<Transfer, Long> {
-    
+public interface TransferRepository extends ReactiveCrudRepository<Transfer, Long>, TransferRepositoryCustom {
+
     // Buscar transferencias desde una cuenta
     // SQL: SELECT * FROM transfers WHERE source_account_id = ?
     Flux<Transfer> findBySourceAccountId(Long sourceAccountId);
@@ -27,4 +33,97 @@ public interface TransferRepository extends ReactiveCrudRepository<Transfer, Lon
     // Buscar por estado
     // SQL: SELECT * FROM transfers WHERE status = ?
     Flux<Transfer> findByStatus(String status);
-}
\ No newline at end of file
+
+    /**
+     * Transferencia completa en UNA sola sentencia (un round trip)
+     *
+     * CÓMO FUNCIONA (CTE = WITH ... AS):
+     * 1. src/dst    → resuelven los IDs a partir de los números de cuenta
+     * 2. locked     → SELECT ... ORDER BY id FOR UPDATE de AMBAS filas, antes de
+     *                 modificar nada: A→B y B→A concurrentes bloquean en el mismo
+     *                 orden (menor id primero), así que se esperan en vez de
+     *                 cruzarse en un deadlock (40P01)
+     * 3. lock_count → count(*) consume locked entero: ningún UPDATE corre hasta
+     *                 tener los dos locks (y exige dos cuentas distintas)
+     * 4. debit      → UPDATE condicional: solo descuenta si balance >= amount
+     *                 (PostgreSQL re-evalúa el WHERE sobre la versión bloqueada,
+     *                  así dos transferencias concurrentes nunca dejan saldo negativo)
+     * 5. credit     → solo acredita si el débito devolvió una fila
+     * 6. inserted   → solo inserta si débito y crédito se aplicaron
+     * 7. SELECT     → siempre devuelve una fila para poder explicar el resultado
+     *
+     * :amount va en centavos (Money): se compara con balance_cents sin pasar por NUMERIC.
+     *
+     * Al ser una única sentencia es atómica aunque no haya transacción explícita.
+     */
+    @Query("""
+        WITH src AS (
+            SELECT id, balance FROM accounts WHERE account_number = :source
+        ), dst AS (
+            SELECT id FROM accounts WHERE account_number = :destination
+        ), locked AS (
+            SELECT a.id FROM accounts a
+             WHERE a.id IN (SELECT id FROM src UNION SELECT id FROM dst)
+             ORDER BY a.id
+               FOR UPDATE
+        ), lock_count AS (
+            SELECT count(*) AS n FROM locked
+        ), debit AS (
+            UPDATE accounts a
+               SET balance_cents = a.balance_cents - :amount, updated_at = CURRENT_TIMESTAMP, version = a.version + 1
+              FROM src, dst, lock_count
+             WHERE a.id = src.id AND src.id <> dst.id AND lock_count.n = 2 AND a.balance_cents >= :amount
+            RETURNING a.id
+        ), credit AS (
+            UPDATE accounts a
+               SET balance_cents = a.balance_cents + :amount, updated_at = CURRENT_TIMESTAMP, version = a.version + 1
+              FROM debit, dst
+             WHERE a.id = dst.id
+            RETURNING a.id
+        ), inserted AS (
+            INSERT INTO transfers (source_account_id, destination_account_id, amount, description, status, created_at)
+            SELECT debit.id, credit.id, :amount / 100.0, :description, 'COMPLETED', CURRENT_TIMESTAMP
+              FROM debit, credit
+            RETURNING id, created_at
+        )
+        SELECT src.id AS source_account_id,
+               dst.id AS destination_account_id,
+               src.balance AS source_balance,
+               inserted.id AS transfer_id,
+               inserted.created_at AS created_at
+          FROM (SELECT 1) AS one
+          LEFT JOIN src ON TRUE
+          LEFT JOIN dst ON TRUE
+          LEFT JOIN inserted ON TRUE
+        """)
+    Mono<AtomicTransferResult> executeAtomicTransfer(@Param("source") String sourceAccountNumber,
+                                                     @Param("destination") String destinationAccountNumber,
+                                                     @Param("amount") long amountCents,
+                                                     @Param("description") String description);
+
+    /**
+     * Cancelar solo si sigue PENDING o SCHEDULED (UPDATE condicional, sin leer antes)
+     * Si un worker de liquidación tiene la fila reclamada, espera su COMMIT
+     * y el WHERE se re-evalúa: una transferencia ya liquidada no se pisa.
+     * Una programada que el scheduler ya tomó está DISPATCHING y tampoco se toca.
+     *
+     * @return La fila cancelada; vacío si no existe o ya no se podía cancelar
+     */
+    @Query("""
+        UPDATE transfers
+           SET status = 'FAILED',
+               description = LEFT(COALESCE(description || ' - ', '') || 'CANCELADA POR USUARIO', 255)
+         WHERE id = :id AND status IN ('PENDING', 'SCHEDULED')
+        RETURNING *
+        """)
+    Mono<Transfer> cancelIfPending(@Param("id") Long id);
+
+    /**
+     * Reservar un bloque de IDs de la secuencia de transfers
+     * Permite conocer el ID antes de insertar (p. ej. inserciones por lotes asíncronas)
+     *
+     * SQL: SELECT nextval(...) FROM generate_series(1, ?)
+     */
+    @Query("SELECT nextval(pg_get_serial_sequence('transfers', 'id')) FROM generate_series(1, :count)")
+    Flux<Long> reserveIds(@Param("count") int count);
+}
@@ -0,0 +1,44 @@
+/*¿Para qué sirve?
+
+Consultas de transferencias que Spring Data no puede derivar del nombre del método:
+filtros opcionales + paginación por cursor.
+
+TransferRepository extiende esta interfaz y Spring usa la implementación
+TransferRepositoryCustomImpl (sufijo "Impl") para estos métodos.
+ *
+ */
+
+package com.example.transfers.repository;
+
+import com.example.transfers.model.Transfer;
+import reactor.core.publisher.Flux;
+import java.time.LocalDateTime;
+
+public interface TransferRepositoryCustom {
+
+    /**
+     * Página de transferencias, de la más reciente a la más antigua
+     *
+     * @param status - Estado exacto (null = todos)
+     * @param accountId - Cuenta origen o destino (null = todas)
+     * @param from - created_at >= from (null = sin límite)
+     * @param to - created_at < to (null = sin límite)
+     * @param after - Última fila de la página anterior (null = primera página)
+     * @param limit - Máximo de filas
+     */
+    Flux<Transfer> findPage(String status, Long accountId, LocalDateTime from, LocalDateTime to,
+                            TransferCursor after, int limit);
+
+    /**
+     * Historial de una cuenta en orden cronológico inverso
+     *
+     * @param accountId - Cuenta consultada
+     * @param direction - Enviadas, recibidas o ambas
+     * @param from - created_at >= from (null = sin límite)
+     * @param to - created_at < to (null = sin límite)
+     * @param after - Última fila de la página anterior (null = primera página)
+     * @param limit - Máximo de filas
+     */
+    Flux<Transfer> findHistory(Long accountId, HistoryDirection direction, LocalDateTime from, LocalDateTime to,
+                               TransferCursor after, int limit);
+}
@@ -0,0 +1,167 @@
+/*¿Para qué sirve?
+
+Implementación de TransferRepositoryCustom con SQL dinámico (DatabaseClient)
+
+¿Por qué no un @Query con "(:status IS NULL OR status = :status)"?
+PostgreSQL reutiliza el plan de la sentencia preparada para cualquier
+combinación de parámetros y acaba sin usar los índices compuestos.
+Aquí solo se agregan al WHERE los filtros presentes, así cada combinación
+tiene su propio plan y su índice:
+
+- sin filtros       → idx_transfer_created        (created_at, id)
+- status            → idx_transfer_status_created (status, created_at, id)
+- accountId         → los dos streams por lado del historial (abajo), con el
+                      resto de los filtros aplicados en cada uno
+
+HISTORIAL DE UNA CUENTA (findHistory):
+Un "WHERE source = ? OR destination = ?" no puede leerse en orden de un índice.
+En su lugar se abren DOS streams, cada uno ya ordenado por su índice:
+- enviadas  → idx_transfer_source_created      (source_account_id, created_at, id)
+- recibidas → idx_transfer_destination_created (destination_account_id, created_at, id)
+y Flux.mergeComparing los intercala por (created_at, id) sin ordenar en memoria.
+Una FAILED por SAME_ACCOUNT aparece en los dos índices: el stream de recibidas
+la descarta para que salga una sola vez.
+Cada stream lee como mucho "limit" filas: una página profunda cuesta lo mismo
+que la primera.
+ *
+ */
+
+package com.example.transfers.repository;
+
+import com.example.transfers.model.Transfer;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class TransferRepositoryCustomImpl implements TransferRepositoryCustom {
+
+    // Orden de los listados: más reciente primero, id como desempate
+    static final Comparator<Transfer> NEWEST_FIRST = Comparator
+        .comparing(Transfer::getCreatedAt)
+        .thenComparing(Transfer::getId)
+        .reversed();
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<Transfer> findPage(String status, Long accountId, LocalDateTime from, LocalDateTime to,
+                                   TransferCursor after, int limit) {
+        if (accountId != null) {
+            // El OR entre origen y destino obligaría a juntar y ordenar TODAS las filas
+            // de la cuenta en cada página: mismo merge de índices que el historial
+            return mergeSides(accountId, status, from, to, after, limit);
+        }
+        StringBuilder sql = new StringBuilder("SELECT * FROM transfers WHERE TRUE");
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (status != null) {
+            sql.append(" AND status = :status");
+            params.put("status", status);
+        }
+        if (from != null) {
+            sql.append(" AND created_at >= :from");
+            params.put("from", from);
+        }
+        if (to != null) {
+            sql.append(" AND created_at < :to");
+            params.put("to", to);
+        }
+        if (after != null) {
+            // Comparación de filas: PostgreSQL la resuelve con un solo rango del índice
+            sql.append(" AND (created_at, id) < (:afterCreatedAt, :afterId)");
+            params.put("afterCreatedAt", after.createdAt());
+            params.put("afterId", after.id());
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT :limit");
+        params.put("limit", limit);
+        return query(sql.toString(), params);
+    }
+
+    @Override
+    public Flux<Transfer> findHistory(Long accountId, HistoryDirection direction, LocalDateTime from,
+                                      LocalDateTime to, TransferCursor after, int limit) {
+        return switch (direction) {
+            case SENT -> findBySide("source_account_id", accountId, null, from, to, after, limit, false);
+            case RECEIVED -> findBySide("destination_account_id", accountId, null, from, to, after, limit, false);
+            case ALL -> mergeSides(accountId, null, from, to, after, limit);
+        };
+    }
+
+    /**
+     * Enviadas y recibidas intercaladas por (created_at, id), cada lado en orden de su índice
+     * Las FAILED pueden tener origen = destino (rechazo SAME_ACCOUNT, el CHECK different_accounts
+     * las admite): el lado destino las excluye para que no salgan dos veces ni gasten el límite
+     */
+    private Flux<Transfer> mergeSides(Long accountId, String status, LocalDateTime from, LocalDateTime to,
+                                      TransferCursor after, int limit) {
+        return Flux.mergeComparing(NEWEST_FIRST,
+                findBySide("source_account_id", accountId, status, from, to, after, limit, false),
+                findBySide("destination_account_id", accountId, status, from, to, after, limit, true))
+            .take(limit);
+    }
+
+    /**
+     * Un lado del historial, leído en el orden del índice (column, created_at, id)
+     * @param column - Columna fija (nunca viene del cliente)
+     * @param status - Estado exacto (null = todos); se filtra sobre el mismo recorrido
+     * @param excludeSelf - true → sin las filas con origen = destino (ya las trae el otro lado)
+     */
+    private Flux<Transfer> findBySide(String column, Long accountId, String status, LocalDateTime from,
+                                      LocalDateTime to, TransferCursor after, int limit, boolean excludeSelf) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM transfers WHERE ")
+            .append(column).append(" = :accountId");
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("accountId", accountId);
+        if (excludeSelf) {
+            sql.append(" AND source_account_id IS DISTINCT FROM destination_account_id");
+        }
+        if (status != null) {
+            sql.append(" AND status = :status");
+            params.put("status", status);
+        }
+        if (from != null) {
+            sql.append(" AND created_at >= :from");
+            params.put("from", from);
+        }
+        if (to != null) {
+            sql.append(" AND created_at < :to");
+            params.put("to", to);
+        }
+        if (after != null) {
+            sql.append(" AND (created_at, id) < (:afterCreatedAt, :afterId)");
+            params.put("afterCreatedAt", after.createdAt());
+            params.put("afterId", after.id());
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT :limit");
+        params.put("limit", limit);
+        return query(sql.toString(), params);
+    }
+
+    private Flux<Transfer> query(String sql, Map<String, Object> params) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec.map(TransferRepositoryCustomImpl::toTransfer).all();
+    }
+
+    static Transfer toTransfer(Readable row) {
+        return new Transfer(
+            row.get("id", Long.class),
+            row.get("source_account_id", Long.class),
+            row.get("destination_account_id", Long.class),
+            row.get("amount", BigDecimal.class),
+            row.get("description", String.class),
+            row.get("status", String.class),
+            row.get("created_at", LocalDateTime.class),
+            row.get("scheduled_at", LocalDateTime.class),
+            row.get("executed_transfer_id", Long.class)
+        );
+    }
+}
@@ -8,6 +8,9 @@ Facilita testing y permite múltiples implementaciones
 
 package com.example.transfers.service;
 
+import com.example.transfers.dto.BalanceResponse;
+import com.example.transfers.dto.TransferFilter;
+import com.example.transfers.dto.TransferPage;
 import com.example.transfers.dto.TransferRequest;
 import com.example.transfers.dto.TransferResponse;
 import com.example.transfers.dto.AccountUpdateRequest;
@@ -15,6 +18,7 @@ import com.example.transfers.model.Account;
 import com.example.transfers.model.Transfer;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
 
 /**
  * INTERFAZ: TransferService
@@ -38,17 +42,58 @@ public interface TransferService {
      * 5. Registrar la transferencia en BD
      * 6. Retornar respuesta
      * 
+     * Con transfers.async.enabled solo se valida 1 y se responde PENDING;
+     * los pasos 2 a 5 los hace después service/settlement/SettlementWorkers.
+     * Con scheduledAt futuro se responde SCHEDULED y la ejecuta
+     * service/schedule/TransferScheduler a su hora
+     * 
      * @param request - DTO con datos de la transferencia
      * @return Mono<TransferResponse> - Respuesta con resultado de la operación
      */
     Mono<TransferResponse> performTransfer(TransferRequest request);
     
     /**
-     * Obtener todas las transferencias realizadas
+     * Realizar una transferencia protegida por Idempotency-Key
+     * Si la clave ya se usó, retorna la respuesta original sin volver a ejecutar
+     * 
+     * @param request - DTO con datos de la transferencia
+     * @param idempotencyKey - Clave enviada por el cliente (null = sin protección)
+     * @return Mono<TransferResponse> - Respuesta original o nueva
+     */
+    Mono<TransferResponse> performTransfer(TransferRequest request, String idempotencyKey);
+    
+    /**
+     * Ejecutar una transferencia programada que llegó a su hora (TransferScheduler)
+     * Como performTransfer con Idempotency-Key, pero si termina FAILED no se
+     * registra una fila nueva: el resultado se guarda en la propia fila programada
+     * 
+     * @param request - DTO sin scheduledAt
+     * @param idempotencyKey - "scheduled-{id}": una programada se ejecuta una sola vez
+     * @return Mono<TransferResponse> - Respuesta original o nueva
+     */
+    Mono<TransferResponse> performScheduled(TransferRequest request, String idempotencyKey);
+    
+    /**
+     * Realizar muchas transferencias a partir de un stream (p. ej. nómina)
+     * 
+     * - Concurrencia acotada (transfers.bulk.concurrency) con backpressure:
+     *   solo se leen del cliente las peticiones que se pueden procesar
+     * - Cada resultado se emite en cuanto termina (no en orden de entrada)
+     * - Una petición inválida o fallida produce una respuesta FAILED,
+     *   nunca corta el stream
      * 
-     * @return Flux<Transfer> - Stream de todas las transferencias
+     * @param requests - Stream de peticiones
+     * @return Flux<TransferResponse> - Un resultado por cada petición
      */
-    Flux<Transfer> getAllTransfers();
+    Flux<TransferResponse> performBulkTransfers(Flux<TransferRequest> requests);
+    
+    /**
+     * Obtener una página de transferencias (más recientes primero)
+     * 
+     * @param filter - Filtros opcionales, cursor y tamaño de página
+     * @return Mono<TransferPage> - Transferencias + cursor de la página siguiente
+     */
+    Mono<TransferPage> getTransfers(TransferFilter filter);
     
     /**
      * Obtener una transferencia específica por ID
@@ -60,12 +105,12 @@ public interface TransferService {
     
     /**
      * Obtener historial de transferencias de una cuenta
-     * Incluye tanto transferencias enviadas como recibidas
+     * Enviadas y/o recibidas, intercaladas en orden cronológico inverso
      * 
-     * @param accountNumber - Número de cuenta
-     * @return Flux<Transfer> - Historial completo de transferencias
+     * @param filter - accountNumber (obligatorio), direction, rango de fechas, cursor y límite
+     * @return Mono<TransferPage> - Página del historial + cursor de la siguiente
      */
-    Flux<Transfer> getTransferHistory(String accountNumber);
+    Mono<TransferPage> getTransferHistory(TransferFilter filter);
     
     /**
      * Obtener todas las cuentas registradas
@@ -81,6 +126,16 @@ public interface TransferService {
      * @return Mono<Account> - Cuenta encontrada o vacío
      */
     Mono<Account> getAccountByNumber(String accountNumber);
+    
+    /**
+     * Saldo de una cuenta en un instante pasado
+     * Se calcula con el snapshot diario más cercano + las transferencias posteriores
+     * 
+     * @param accountNumber - Número de cuenta
+     * @param asOf - Instante consultado (las transferencias de ese instante en adelante no cuentan)
+     * @return Mono<BalanceResponse> - Saldo a esa fecha o vacío si la cuenta no existe
+     */
+    Mono<BalanceResponse> getBalanceAsOf(String accountNumber, LocalDateTime asOf);
 
 // ===== NUEVOS MÉTODOS UPDATE =====
     /**
@@ -93,7 +148,7 @@ public interface TransferService {
     
     /**
      * Cancelar una transferencia pendiente
-     * Solo se pueden cancelar transferencias en estado PENDING
+     * Solo se pueden cancelar transferencias en estado PENDING o SCHEDULED
      * @param transferId - ID de la transferencia
      * @return Transferencia cancelada
      */
@@ -0,0 +1,139 @@
+/*¿Para qué sirve?
+
+Registra las transferencias FAILED en la tabla transfers, fuera del camino de la petición
+
+PROBLEMA que resuelve:
+Antes, cada fallo volvía a buscar las dos cuentas y hacía un INSERT antes de
+responder: el doble de consultas justo cuando el sistema ya está en apuros,
+y el cliente esperaba por una fila de auditoría.
+
+FLUJO:
+1. record() arma la fila con las cuentas que el ejecutor YA resolvió
+   (vienen en la TransferException) y la encola sin bloquear
+2. AsyncBatcher agrupa lo que llega en maxWait (o hasta batchSize)
+3. Solo las fallidas de errores técnicos (sin cuentas conocidas) buscan
+   los ids en AccountCache, en segundo plano
+4. UN INSERT multi-fila por lote (TransferBatchStatements)
+
+POLÍTICA (transfers.failed-transfers.policy): ALL | BUSINESS_ONLY | NONE
+
+LIMITACIONES:
+- La respuesta FAILED ya no lleva id: la fila aparece en el historial
+  unos milisegundos después
+- Si la cola se llena o la app muere con filas pendientes, esas filas
+  se pierden (se registra en el log); el fallo igual se cuenta en transfers.failures
+ *
+ */
+
+package com.example.transfers.service.audit;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.exception.ErrorCode;
+import com.example.transfers.exception.TransferException;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.service.cache.AccountCache;
+import com.example.transfers.service.metrics.TransferMetrics;
+import com.example.transfers.service.metrics.TransferStage;
+import com.example.transfers.service.support.AsyncBatcher;
+import com.example.transfers.service.support.TransferBatchStatements;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@Slf4j
+public class FailedTransferRecorder {
+
+    // Largo de transfers.description
+    private static final int MAX_DESCRIPTION = 255;
+
+    private final DatabaseClient databaseClient;
+    private final AccountCache accountCache;
+    private final TransferMetrics transferMetrics;
+    private final TransferProperties.FailedTransfers.Policy policy;
+    private final AsyncBatcher<FailedTransfer> batcher;
+
+    public FailedTransferRecorder(DatabaseClient databaseClient, AccountCache accountCache,
+                                  TransferMetrics transferMetrics, TransferProperties properties) {
+        this.databaseClient = databaseClient;
+        this.accountCache = accountCache;
+        this.transferMetrics = transferMetrics;
+        TransferProperties.FailedTransfers config = properties.getFailedTransfers();
+        this.policy = config.getPolicy();
+        this.batcher = new AsyncBatcher<>("failed-transfers", config.getBatchSize(), config.getMaxWait(),
+                                          config.getQueueCapacity(), this::write);
+    }
+
+    /**
+     * Encolar la fila FAILED de una transferencia rechazada (no bloquea)
+     */
+    public void record(TransferRequest request, Throwable error) {
+        boolean business = error instanceof TransferException;
+        if (policy == TransferProperties.FailedTransfers.Policy.NONE
+                || (policy == TransferProperties.FailedTransfers.Policy.BUSINESS_ONLY && !business)) {
+            return;
+        }
+        if (!batcher.offer(new FailedTransfer(request, error, LocalDateTime.now()))) {
+            log.warn("Transferencia fallida sin registrar: {} -> {}",
+                     request.getSourceAccountNumber(), request.getDestinationAccountNumber());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        batcher.close(Duration.ofSeconds(10));
+    }
+
+    private Mono<Void> write(List<FailedTransfer> failures) {
+        // concatMap conserva el orden de llegada; los ids conocidos no tocan la caché ni la BD
+        return Flux.fromIterable(failures)
+            .concatMap(this::toTransfer)
+            .collectList()
+            .flatMap(rows -> transferMetrics.stage(TransferStage.FAILURE_RECORD,
+                TransferBatchStatements.insertFailedTransfers(databaseClient, rows)));
+    }
+
+    private Mono<Transfer> toTransfer(FailedTransfer failure) {
+        Transfer transfer = new Transfer();
+        transfer.setAmount(failure.request().getAmount());
+        transfer.setDescription(description(failure));
+        transfer.setStatus(Transfer.Status.FAILED);
+        transfer.setCreatedAt(failure.failedAt());
+        if (failure.error() instanceof TransferException rejected) {
+            // Rechazo de negocio: el ejecutor ya dijo qué cuentas existen
+            transfer.setSourceAccountId(rejected.getSourceAccountId());
+            transfer.setDestinationAccountId(rejected.getDestinationAccountId());
+            if (rejected.getErrorCode() == ErrorCode.ACCOUNT_NOT_FOUND || rejected.getSourceAccountId() != null) {
+                return Mono.just(transfer);
+            }
+        }
+        // Error técnico (o rechazo previo a buscar las cuentas): ids por la caché, ambos o ninguno
+        return accountCache.resolve(failure.request().getSourceAccountNumber())
+            .zipWith(accountCache.resolve(failure.request().getDestinationAccountNumber()))
+            .map(accounts -> {
+                transfer.setSourceAccountId(accounts.getT1().getId());
+                transfer.setDestinationAccountId(accounts.getT2().getId());
+                return transfer;
+            })
+            .onErrorResume(error -> Mono.empty())
+            .defaultIfEmpty(transfer);
+    }
+
+    private static String description(FailedTransfer failure) {
+        String requested = failure.request().getDescription();
+        String text = requested != null
+            ? requested + " - FAILED: " + failure.error().getMessage()
+            : "FAILED: " + failure.error().getMessage();
+        return text.length() > MAX_DESCRIPTION ? text.substring(0, MAX_DESCRIPTION) : text;
+    }
+
+    private record FailedTransfer(TransferRequest request, Throwable error, LocalDateTime failedAt) {
+    }
+}
@@ -0,0 +1,103 @@
+/*¿Para qué sirve?
+
+Mantiene account_daily_balances al día, de forma incremental y en segundo plano
+
+FLUJO:
+1. onTransferCompleted() encola la transferencia (no bloquea la respuesta)
+2. AsyncBatcher agrupa lo que llega en maxWait (o hasta batchSize)
+3. El lote se agrega en memoria por (cuenta, día): débitos, créditos, cantidad
+4. UNA sentencia UPSERT aplica todos los deltas del lote
+
+Así el saldo a cualquier fecha se responde con el snapshot más cercano
+más un recorrido acotado de transferencias (ver getBalanceAsOf en TransferServiceImpl),
+sin recorrer toda la historia de la cuenta.
+
+LIMITACIONES:
+- Si la cola se llena o la app muere con elementos pendientes, esos deltas
+  se pierden (se registra en el log); la fila del día siguiente vuelve a
+  calcular su saldo inicial desde el saldo real
+- Los ajustes manuales de saldo (PUT /api/accounts) no son transferencias
+  y no figuran en los totales del día
+ *
+ */
+
+package com.example.transfers.service.balance;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.model.Money;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.repository.AccountDailyBalanceRepository;
+import com.example.transfers.service.listener.TransferListener;
+import com.example.transfers.service.support.AsyncBatcher;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "transfers.daily-balances.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class DailyBalanceAggregator implements TransferListener {
+
+    private final AccountDailyBalanceRepository repository;
+    private final AsyncBatcher<Transfer> batcher;
+
+    public DailyBalanceAggregator(AccountDailyBalanceRepository repository, TransferProperties properties) {
+        this.repository = repository;
+        TransferProperties.DailyBalances config = properties.getDailyBalances();
+        this.batcher = new AsyncBatcher<>("daily-balances", config.getBatchSize(), config.getMaxWait(),
+                                          config.getQueueCapacity(), this::write);
+    }
+
+    @Override
+    public void onTransferCompleted(Transfer transfer) {
+        if (!batcher.offer(transfer)) {
+            log.warn("Snapshot diario sin actualizar para la transferencia {}", transfer.getId());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        batcher.close(Duration.ofSeconds(10));
+    }
+
+    private Mono<Void> write(List<Transfer> transfers) {
+        // (cuenta, día) → [débitos en centavos, créditos en centavos, cantidad]
+        Map<DayKey, long[]> totals = new HashMap<>();
+        for (Transfer transfer : transfers) {
+            long cents = Money.toCents(transfer.getAmount());
+            LocalDate day = transfer.getCreatedAt().toLocalDate();
+            long[] debit = totals.computeIfAbsent(new DayKey(transfer.getSourceAccountId(), day), key -> new long[3]);
+            debit[0] += cents;
+            debit[2]++;
+            long[] credit = totals.computeIfAbsent(new DayKey(transfer.getDestinationAccountId(), day), key -> new long[3]);
+            credit[1] += cents;
+            credit[2]++;
+        }
+        int size = totals.size();
+        Long[] accountIds = new Long[size];
+        String[] days = new String[size];
+        Long[] debits = new Long[size];
+        Long[] credits = new Long[size];
+        Integer[] counts = new Integer[size];
+        int i = 0;
+        for (Map.Entry<DayKey, long[]> entry : totals.entrySet()) {
+            accountIds[i] = entry.getKey().accountId();
+            days[i] = entry.getKey().day().toString();
+            debits[i] = entry.getValue()[0];
+            credits[i] = entry.getValue()[1];
+            counts[i] = (int) entry.getValue()[2];
+            i++;
+        }
+        return repository.upsert(accountIds, days, debits, credits, counts);
+    }
+
+    private record DayKey(Long accountId, LocalDate day) {
+    }
+}
@@ -0,0 +1,151 @@
+/*¿Para qué sirve?
+
+Caché de lectura (read-through) de cuentas por número de cuenta
+
+PROBLEMA que resuelve:
+Cada GET /api/accounts/{n}, cada historial y cada transferencia fallida
+(FailedTransferRecorder, dos lecturas más) van a la BD solo para traducir
+número de cuenta → id / titular, datos que casi nunca cambian.
+
+CÓMO FUNCIONA:
+- Caffeine AsyncCache (W-TinyLFU, tamaño máximo + TTL)
+- Si la cuenta no está, se lee de la BD UNA vez aunque lleguen muchas
+  peticiones a la vez (la caché guarda el CompletableFuture)
+- Las escrituras invalidan: updateAccount, deleteAccount y cada transferencia
+- Los cambios hechos en OTRAS réplicas llegan por LISTEN/NOTIFY
+  (AccountInvalidationListener); los de saldo solo con cache-balance = true
+  (BalanceChangeNotifier)
+- Métricas: cache.gets{result=hit|miss}, cache.evictions, cache.size
+  con tag cache=accounts
+
+DOS USOS:
+- resolve() → solo id / titular (siempre puede venir de la caché)
+- find()    → cuenta con saldo: de la caché solo si cache-balance = true
+
+NUNCA se usa para debitar: los executors leen siempre la fila de la BD.
+ *
+ */
+
+package com.example.transfers.service.cache;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.model.Account;
+import com.example.transfers.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+@Component
+public class AccountCache {
+
+    private final AccountRepository accountRepository;
+    private final BalanceChangeNotifier balanceChangeNotifier;
+    private final TransferProperties.AccountCache config;
+    private final AsyncCache<String, Account> cache;
+
+    public AccountCache(AccountRepository accountRepository,
+                        BalanceChangeNotifier balanceChangeNotifier,
+                        TransferProperties properties,
+                        MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.balanceChangeNotifier = balanceChangeNotifier;
+        this.config = properties.getAccountCache();
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(config.getMaxSize())
+            .expireAfterWrite(config.getTtl())
+            .recordStats()
+            .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "accounts");
+    }
+
+    /**
+     * Cuenta para traducir número → id / titular
+     * El saldo puede estar desactualizado: no usarlo
+     */
+    public Mono<Account> resolve(String accountNumber) {
+        if (!config.isEnabled()) {
+            return accountRepository.findByAccountNumber(accountNumber);
+        }
+        // suppressCancel = true: la lectura compartida termina aunque este suscriptor cancele
+        return Mono.fromFuture(
+                () -> cache.get(accountNumber,
+                    (key, executor) -> accountRepository.findByAccountNumber(key).toFuture()),
+                true)
+            // Copia: Account es mutable (withdraw/deposit) y la instancia cacheada es compartida
+            .map(AccountCache::copyOf);
+    }
+
+    /**
+     * Cuenta completa (con saldo) para mostrar
+     * Con cache-balance = false siempre lee de la BD y refresca la entrada
+     */
+    public Mono<Account> find(String accountNumber) {
+        if (config.isEnabled() && config.isCacheBalance()) {
+            return resolve(accountNumber);
+        }
+        return accountRepository.findByAccountNumber(accountNumber)
+            .doOnNext(this::put);
+    }
+
+    /**
+     * Write-through: guardar la versión recién escrita
+     */
+    public void put(Account account) {
+        if (config.isEnabled()) {
+            cache.synchronous().put(account.getAccountNumber(), copyOf(account));
+        }
+    }
+
+    /**
+     * Descartar cuentas modificadas (update / delete)
+     */
+    public void invalidate(String... accountNumbers) {
+        for (String accountNumber : accountNumbers) {
+            cache.synchronous().invalidate(accountNumber);
+        }
+    }
+
+    /**
+     * Descartar todo (p. ej. tras perder avisos de otras réplicas)
+     */
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Tras una transferencia (de ESTA réplica) solo cambian los saldos:
+     * si no se cachean, id / titular siguen siendo válidos
+     * Si se cachean, también se avisa a las otras réplicas
+     */
+    public void balancesChanged(String... accountNumbers) {
+        if (config.isCacheBalance()) {
+            invalidate(accountNumbers);
+            balanceChangeNotifier.balancesChanged(accountNumbers);
+        }
+    }
+
+    /**
+     * Aviso "B:" de otra réplica: solo descartar, sin volver a avisar
+     */
+    public void remoteBalancesChanged(String accountNumber) {
+        if (config.isCacheBalance()) {
+            invalidate(accountNumber);
+        }
+    }
+
+    private static Account copyOf(Account account) {
+        Account copy = new Account();
+        copy.setId(account.getId());
+        copy.setAccountNumber(account.getAccountNumber());
+        copy.setOwnerName(account.getOwnerName());
+        copy.setTier(account.getTier());
+        copy.setBalanceCents(account.getBalanceCents());
+        copy.setCreatedAt(account.getCreatedAt());
+        copy.setUpdatedAt(account.getUpdatedAt());
+        copy.setVersion(account.getVersion());
+        return copy;
+    }
+}
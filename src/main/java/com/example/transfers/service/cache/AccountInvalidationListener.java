@@ -0,0 +1,114 @@
+/*¿Para qué sirve?
+
+Mantiene coherente AccountCache entre varias réplicas del servicio
+
+PROBLEMA que resuelve:
+Con varias instancias detrás del balanceador, cada una tiene su propia caché.
+Si la réplica A ejecuta updateAccount o una transferencia, la caché de B
+sigue sirviendo el titular / saldo anterior.
+
+SOLUCIÓN (Postgres LISTEN/NOTIFY):
+- Trigger trg_account_change (account_notify.sql) → pg_notify('account_changes', ...)
+  en cada cambio de titular / número y en cada DELETE, entregado solo al hacer COMMIT
+- Saldos: BalanceChangeNotifier manda "B:" por lotes, solo con cache-balance = true
+- Cada réplica mantiene UNA conexión con LISTEN account_changes
+  y descarta las entradas afectadas:
+    B:<cuenta> → saldo cambiado
+    M:<cuenta> → titular / número cambiado
+    D:<cuenta> → cuenta eliminada
+- Si la conexión se cae, se reconecta con espera y se vacía la caché
+  entera: los avisos del intervalo sin conexión se han perdido
+
+La conexión se toma del pool y queda ocupada mientras la app está en marcha.
+ *
+ */
+
+package com.example.transfers.service.cache;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.service.support.PostgresConnections;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import java.time.Duration;
+
+@Component
+@ConditionalOnProperty(name = "transfers.account-cache.cross-node-invalidation", havingValue = "true",
+                       matchIfMissing = true)
+@Slf4j
+public class AccountInvalidationListener {
+
+    static final String CHANNEL = "account_changes";
+
+    private final ConnectionFactory connectionFactory;
+    private final AccountCache accountCache;
+    private final Duration retryBackoff;
+    private Disposable subscription;
+
+    public AccountInvalidationListener(ConnectionFactory connectionFactory,
+                                       AccountCache accountCache,
+                                       TransferProperties properties) {
+        this.connectionFactory = connectionFactory;
+        this.accountCache = accountCache;
+        this.retryBackoff = properties.getAccountCache().getListenRetryBackoff();
+    }
+
+    @PostConstruct
+    public void start() {
+        subscription = Flux.usingWhen(
+                connectionFactory.create(),
+                this::listen,
+                Connection::close)
+            // Desconexión (error o fin del stream) → reconectar siempre
+            .repeatWhen(completed -> completed.delayElements(retryBackoff))
+            .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, retryBackoff)
+                .doBeforeRetry(signal -> log.warn("LISTEN {} interrumpido, reconectando: {}",
+                                                  CHANNEL, signal.failure().getMessage())))
+            .subscribe(this::apply);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Flux<Notification> listen(Connection connection) {
+        PostgresqlConnection postgres = PostgresConnections.unwrap(connection);
+        return postgres.createStatement("LISTEN " + CHANNEL)
+            .execute()
+            .flatMap(Result::getRowsUpdated)
+            .then(Mono.fromRunnable(() -> {
+                // Lo ocurrido mientras no escuchábamos no llegará nunca
+                accountCache.invalidateAll();
+                log.info("Escuchando {} para invalidar la caché de cuentas", CHANNEL);
+            }))
+            .thenMany(postgres.getNotifications());
+    }
+
+    private void apply(Notification notification) {
+        String payload = notification.getParameter();
+        if (payload == null || payload.length() < 3 || payload.charAt(1) != ':') {
+            log.warn("Aviso de cuenta con formato desconocido: {}", payload);
+            return;
+        }
+        String accountNumber = payload.substring(2);
+        switch (payload.charAt(0)) {
+            case 'B' -> accountCache.remoteBalancesChanged(accountNumber);
+            case 'M', 'D' -> accountCache.invalidate(accountNumber);
+            default -> log.warn("Aviso de cuenta con tipo desconocido: {}", payload);
+        }
+    }
+}
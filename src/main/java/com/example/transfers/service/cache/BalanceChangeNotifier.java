@@ -0,0 +1,87 @@
+/*¿Para qué sirve?
+
+Avisa a las OTRAS réplicas que cambió el saldo de unas cuentas ("B:<cuenta>"),
+para que descarten su copia cacheada. Solo hace falta con cache-balance = true.
+
+PROBLEMA que resuelve:
+Si el aviso saliera de un trigger en cada UPDATE de saldo, cada transferencia
+haría NOTIFY dentro de su transacción, y Postgres serializa el COMMIT de esas
+transacciones con un lock global: el techo de throughput sería ese lock.
+
+CÓMO FUNCIONA:
+- balancesChanged() encola los números de cuenta tras el COMMIT (no bloquea)
+- AsyncBatcher junta lo que llega en balanceNotifyMaxWait
+- UN SELECT pg_notify(...) por lote, sin repetidos, fuera de la transacción
+  de las transferencias: el lock de NOTIFY se toma una vez por lote
+
+Desactivado (no encola nada) con cache-balance = false, cross-node-invalidation = false
+o la caché apagada: nadie usaría esos avisos.
+Si la cola se llena se pierde el aviso; el TTL de la caché acota el desfase.
+ *
+ */
+
+package com.example.transfers.service.cache;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.service.support.AsyncBatcher;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+@Component
+@Slf4j
+public class BalanceChangeNotifier {
+
+    // Avisos pendientes antes de descartar
+    private static final int QUEUE_CAPACITY = 50_000;
+
+    private static final String NOTIFY = """
+        SELECT pg_notify('%s', 'B:' || n) FROM unnest(CAST(:numbers AS text[])) AS n
+        """.formatted(AccountInvalidationListener.CHANNEL);
+
+    private final DatabaseClient databaseClient;
+    private final AsyncBatcher<String> batcher;
+
+    public BalanceChangeNotifier(DatabaseClient databaseClient, TransferProperties properties) {
+        this.databaseClient = databaseClient;
+        TransferProperties.AccountCache config = properties.getAccountCache();
+        this.batcher = config.isEnabled() && config.isCacheBalance() && config.isCrossNodeInvalidation()
+            ? new AsyncBatcher<>("balance-notify", config.getBalanceNotifyBatchSize(),
+                                 config.getBalanceNotifyMaxWait(), QUEUE_CAPACITY, this::write)
+            : null;
+    }
+
+    /**
+     * Encolar el aviso para las otras réplicas (llamar después del COMMIT)
+     */
+    public void balancesChanged(String... accountNumbers) {
+        if (batcher == null) {
+            return;
+        }
+        for (String accountNumber : accountNumbers) {
+            batcher.offer(accountNumber);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (batcher != null) {
+            batcher.close(Duration.ofSeconds(5));
+        }
+    }
+
+    private Mono<Void> write(List<String> accountNumbers) {
+        // Una cuenta muy activa aparece muchas veces en el lote: un aviso basta
+        String[] numbers = new LinkedHashSet<>(accountNumbers).toArray(new String[0]);
+        return databaseClient.sql(NOTIFY)
+            .bind("numbers", numbers)
+            .fetch()
+            .all()
+            .then();
+    }
+}
@@ -0,0 +1,101 @@
+/*¿Para qué sirve?
+
+Cuenta intentos y conflictos de bloqueo optimista POR CUENTA
+para decidir qué cuentas conviene mover a un modo pesimista (LOCKED)
+o de un solo escritor (LEDGER).
+
+- Métricas globales en Micrometer (transfers.optimistic.*)
+- Detalle por cuenta en GET /actuator/accountconflicts
+  (el id de cuenta NO va como tag de Micrometer: cardinalidad ilimitada)
+ *
+ */
+
+package com.example.transfers.service.execution;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@Endpoint(id = "accountconflicts")
+public class AccountConflictTracker {
+
+    // Límite de cuentas con detalle (memoria acotada)
+    private static final int MAX_TRACKED_ACCOUNTS = 10_000;
+    // Cuentas devueltas por el endpoint
+    private static final int TOP_ACCOUNTS = 50;
+
+    private final Map<Long, Stats> statsByAccount = new ConcurrentHashMap<>();
+    private final Counter attempts;
+    private final Counter conflicts;
+
+    public AccountConflictTracker(MeterRegistry meterRegistry) {
+        this.attempts = Counter.builder("transfers.optimistic.attempts")
+            .description("Escrituras de cuenta con bloqueo optimista")
+            .register(meterRegistry);
+        this.conflicts = Counter.builder("transfers.optimistic.conflicts")
+            .description("Escrituras rechazadas por versión desactualizada")
+            .register(meterRegistry);
+    }
+
+    public void recordAttempt(Long accountId) {
+        attempts.increment();
+        Stats stats = statsFor(accountId);
+        if (stats != null) {
+            stats.attempts.increment();
+        }
+    }
+
+    public void recordConflict(Long accountId) {
+        conflicts.increment();
+        Stats stats = statsFor(accountId);
+        if (stats != null) {
+            stats.conflicts.increment();
+        }
+    }
+
+    /**
+     * ENDPOINT: GET /actuator/accountconflicts
+     * Cuentas con más conflictos y su tasa (conflictos / intentos)
+     */
+    @ReadOperation
+    public List<Map<String, Object>> topConflictingAccounts() {
+        return statsByAccount.entrySet().stream()
+            .filter(entry -> entry.getValue().conflicts.sum() > 0)
+            .sorted(Comparator.comparingLong(
+                (Map.Entry<Long, Stats> entry) -> entry.getValue().conflicts.sum()).reversed())
+            .limit(TOP_ACCOUNTS)
+            .map(entry -> {
+                long accountAttempts = entry.getValue().attempts.sum();
+                long accountConflicts = entry.getValue().conflicts.sum();
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("accountId", entry.getKey());
+                row.put("attempts", accountAttempts);
+                row.put("conflicts", accountConflicts);
+                row.put("conflictRate", accountAttempts == 0 ? 0.0 : (double) accountConflicts / accountAttempts);
+                return row;
+            })
+            .toList();
+    }
+
+    private Stats statsFor(Long accountId) {
+        Stats stats = statsByAccount.get(accountId);
+        if (stats == null && statsByAccount.size() < MAX_TRACKED_ACCOUNTS) {
+            stats = statsByAccount.computeIfAbsent(accountId, id -> new Stats());
+        }
+        return stats;
+    }
+
+    private static final class Stats {
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+    }
+}
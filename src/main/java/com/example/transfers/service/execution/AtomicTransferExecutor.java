@@ -0,0 +1,81 @@
+/*¿Para qué sirve?
+
+Modo ATOMIC: toda la transferencia en UNA sentencia SQL
+(TransferRepository.executeAtomicTransfer)
+
+VENTAJAS frente a STANDARD:
+- 1 round trip en lugar de 5 (2 SELECT + 2 UPDATE + 1 INSERT)
+- Correcto bajo concurrencia: el saldo se valida en el propio UPDATE,
+  no en Java, así que no hay actualizaciones perdidas
+- No necesita locks ni transacciones desde Java
+ *
+ */
+
+package com.example.transfers.service.execution;
+
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.exception.AccountNotFoundException;
+import com.example.transfers.exception.InsufficientFundsException;
+import com.example.transfers.exception.TransferException;
+import com.example.transfers.model.AtomicTransferResult;
+import com.example.transfers.model.Money;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.repository.TransferRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+@Component
+@ConditionalOnProperty(name = "transfers.mode", havingValue = "atomic")
+@RequiredArgsConstructor
+public class AtomicTransferExecutor implements TransferExecutor {
+
+    private final TransferRepository transferRepository;
+
+    @Override
+    public Mono<Transfer> execute(TransferRequest request) {
+        return transferRepository.executeAtomicTransfer(
+                request.getSourceAccountNumber(),
+                request.getDestinationAccountNumber(),
+                Money.toCents(request.getAmount()),
+                request.getDescription())
+            .flatMap(result -> {
+                // transferId != null → débito, crédito e INSERT aplicados
+                if (result.getTransferId() != null) {
+                    return Mono.just(toTransfer(request, result));
+                }
+                // Si no se aplicó, explicar el motivo (sin consultas extra)
+                return Mono.error(rejectionOf(request, result));
+            });
+    }
+
+    private Transfer toTransfer(TransferRequest request, AtomicTransferResult result) {
+        Transfer transfer = new Transfer();
+        transfer.setId(result.getTransferId());
+        transfer.setSourceAccountId(result.getSourceAccountId());
+        transfer.setDestinationAccountId(result.getDestinationAccountId());
+        transfer.setAmount(Money.toDecimal(Money.toCents(request.getAmount())));
+        transfer.setDescription(request.getDescription());
+        transfer.setStatus(Transfer.Status.COMPLETED);
+        transfer.setCreatedAt(result.getCreatedAt());
+        return transfer;
+    }
+
+    /**
+     * Traduce una fila "sin transferencia" al mismo error que daría el modo STANDARD
+     */
+    private RuntimeException rejectionOf(TransferRequest request, AtomicTransferResult result) {
+        if (result.getSourceAccountId() == null) {
+            return AccountNotFoundException.source(request.getSourceAccountNumber());
+        }
+        if (result.getDestinationAccountId() == null) {
+            return AccountNotFoundException.destination(request.getDestinationAccountNumber(), result.getSourceAccountId());
+        }
+        if (result.getSourceAccountId().equals(result.getDestinationAccountId())) {
+            return TransferException.sameAccount(result.getSourceAccountId());
+        }
+        return new InsufficientFundsException(result.getSourceAccountId(), result.getDestinationAccountId(),
+                                              Money.toCents(result.getSourceBalance()));
+    }
+}
@@ -0,0 +1,280 @@
+/*¿Para qué sirve?
+
+Modo GROUP_COMMIT: agrupa las transferencias que llegan en una ventana
+corta (transfers.group-commit.window) o hasta maxBatchSize, y las escribe
+TODAS en una sola transacción R2DBC:
+
+1. SELECT ... FOR UPDATE de las cuentas del lote (ordenadas por id → sin deadlocks)
+2. Validación y cálculo de saldos en Java, en orden de llegada
+3. Un INSERT multi-fila con todas las transferencias aceptadas
+4. Un UPDATE por lotes con los saldos finales
+5. COMMIT y se responde a cada cliente por separado
+
+A 5k TPS el límite deja de ser el número de commits: un commit cubre
+cientos de transferencias.
+
+UNA FILA MALA NO TUMBA EL LOTE:
+- Antes de entrar al lote se descartan las peticiones que la BD rechazaría
+  (descripción de más de 255, monto no positivo) → INVALID_REQUEST
+- Cuentas inexistentes, misma cuenta o saldo insuficiente se rechazan por
+  separado dentro del lote (paso 2), sin abortar la transacción
+- Si aun así la transacción del lote falla, cada transferencia se reintenta
+  en su propia transacción: solo la culpable recibe el error
+ *
+ */
+
+package com.example.transfers.service.execution;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.exception.AccountNotFoundException;
+import com.example.transfers.exception.ErrorCode;
+import com.example.transfers.exception.InsufficientFundsException;
+import com.example.transfers.exception.TransferException;
+import com.example.transfers.model.Money;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.repository.TransferRepository;
+import com.example.transfers.service.support.AsyncBatcher;
+import com.example.transfers.service.support.TransferBatchStatements;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+@ConditionalOnProperty(name = "transfers.mode", havingValue = "group_commit")
+@Slf4j
+public class GroupCommitTransferExecutor implements TransferExecutor {
+
+    private static final TransferException SATURATED =
+        new TransferException(ErrorCode.OVERLOADED, "Sistema saturado, intente nuevamente");
+
+    private static final String LOCK_ACCOUNTS = """
+        SELECT id, account_number, balance_cents
+          FROM accounts
+         WHERE account_number = ANY(CAST(:numbers AS varchar[]))
+         ORDER BY id
+           FOR UPDATE
+        """;
+
+    // Largo de transfers.description
+    private static final int MAX_DESCRIPTION = 255;
+
+    private final TransferRepository transferRepository;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final AsyncBatcher<PendingTransfer> batcher;
+
+    // ===== MÉTRICAS =====
+    private final DistributionSummary batchSize;
+    private final Timer flushTimer;
+
+    public GroupCommitTransferExecutor(TransferRepository transferRepository,
+                                       DatabaseClient databaseClient,
+                                       TransactionalOperator transactionalOperator,
+                                       TransferProperties properties,
+                                       MeterRegistry meterRegistry) {
+        this.transferRepository = transferRepository;
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        TransferProperties.GroupCommit config = properties.getGroupCommit();
+
+        this.batchSize = DistributionSummary.builder("transfers.group.commit.batch.size")
+            .description("Transferencias por transacción")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("transfers.group.commit.flush")
+            .description("Duración de la transacción de cada lote")
+            .register(meterRegistry);
+        Gauge.builder("transfers.group.commit.window", config, c -> c.getWindow().toMillis())
+            .description("Ventana configurada (ms)")
+            .register(meterRegistry);
+        Gauge.builder("transfers.group.commit.max.batch.size", config, TransferProperties.GroupCommit::getMaxBatchSize)
+            .description("Tamaño máximo de lote configurado")
+            .register(meterRegistry);
+
+        this.batcher = new AsyncBatcher<>("group-commit", config.getMaxBatchSize(),
+            config.getWindow(), config.getQueueCapacity(), this::writeBatch);
+    }
+
+    @PreDestroy
+    public void stop() {
+        batcher.close(Duration.ofSeconds(30));
+    }
+
+    @Override
+    public Mono<Transfer> execute(TransferRequest request) {
+        TransferException invalid = validate(request);
+        if (invalid != null) {
+            return Mono.error(invalid);
+        }
+        // El Mono de cada cliente se completa cuando su lote hace COMMIT
+        return Mono.create(sink -> {
+            if (!batcher.offer(new PendingTransfer(request, sink))) {
+                sink.error(SATURATED);
+            }
+        });
+    }
+
+    /**
+     * Lo que haría fallar el INSERT multi-fila (y con él a todo el lote)
+     * @return null si la petición puede entrar al lote
+     */
+    private static TransferException validate(TransferRequest request) {
+        if (request.getAmount() == null || request.getAmount().signum() <= 0) {
+            return new TransferException(ErrorCode.INVALID_REQUEST, "El monto debe ser mayor a 0");
+        }
+        if (request.getDescription() != null && request.getDescription().length() > MAX_DESCRIPTION) {
+            return new TransferException(ErrorCode.INVALID_REQUEST,
+                "La descripción admite hasta " + MAX_DESCRIPTION + " caracteres");
+        }
+        return null;
+    }
+
+    /**
+     * Escribir un lote completo en una transacción y responder a cada cliente
+     * Si la transacción falla, cada transferencia se reintenta sola
+     */
+    private Mono<Void> writeBatch(List<PendingTransfer> batch) {
+        batchSize.record(batch.size());
+        Timer.Sample sample = Timer.start();
+
+        Set<String> numbers = new LinkedHashSet<>();
+        for (PendingTransfer pending : batch) {
+            numbers.add(pending.request().getSourceAccountNumber());
+            numbers.add(pending.request().getDestinationAccountNumber());
+        }
+
+        return databaseClient.sql(LOCK_ACCOUNTS)
+            .bind("numbers", numbers.toArray(new String[0]))
+            .map((row, metadata) -> new LockedAccount(
+                row.get("id", Long.class),
+                row.get("account_number", String.class),
+                row.get("balance_cents", Long.class)))
+            .all()
+            .collectList()
+            .flatMap(locked -> apply(batch, locked))
+            .as(transactionalOperator::transactional)
+            // Después del COMMIT: responder a cada cliente con su resultado
+            .doOnNext(outcomes -> outcomes.forEach(Outcome::complete))
+            .doFinally(signal -> sample.stop(flushTimer))
+            .then()
+            .onErrorResume(error -> {
+                if (batch.size() == 1) {
+                    log.warn("Transferencia rechazada por la BD: {}", error.getMessage());
+                    batch.get(0).sink().error(error);
+                    return Mono.empty();
+                }
+                // El ROLLBACK deshizo todo el lote: de a una, solo la que falla recibe el error
+                log.error("Error en lote de {} transferencias, se reintentan por separado: {}",
+                          batch.size(), error.getMessage());
+                return Flux.fromIterable(batch)
+                    .concatMap(pending -> writeBatch(List.of(pending)))
+                    .then();
+            });
+    }
+
+    /**
+     * Validar y aplicar en orden de llegada; luego INSERT + UPDATE por lotes
+     * (se ejecuta dentro de la transacción, con las cuentas bloqueadas)
+     */
+    private Mono<List<Outcome>> apply(List<PendingTransfer> batch, List<LockedAccount> locked) {
+        Map<String, LockedAccount> accounts = new HashMap<>();
+        locked.forEach(account -> accounts.put(account.accountNumber(), account));
+
+        List<Outcome> outcomes = new ArrayList<>(batch.size());
+        List<Transfer> accepted = new ArrayList<>();
+        // Saldo en curso (centavos) de cada cuenta tocada por el lote
+        Map<Long, Long> balances = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (PendingTransfer pending : batch) {
+            TransferRequest request = pending.request();
+            long amount = Money.toCents(request.getAmount());
+            LockedAccount source = accounts.get(request.getSourceAccountNumber());
+            LockedAccount destination = accounts.get(request.getDestinationAccountNumber());
+            RuntimeException rejection = null;
+            if (source == null) {
+                rejection = AccountNotFoundException.source(request.getSourceAccountNumber());
+            } else if (destination == null) {
+                rejection = AccountNotFoundException.destination(request.getDestinationAccountNumber(), source.id());
+            } else if (source.id().equals(destination.id())) {
+                rejection = TransferException.sameAccount(source.id());
+            } else {
+                long sourceBalance = balances.getOrDefault(source.id(), source.balanceCents());
+                if (sourceBalance < amount) {
+                    rejection = new InsufficientFundsException(source.id(), destination.id(), sourceBalance);
+                } else {
+                    balances.put(source.id(), sourceBalance - amount);
+                    balances.put(destination.id(), balances.getOrDefault(destination.id(), destination.balanceCents()) + amount);
+                }
+            }
+            if (rejection != null) {
+                outcomes.add(new Outcome(pending, null, rejection));
+                continue;
+            }
+            Transfer transfer = new Transfer();
+            transfer.setSourceAccountId(source.id());
+            transfer.setDestinationAccountId(destination.id());
+            transfer.setAmount(Money.toDecimal(amount));
+            transfer.setDescription(request.getDescription());
+            transfer.setStatus(Transfer.Status.COMPLETED);
+            transfer.setCreatedAt(now);
+            accepted.add(transfer);
+            outcomes.add(new Outcome(pending, transfer, null));
+        }
+
+        if (accepted.isEmpty()) {
+            return Mono.just(outcomes);
+        }
+
+        Long[] accountIds = balances.keySet().toArray(new Long[0]);
+        Long[] newBalances = balances.values().toArray(new Long[0]);
+
+        // IDs reservados → sabemos qué ID corresponde a cada cliente sin depender del orden de RETURNING
+        return transferRepository.reserveIds(accepted.size())
+            .collectList()
+            .flatMap(ids -> {
+                for (int i = 0; i < accepted.size(); i++) {
+                    accepted.get(i).setId(ids.get(i));
+                }
+                return TransferBatchStatements.insertTransfers(databaseClient, accepted);
+            })
+            .then(TransferBatchStatements.updateBalances(databaseClient, accountIds, newBalances,
+                                                         new String[accountIds.length]))
+            .thenReturn(outcomes);
+    }
+
+    private record PendingTransfer(TransferRequest request, MonoSink<Transfer> sink) {
+    }
+
+    private record LockedAccount(Long id, String accountNumber, long balanceCents) {
+    }
+
+    private record Outcome(PendingTransfer pending, Transfer transfer, RuntimeException error) {
+        void complete() {
+            if (error != null) {
+                pending.sink().error(error);
+            } else {
+                pending.sink().success(transfer);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*¿Para qué sirve?
+
+Modo LEDGER: delega la transferencia al motor de saldos en memoria
+(service/ledger/LedgerEngine). La BD se actualiza después, por lotes.
+ *
+ */
+
+package com.example.transfers.service.execution;
+
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.service.ledger.LedgerEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+@Component
+@ConditionalOnProperty(name = "transfers.mode", havingValue = "ledger")
+@RequiredArgsConstructor
+public class LedgerTransferExecutor implements TransferExecutor {
+
+    private final LedgerEngine ledgerEngine;
+
+    @Override
+    public Mono<Transfer> execute(TransferRequest request) {
+        return ledgerEngine.transfer(request);
+    }
+}
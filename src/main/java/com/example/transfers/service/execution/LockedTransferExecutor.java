@@ -0,0 +1,161 @@
+/*¿Para qué sirve?
+
+Modo LOCKED: transferencia dentro de una transacción con locks pesimistas
+
+PROBLEMA que resuelve:
+Si A→B y B→A corren a la vez y cada una bloquea primero "su" cuenta origen,
+cada transacción espera a la otra → deadlock, PostgreSQL aborta una y hay
+que reintentar.
+
+SOLUCIÓN:
+- Un solo SELECT ... FOR UPDATE con ORDER BY id: los locks se piden
+  siempre en el mismo orden, da igual la dirección de la transferencia
+- Los UPDATE solo suman/restan al saldo (no reescriben la fila completa)
+- Si aun así hay un fallo transitorio (deadlock, serialización), se
+  reintenta la transacción completa un número acotado de veces
+ *
+ */
+
+package com.example.transfers.service.execution;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.exception.AccountNotFoundException;
+import com.example.transfers.exception.InsufficientFundsException;
+import com.example.transfers.exception.TransferException;
+import com.example.transfers.model.Account;
+import com.example.transfers.model.Money;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.repository.AccountRepository;
+import com.example.transfers.repository.TransferRepository;
+import com.example.transfers.service.metrics.TransferMetrics;
+import com.example.transfers.service.metrics.TransferStage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.R2dbcTransientException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "transfers.mode", havingValue = "locked")
+@Slf4j
+public class LockedTransferExecutor implements TransferExecutor {
+
+    private final TransferRepository transferRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final TransferProperties.Locking config;
+
+    // ===== MÉTRICAS =====
+    private final Counter retries;
+    private final Counter retriesExhausted;
+    private final TransferMetrics transferMetrics;
+
+    public LockedTransferExecutor(TransferRepository transferRepository,
+                                  AccountRepository accountRepository,
+                                  TransactionalOperator transactionalOperator,
+                                  TransferProperties properties,
+                                  MeterRegistry meterRegistry,
+                                  TransferMetrics transferMetrics) {
+        this.transferRepository = transferRepository;
+        this.accountRepository = accountRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.config = properties.getLocking();
+        this.retries = Counter.builder("transfers.lock.retries")
+            .description("Reintentos por deadlock o fallo de serialización")
+            .register(meterRegistry);
+        this.retriesExhausted = Counter.builder("transfers.lock.retries.exhausted")
+            .description("Transferencias que agotaron los reintentos")
+            .register(meterRegistry);
+        this.transferMetrics = transferMetrics;
+    }
+
+    @Override
+    public Mono<Transfer> execute(TransferRequest request) {
+        // VALIDACIÓN: No transferir a la misma cuenta (antes de pedir locks)
+        if (request.getSourceAccountNumber().equals(request.getDestinationAccountNumber())) {
+            return Mono.error(TransferException.SAME_ACCOUNT);
+        }
+        return Mono.defer(() -> transferWithLocks(request))
+            // Cada intento es una transacción nueva (retryWhen vuelve a suscribirse)
+            .as(transactionalOperator::transactional)
+            .retryWhen(Retry.backoff(config.getMaxAttempts() - 1, config.getMinBackoff())
+                .maxBackoff(config.getMaxBackoff())
+                .jitter(0.5)
+                .filter(LockedTransferExecutor::isTransient)
+                .doBeforeRetry(signal -> {
+                    retries.increment();
+                    log.debug("Reintento {} de transferencia {} -> {}: {}", signal.totalRetries() + 1,
+                              request.getSourceAccountNumber(), request.getDestinationAccountNumber(),
+                              signal.failure().getMessage());
+                })
+                .onRetryExhaustedThrow((spec, signal) -> {
+                    retriesExhausted.increment();
+                    return signal.failure();
+                }));
+    }
+
+    private Mono<Transfer> transferWithLocks(TransferRequest request) {
+        // ===== PASO 1: BLOQUEAR AMBAS CUENTAS EN ORDEN DE ID =====
+        return transferMetrics.stage(TransferStage.ACCOUNT_LOOKUP, accountRepository.lockByAccountNumbersOrderedById(
+                request.getSourceAccountNumber(), request.getDestinationAccountNumber())
+                .collectList())
+            .flatMap(accounts -> {
+                Account sourceAccount = find(accounts, request.getSourceAccountNumber());
+                if (sourceAccount == null) {
+                    return Mono.error(AccountNotFoundException.source(request.getSourceAccountNumber()));
+                }
+                Account destinationAccount = find(accounts, request.getDestinationAccountNumber());
+                if (destinationAccount == null) {
+                    return Mono.error(AccountNotFoundException.destination(request.getDestinationAccountNumber(), sourceAccount.getId()));
+                }
+                // ===== PASO 2: VALIDAR (el saldo ya no puede cambiar: fila bloqueada) =====
+                long amount = Money.toCents(request.getAmount());
+                if (!sourceAccount.hasFunds(amount)) {
+                    return Mono.error(new InsufficientFundsException(
+                        sourceAccount.getId(), destinationAccount.getId(), sourceAccount.getBalanceCents()));
+                }
+                // ===== PASO 3: DÉBITO Y CRÉDITO (secuenciales, misma conexión) =====
+                return transferMetrics.stage(TransferStage.BALANCE_UPDATE,
+                        accountRepository.addToBalance(sourceAccount.getId(), -amount)
+                            .then(accountRepository.addToBalance(destinationAccount.getId(), amount)))
+                    // ===== PASO 4: REGISTRAR LA TRANSFERENCIA =====
+                    .then(Mono.defer(() -> {
+                        Transfer transfer = new Transfer();
+                        transfer.setSourceAccountId(sourceAccount.getId());
+                        transfer.setDestinationAccountId(destinationAccount.getId());
+                        transfer.setAmount(Money.toDecimal(amount));
+                        transfer.setDescription(request.getDescription());
+                        transfer.setStatus(Transfer.Status.COMPLETED);
+                        transfer.setCreatedAt(LocalDateTime.now());
+                        return transferMetrics.stage(TransferStage.TRANSFER_INSERT, transferRepository.save(transfer));
+                    }));
+            });
+    }
+
+    private static Account find(List<Account> accounts, String accountNumber) {
+        for (Account account : accounts) {
+            if (account.getAccountNumber().equals(accountNumber)) {
+                return account;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Deadlock (40P01) y fallo de serialización (40001) llegan como
+     * excepciones "transitorias": reintentar tiene sentido
+     */
+    static boolean isTransient(Throwable error) {
+        return error instanceof TransientDataAccessException
+            || error instanceof R2dbcTransientException
+            || error.getCause() instanceof R2dbcTransientException;
+    }
+}
@@ -0,0 +1,137 @@
+/*¿Para qué sirve?
+
+Modo OPTIMISTIC: sin locks, detectando escrituras concurrentes con @Version
+
+PROBLEMA que resuelve:
+Dos transferencias leen el mismo saldo, ambas validan y la segunda
+escritura pisa a la primera (actualización perdida).
+
+SOLUCIÓN:
+- Account tiene @Version → save() hace UPDATE ... WHERE version = ?
+- Si otro proceso escribió antes, Spring lanza OptimisticLockingFailureException
+- Se reintenta la transacción completa (releyendo saldos) con backoff
+  exponencial y jitter, hasta maxAttempts
+- Cada conflicto se anota por cuenta (AccountConflictTracker)
+ *
+ */
+
+package com.example.transfers.service.execution;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.exception.AccountNotFoundException;
+import com.example.transfers.exception.InsufficientFundsException;
+import com.example.transfers.exception.TransferException;
+import com.example.transfers.model.Account;
+import com.example.transfers.model.Money;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.repository.AccountRepository;
+import com.example.transfers.repository.TransferRepository;
+import com.example.transfers.service.metrics.TransferMetrics;
+import com.example.transfers.service.metrics.TransferStage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.retry.Retry;
+import java.time.LocalDateTime;
+
+@Component
+@ConditionalOnProperty(name = "transfers.mode", havingValue = "optimistic")
+@Slf4j
+public class OptimisticTransferExecutor implements TransferExecutor {
+
+    private final TransferRepository transferRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final AccountConflictTracker conflictTracker;
+    private final TransferMetrics transferMetrics;
+    private final TransferProperties.Optimistic config;
+
+    public OptimisticTransferExecutor(TransferRepository transferRepository,
+                                      AccountRepository accountRepository,
+                                      TransactionalOperator transactionalOperator,
+                                      AccountConflictTracker conflictTracker,
+                                      TransferMetrics transferMetrics,
+                                      TransferProperties properties) {
+        this.transferRepository = transferRepository;
+        this.accountRepository = accountRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.conflictTracker = conflictTracker;
+        this.transferMetrics = transferMetrics;
+        this.config = properties.getOptimistic();
+    }
+
+    @Override
+    public Mono<Transfer> execute(TransferRequest request) {
+        return Mono.defer(() -> attempt(request))
+            // Cada intento relee las cuentas en una transacción nueva
+            .as(transactionalOperator::transactional)
+            .retryWhen(Retry.backoff(config.getMaxAttempts() - 1, config.getMinBackoff())
+                .maxBackoff(config.getMaxBackoff())
+                .jitter(0.5)
+                .filter(OptimisticLockingFailureException.class::isInstance)
+                .doBeforeRetry(signal -> log.debug("Conflicto optimista, reintento {}: {}",
+                                                   signal.totalRetries() + 1, signal.failure().getMessage()))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private Mono<Transfer> attempt(TransferRequest request) {
+        Mono<Tuple2<Account, Account>> accounts = accountRepository.findByAccountNumber(request.getSourceAccountNumber())
+            .switchIfEmpty(Mono.error(
+                AccountNotFoundException.source(request.getSourceAccountNumber())
+            ))
+            .zipWhen(sourceAccount ->
+                accountRepository.findByAccountNumber(request.getDestinationAccountNumber())
+                    .switchIfEmpty(Mono.error(
+                        AccountNotFoundException.destination(request.getDestinationAccountNumber(), sourceAccount.getId())
+                    ))
+            );
+        return transferMetrics.stage(TransferStage.ACCOUNT_LOOKUP, accounts)
+            .flatMap(tuple -> {
+                Account sourceAccount = tuple.getT1();
+                Account destinationAccount = tuple.getT2();
+                // Centavos: la comparación y el débito/crédito no crean BigDecimal
+                long amount = Money.toCents(request.getAmount());
+                // VALIDACIÓN: No transferir a la misma cuenta
+                if (sourceAccount.getId().equals(destinationAccount.getId())) {
+                    return Mono.error(TransferException.sameAccount(sourceAccount.getId()));
+                }
+                // VALIDACIÓN: Saldo suficiente
+                if (!sourceAccount.hasFunds(amount)) {
+                    return Mono.error(new InsufficientFundsException(
+                        sourceAccount.getId(), destinationAccount.getId(), sourceAccount.getBalanceCents()));
+                }
+                sourceAccount.withdraw(amount);
+                destinationAccount.deposit(amount);
+                // Secuencial (no Mono.when): misma conexión transaccional
+                return transferMetrics.stage(TransferStage.BALANCE_UPDATE,
+                        saveVersioned(sourceAccount).then(saveVersioned(destinationAccount)))
+                    .then(Mono.defer(() -> {
+                        Transfer transfer = new Transfer();
+                        transfer.setSourceAccountId(sourceAccount.getId());
+                        transfer.setDestinationAccountId(destinationAccount.getId());
+                        transfer.setAmount(Money.toDecimal(amount));
+                        transfer.setDescription(request.getDescription());
+                        transfer.setStatus(Transfer.Status.COMPLETED);
+                        transfer.setCreatedAt(LocalDateTime.now());
+                        return transferMetrics.stage(TransferStage.TRANSFER_INSERT, transferRepository.save(transfer));
+                    }));
+            });
+    }
+
+    /**
+     * save() con control de versión, anotando intento y conflicto por cuenta
+     */
+    private Mono<Account> saveVersioned(Account account) {
+        return Mono.defer(() -> {
+            conflictTracker.recordAttempt(account.getId());
+            return accountRepository.save(account);
+        })
+        .doOnError(OptimisticLockingFailureException.class,
+                   error -> conflictTracker.recordConflict(account.getId()));
+    }
+}
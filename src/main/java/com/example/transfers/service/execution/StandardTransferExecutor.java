@@ -0,0 +1,105 @@
+/*¿Para qué sirve?
+
+Modo STANDARD (por defecto): el flujo original de la API
+Busca ambas cuentas, valida y calcula en Java, y guarda las filas completas
+ *
+ */
+
+package com.example.transfers.service.execution;
+
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.exception.AccountNotFoundException;
+import com.example.transfers.exception.InsufficientFundsException;
+import com.example.transfers.exception.TransferException;
+import com.example.transfers.model.Account;
+import com.example.transfers.model.Money;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.repository.AccountRepository;
+import com.example.transfers.repository.TransferRepository;
+import com.example.transfers.service.metrics.TransferMetrics;
+import com.example.transfers.service.metrics.TransferStage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import java.time.LocalDateTime;
+
+@Component
+@ConditionalOnProperty(name = "transfers.mode", havingValue = "standard", matchIfMissing = true)
+@RequiredArgsConstructor
+public class StandardTransferExecutor implements TransferExecutor {
+
+    private final TransferRepository transferRepository;
+    private final AccountRepository accountRepository;
+    private final TransferMetrics transferMetrics;
+
+    /**
+     * FLUJO:
+     * 1. Buscar cuenta origen
+     * 2. Buscar cuenta destino
+     * 3. Validar saldo suficiente
+     * 4. Retirar de origen
+     * 5. Depositar en destino
+     * 6. Guardar cuentas actualizadas
+     * 7. Crear registro de transferencia
+     */
+    @Override
+    public Mono<Transfer> execute(TransferRequest request) {
+        // ===== PASO 1: BUSCAR CUENTA ORIGEN =====
+        Mono<Tuple2<Account, Account>> accounts = accountRepository.findByAccountNumber(request.getSourceAccountNumber())
+        // Si no existe, lanzar error
+            .switchIfEmpty(Mono.error(
+                AccountNotFoundException.source(request.getSourceAccountNumber())
+            ))
+            // ===== PASO 2: BUSCAR CUENTA DESTINO =====
+            // zipWhen() combina dos Monos y retorna Tuple2<sourceAccount, destinationAccount>
+            .zipWhen(sourceAccount ->
+                accountRepository.findByAccountNumber(request.getDestinationAccountNumber())
+                    .switchIfEmpty(Mono.error(
+                        AccountNotFoundException.destination(request.getDestinationAccountNumber(), sourceAccount.getId())
+                    ))
+            );
+        return transferMetrics.stage(TransferStage.ACCOUNT_LOOKUP, accounts)
+             // ===== PASO 3: VALIDAR Y REALIZAR TRANSFERENCIA =====
+            // flatMap() = transforma un Mono en otro Mono (operación asíncrona)
+            .flatMap(tuple -> {
+                Account sourceAccount = tuple.getT1();
+                Account destinationAccount = tuple.getT2();
+                // Centavos: la comparación y el débito/crédito no crean BigDecimal
+                long amount = Money.toCents(request.getAmount());
+                // VALIDACIÓN: Saldo suficiente
+                if (!sourceAccount.hasFunds(amount)) {
+                    return Mono.error(new InsufficientFundsException(
+                        sourceAccount.getId(), destinationAccount.getId(), sourceAccount.getBalanceCents()));
+                }
+                 // VALIDACIÓN: No transferir a la misma cuenta
+                if (sourceAccount.getId().equals(destinationAccount.getId())) {
+                    return Mono.error(TransferException.sameAccount(sourceAccount.getId()));
+                }
+                // REALIZAR DÉBITO Y CRÉDITO
+                sourceAccount.withdraw(amount);// Retirar
+                destinationAccount.deposit(amount);// Depositar
+                // ===== PASO 4: GUARDAR CUENTAS ACTUALIZADAS =====
+                // Mono.when() espera a que ambas operaciones completen
+                return transferMetrics.stage(TransferStage.BALANCE_UPDATE, Mono.when(
+                    accountRepository.save(sourceAccount),
+                    accountRepository.save(destinationAccount)
+                ))
+                // ===== PASO 5: CREAR REGISTRO DE TRANSFERENCIA =====
+                // then() espera a que complete y ejecuta lo siguiente
+                // defer() = crea un Mono de forma "perezosa" (lazy)
+                .then(Mono.defer(() -> {
+                    Transfer transfer = new Transfer();
+                    transfer.setSourceAccountId(sourceAccount.getId());
+                    transfer.setDestinationAccountId(destinationAccount.getId());
+                    transfer.setAmount(Money.toDecimal(amount));
+                    transfer.setDescription(request.getDescription());
+                    transfer.setStatus(Transfer.Status.COMPLETED);
+                    transfer.setCreatedAt(LocalDateTime.now());
+
+                    return transferMetrics.stage(TransferStage.TRANSFER_INSERT, transferRepository.save(transfer));
+                }));
+            });
+    }
+}
@@ -0,0 +1,28 @@
+/*¿Para qué sirve?
+
+Estrategia que ejecuta el movimiento de dinero de una transferencia
+Hay una implementación por cada modo (transfers.mode en application.yml)
+y Spring solo crea la del modo activo (@ConditionalOnProperty)
+
+TransferServiceImpl se encarga de lo común (respuesta, errores, auditoría);
+el executor solo decide CÓMO se debita, acredita y registra.
+ *
+ */
+
+package com.example.transfers.service.execution;
+
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.model.Transfer;
+import reactor.core.publisher.Mono;
+
+public interface TransferExecutor {
+
+    /**
+     * Ejecutar la transferencia
+     *
+     * @param request - DTO con datos de la transferencia
+     * @return Mono<Transfer> - Transferencia COMPLETED ya guardada,
+     *         o error si alguna regla de negocio no se cumple
+     */
+    Mono<Transfer> execute(TransferRequest request);
+}
@@ -0,0 +1,131 @@
+/*¿Para qué sirve?
+
+Exporta transferencias (extractos de fin de mes) en CSV o NDJSON,
+en streaming directo hacia la respuesta HTTP
+
+PROBLEMA que resuelve:
+Pasar por TransferRepository crea un Transfer por fila (más BigDecimal,
+LocalDateTime...) solo para volver a convertirlo en texto.
+
+CÓMO FUNCIONA:
+- PostgreSQL entrega cada columna YA como texto (CAST ... AS text)
+  y, en NDJSON, la línea JSON completa (json_build_object escapa todo)
+- Java solo concatena Strings: ningún objeto de entidad por fila
+- fetchSize → el driver pide filas por tandas al servidor (portal con límite):
+  si el cliente HTTP lee despacio, la consulta también avanza despacio (backpressure)
+- Las líneas se agrupan en bloques (rowsPerChunk) para no escribir un
+  DataBuffer por fila
+- gzip: lo aplica el servidor si el cliente envía Accept-Encoding: gzip
+  (server.compression en application.yml)
+
+NOTA: r2dbc-postgresql 1.0 no implementa COPY ... TO STDOUT (solo COPY FROM STDIN),
+por eso se usa un SELECT en streaming con el mismo efecto: texto plano, sin entidades.
+ *
+ */
+
+package com.example.transfers.service.export;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.service.support.Csv;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Slf4j
+public class StatementExporter {
+
+    private static final String CSV_HEADER =
+        "id,source_account,destination_account,amount,description,status,created_at\n";
+
+    // Columnas como texto: el formateo lo hace PostgreSQL
+    private static final String CSV_COLUMNS = """
+        SELECT CAST(t.id AS text) AS id, s.account_number AS source, d.account_number AS destination,
+               CAST(t.amount AS text) AS amount, t.description, t.status,
+               CAST(t.created_at AS text) AS created_at
+        """;
+
+    // Línea JSON completa por fila
+    private static final String NDJSON_COLUMNS = """
+        SELECT CAST(json_build_object(
+                   'id', t.id, 'sourceAccount', s.account_number, 'destinationAccount', d.account_number,
+                   'amount', t.amount, 'description', t.description, 'status', t.status,
+                   'createdAt', t.created_at) AS text) AS line
+        """;
+
+    private static final String FROM = """
+          FROM transfers t
+          LEFT JOIN accounts s ON s.id = t.source_account_id
+          LEFT JOIN accounts d ON d.id = t.destination_account_id
+         WHERE TRUE
+        """;
+
+    private final DatabaseClient databaseClient;
+    private final TransferProperties.Export config;
+
+    public StatementExporter(DatabaseClient databaseClient, TransferProperties properties) {
+        this.databaseClient = databaseClient;
+        this.config = properties.getExport();
+    }
+
+    /**
+     * @param format - CSV o NDJSON
+     * @param accountId - Solo esta cuenta (origen o destino); null = todas
+     * @param from - created_at >= from (null = sin límite)
+     * @param to - created_at < to (null = sin límite)
+     * @return Bloques de bytes UTF-8 en orden cronológico
+     */
+    public Flux<DataBuffer> export(ExportFormat format, Long accountId, LocalDateTime from, LocalDateTime to) {
+        StringBuilder sql = new StringBuilder(format == ExportFormat.CSV ? CSV_COLUMNS : NDJSON_COLUMNS)
+            .append(FROM);
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (accountId != null) {
+            sql.append(" AND (t.source_account_id = :accountId OR t.destination_account_id = :accountId)");
+            params.put("accountId", accountId);
+        }
+        if (from != null) {
+            sql.append(" AND t.created_at >= :from");
+            params.put("from", from);
+        }
+        if (to != null) {
+            sql.append(" AND t.created_at < :to");
+            params.put("to", to);
+        }
+        sql.append(" ORDER BY t.created_at, t.id");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+            .filter(statement -> statement.fetchSize(config.getFetchSize()));
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+
+        Flux<String> lines = format == ExportFormat.CSV
+            ? spec.map(row -> Csv.line(
+                    row.get("id", String.class), row.get("source", String.class),
+                    row.get("destination", String.class), row.get("amount", String.class),
+                    row.get("description", String.class), row.get("status", String.class),
+                    row.get("created_at", String.class)))
+                .all()
+                .startWith(CSV_HEADER)
+            : spec.map(row -> row.get("line", String.class) + "\n").all();
+
+        return lines
+            .buffer(config.getRowsPerChunk())
+            .map(StatementExporter::toBuffer)
+            .doOnError(error -> log.error("Exportación interrumpida: {}", error.getMessage()));
+    }
+
+    private static DataBuffer toBuffer(List<String> chunk) {
+        StringBuilder text = new StringBuilder(chunk.size() * 96);
+        chunk.forEach(text::append);
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,199 @@
+/*¿Para qué sirve?
+
+Garantiza que cada Idempotency-Key ejecute la transferencia UNA sola vez
+
+DOS NIVELES:
+1. Caché en memoria (Caffeine, TTL + tamaño máximo)
+   - Reintentos de una clave ya resuelta → respuesta sin tocar la BD
+   - Peticiones duplicadas EN VUELO comparten el mismo resultado
+     (la caché guarda el CompletableFuture, no solo el valor final)
+2. Tabla transfer_idempotency
+   - Sobrevive a reinicios y funciona entre réplicas:
+     solo quien logra claim() ejecuta, el resto lee la respuesta guardada
+
+LA CLAVE SOLO SE LIBERA SI LA TRANSFERENCIA NO SE EJECUTÓ:
+- La acción responde FAILED con un código reintentable (OVERLOADED, LIMIT_EXCEEDED,
+  CONCURRENT_UPDATE, INTERNAL_ERROR; ver ErrorCode.isRetryable) o directamente
+  falla → se borra el claim y no se cachea la respuesta: el cliente puede
+  reintentar con la misma clave. Solo se guardan los resultados definitivos
+  (COMPLETED, PENDING, o FAILED de negocio como INSUFFICIENT_FUNDS)
+- Falla guardar la respuesta DESPUÉS de ejecutar → el dinero ya se movió:
+  el claim queda (marcado UNKNOWN) y la clave responde 409 para siempre;
+  liberarla haría que el reintento moviera el dinero otra vez
+ *
+ */
+
+package com.example.transfers.service.idempotency;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.dto.TransferResponse;
+import com.example.transfers.exception.ErrorCode;
+import com.example.transfers.exception.TransferException;
+import com.example.transfers.model.TransferIdempotency;
+import com.example.transfers.repository.TransferIdempotencyRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    // Largo de transfer_idempotency.idempotency_key
+    public static final int MAX_KEY_LENGTH = 100;
+
+    // Claim de una transferencia ejecutada cuya respuesta no se pudo guardar
+    static final String UNKNOWN = "UNKNOWN";
+
+    private final TransferIdempotencyRepository repository;
+    private final TransferProperties.Idempotency config;
+    private final AsyncCache<String, TransferResponse> cache;
+    private Disposable purgeTask;
+
+    public IdempotencyStore(TransferIdempotencyRepository repository, TransferProperties properties) {
+        this.repository = repository;
+        this.config = properties.getIdempotency();
+        this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(config.getCacheTtl())
+            .maximumSize(config.getCacheMaxSize())
+            .buildAsync();
+    }
+
+    /**
+     * Purgar periódicamente las claves fuera del período de retención
+     */
+    @PostConstruct
+    public void startPurge() {
+        purgeTask = Flux.interval(config.getPurgeInterval())
+            .concatMap(tick -> repository.deleteOlderThan(LocalDateTime.now().minus(config.getRetention()))
+                .onErrorResume(error -> {
+                    log.warn("No se pudieron purgar claves de idempotencia: {}", error.getMessage());
+                    return Mono.empty();
+                }))
+            .subscribe(deleted -> {
+                if (deleted > 0) {
+                    log.info("Claves de idempotencia purgadas: {}", deleted);
+                }
+            });
+    }
+
+    @PreDestroy
+    public void stopPurge() {
+        if (purgeTask != null) {
+            purgeTask.dispose();
+        }
+    }
+
+    /**
+     * Ejecutar la acción una sola vez por clave
+     *
+     * @param idempotencyKey - Valor del header Idempotency-Key
+     * @param request - Petición (para detectar claves reutilizadas con otros datos)
+     * @param action - Transferencia real; solo se suscribe si la clave es nueva
+     * @return Respuesta original (nueva o repetida)
+     */
+    public Mono<TransferResponse> execute(String idempotencyKey, TransferRequest request,
+                                          Supplier<Mono<TransferResponse>> action) {
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            // Antes de claim(): si no, el INSERT falla y se vería como una transferencia FAILED
+            return Mono.error(new TransferException(ErrorCode.INVALID_REQUEST,
+                "Idempotency-Key admite hasta " + MAX_KEY_LENGTH + " caracteres"));
+        }
+        return Mono.defer(() -> {
+                CompletableFuture<TransferResponse> future =
+                    cache.get(idempotencyKey, (key, executor) -> resolve(key, action).toFuture());
+                // suppressCancel = true: si un cliente se desconecta, la ejecución
+                // compartida sigue para los demás que esperan la misma clave
+                return Mono.fromFuture(future, true)
+                    // Respuesta no guardada (clave liberada): tampoco se recuerda en memoria,
+                    // el próximo reintento debe ejecutar de nuevo
+                    .doOnNext(response -> {
+                        if (isRetryable(response)) {
+                            cache.asMap().remove(idempotencyKey, future);
+                        }
+                    });
+            })
+            .flatMap(response -> matches(response, request)
+                ? Mono.just(response)
+                : Mono.error(new TransferException(ErrorCode.IDEMPOTENCY_KEY_CONFLICT,
+                    "Idempotency-Key ya utilizada con otros datos de transferencia")));
+    }
+
+    private Mono<TransferResponse> resolve(String idempotencyKey, Supplier<Mono<TransferResponse>> action) {
+        return repository.claim(idempotencyKey)
+            .flatMap(claimed -> {
+                if (claimed == 1) {
+                    // Clave nueva: ejecutar y guardar la respuesta
+                    return action.get()
+                        // Error de la acción: no se movió dinero, liberar la clave para permitir reintentos
+                        .onErrorResume(error -> repository.deleteById(idempotencyKey)
+                            .then(Mono.error(error)))
+                        // FAILED técnico (perform convierte los errores en respuesta): tampoco
+                        // se movió dinero; guardarlo dejaría la clave fallando para siempre
+                        .flatMap(response -> isRetryable(response)
+                            ? repository.deleteById(idempotencyKey).thenReturn(response)
+                            : store(idempotencyKey, response));
+                }
+                // Clave existente: ejecutada antes o en curso en otra réplica
+                return repository.findById(idempotencyKey)
+                    .switchIfEmpty(Mono.error(new TransferException(ErrorCode.IDEMPOTENCY_KEY_CONFLICT,
+                        "Idempotency-Key liberada tras un error, reintente")))
+                    .flatMap(stored -> {
+                        if (stored.getStatus() == null) {
+                            return Mono.error(new TransferException(ErrorCode.IDEMPOTENCY_KEY_CONFLICT,
+                                "Ya hay una transferencia en curso con esta Idempotency-Key"));
+                        }
+                        if (UNKNOWN.equals(stored.getStatus())) {
+                            return Mono.error(unknownOutcome());
+                        }
+                        return Mono.just(stored.toResponse());
+                    });
+            });
+    }
+
+    /**
+     * Guardar la respuesta de una transferencia YA ejecutada
+     * Si falla, la clave NO se libera: se marca UNKNOWN (si se puede) y se responde 409
+     */
+    private Mono<TransferResponse> store(String idempotencyKey, TransferResponse response) {
+        return repository.save(TransferIdempotency.of(idempotencyKey, response))
+            .thenReturn(response)
+            .onErrorResume(error -> {
+                log.error("Transferencia {} ejecutada pero sin respuesta guardada para la clave {}: {}",
+                          response.getId(), idempotencyKey, error.getMessage());
+                // Si tampoco se puede marcar, el claim queda "en curso": también bloquea la clave
+                return repository.markUnknown(idempotencyKey)
+                    .onErrorResume(markError -> Mono.empty())
+                    .then(Mono.error(unknownOutcome()));
+            });
+    }
+
+    private static TransferException unknownOutcome() {
+        return new TransferException(ErrorCode.IDEMPOTENCY_KEY_CONFLICT,
+            "La transferencia de esta Idempotency-Key se ejecutó pero su resultado no se guardó; "
+                + "consulte GET /api/transfers antes de reintentar con otra clave");
+    }
+
+    private static boolean isRetryable(TransferResponse response) {
+        return response.getErrorCode() != null && response.getErrorCode().isRetryable();
+    }
+
+    private static boolean matches(TransferResponse response, TransferRequest request) {
+        return Objects.equals(response.getSourceAccountNumber(), request.getSourceAccountNumber())
+            && Objects.equals(response.getDestinationAccountNumber(), request.getDestinationAccountNumber())
+            && response.getAmount() != null
+            && response.getAmount().compareTo(request.getAmount()) == 0;
+    }
+}
@@ -13,20 +13,50 @@
 package com.example.transfers.service.impl;
 
 import java.math.BigDecimal;
+import com.example.transfers.config.TransferProperties;
 import com.example.transfers.dto.AccountUpdateRequest;
+import com.example.transfers.dto.BalanceResponse;
+import com.example.transfers.dto.TransferFilter;
+import com.example.transfers.dto.TransferPage;
 import com.example.transfers.dto.TransferRequest;
 import com.example.transfers.dto.TransferResponse;
+import com.example.transfers.exception.AccountNotFoundException;
+import com.example.transfers.exception.ErrorCode;
+import com.example.transfers.exception.TransferException;
 import com.example.transfers.model.Account;
+import com.example.transfers.model.Money;
 import com.example.transfers.model.Transfer;
+import com.example.transfers.repository.AccountDailyBalanceRepository;
 import com.example.transfers.repository.AccountRepository;
+import com.example.transfers.repository.HistoryDirection;
+import com.example.transfers.repository.TransferCursor;
 import com.example.transfers.repository.TransferRepository;
 import com.example.transfers.service.TransferService;
+import com.example.transfers.service.audit.FailedTransferRecorder;
+import com.example.transfers.service.cache.AccountCache;
+import com.example.transfers.service.execution.TransferExecutor;
+import com.example.transfers.service.idempotency.IdempotencyStore;
+import com.example.transfers.service.ledger.LedgerEngine;
+import com.example.transfers.service.limits.AccountLimiter;
+import com.example.transfers.service.listener.TransferListener;
+import com.example.transfers.service.metrics.TransferMetrics;
+import com.example.transfers.service.metrics.TransferStage;
+import com.example.transfers.service.schedule.TransferScheduler;
+import com.example.transfers.service.stream.TransferFeed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 // ===== ANOTACIONES =====
 @Service // Marca como servicio de Spring (será inyectado automáticamente)
@@ -38,151 +68,296 @@ public class TransferServiceImpl implements TransferService {
     // Spring lo inyecta automáticamente gracias a @RequiredArgsConstructor
     private final TransferRepository transferRepository;
     private final AccountRepository accountRepository;
+    // Estrategia del modo activo (transfers.mode); Spring solo crea una
+    private final TransferExecutor transferExecutor;
+    // Solo existe con transfers.mode = LEDGER (saldos en memoria)
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    private final IdempotencyStore idempotencyStore;
+    // Lecturas número de cuenta → id / titular (y saldo si se configura)
+    private final AccountCache accountCache;
+    private final TransferProperties properties;
+    // Bean Validation para los elementos del stream bulk (@Valid no aplica a cada elemento)
+    private final Validator validator;
+    // Se les avisa de cada transferencia completada (snapshots diarios, etc.)
+    private final List<TransferListener> transferListeners;
+    private final AccountDailyBalanceRepository dailyBalanceRepository;
+    // Latencia por etapa y motivos de fallo (Micrometer)
+    private final TransferMetrics transferMetrics;
+    // Filas FAILED por lotes, fuera del camino de la respuesta
+    private final FailedTransferRecorder failedTransferRecorder;
+    // GET /api/transfers/stream: un resultado publicado, N dashboards
+    private final TransferFeed transferFeed;
+    // Programadas (scheduledAt); no existe con transfers.scheduling.enabled = false
+    private final ObjectProvider<TransferScheduler> transferScheduler;
+    // Límites diarios / de velocidad por cuenta; no existe con transfers.limits.enabled = false
+    private final ObjectProvider<AccountLimiter> accountLimiter;
      /**
      * MÉTODO PRINCIPAL: Realizar una transferencia
      * 
      * FLUJO:
-     * 1. Buscar cuenta origen
-     * 2. Buscar cuenta destino
-     * 3. Validar saldo suficiente
-     * 4. Retirar de origen
-     * 5. Depositar en destino
-     * 6. Guardar cuentas actualizadas
-     * 7. Crear registro de transferencia
-     * 8. Retornar respuesta
+     * 1. Ejecutar el movimiento de dinero según el modo configurado
+     *    (transfers.mode → STANDARD, ATOMIC, LEDGER, GROUP_COMMIT, LOCKED, OPTIMISTIC;
+     *    ver service/execution)
+     *    Con transfers.async.enabled solo se guarda la fila PENDING
+     *    y la liquidan los workers (service/settlement)
+     *    Con scheduledAt futuro se guarda SCHEDULED y la ejecuta
+     *    TransferScheduler a su hora (service/schedule)
+     *    Antes, los límites de la cuenta origen (AccountLimiter, en memoria);
+     *    las programadas se controlan al ejecutarse, no al programarse
+     * 2. Retornar respuesta
+     * 3. Si algo falla, responder FAILED y encolar su registro (FailedTransferRecorder)
      */
     @Override
     public Mono<TransferResponse> performTransfer(TransferRequest request) {
+        return perform(request, true);
+    }
+    
+    /**
+     * @param recordFailure - false → una FAILED no se encola en FailedTransferRecorder
+     *                        (programadas: el resultado queda en su propia fila)
+     */
+    private Mono<TransferResponse> perform(TransferRequest request, boolean recordFailure) {
         log.info("Iniciando transferencia de {} a {}", 
                  request.getSourceAccountNumber(), 
                  request.getDestinationAccountNumber());
-        // ===== PASO 1: BUSCAR CUENTA ORIGEN =====
-        return accountRepository.findByAccountNumber(request.getSourceAccountNumber())
-        // Si no existe, lanzar error
-            .switchIfEmpty(Mono.error(
-                new RuntimeException("Cuenta origen no encontrada: " + request.getSourceAccountNumber())
-            ))
-            // ===== PASO 2: BUSCAR CUENTA DESTINO =====
-            // zipWhen() combina dos Monos y retorna Tuple2<sourceAccount, destinationAccount>
-            .zipWhen(sourceAccount -> 
-                accountRepository.findByAccountNumber(request.getDestinationAccountNumber())
-                    .switchIfEmpty(Mono.error(
-                        new RuntimeException("Cuenta destino no encontrada: " + request.getDestinationAccountNumber())
-                    ))
-            )
-             // ===== PASO 3: VALIDAR Y REALIZAR TRANSFERENCIA =====
-            // flatMap() = transforma un Mono en otro Mono (operación asíncrona)
-            .flatMap(tuple -> {
-                Account sourceAccount = tuple.getT1();
-                Account destinationAccount = tuple.getT2();
-                // VALIDACIÓN: Saldo suficiente
-                if (sourceAccount.getBalance().compareTo(request.getAmount()) < 0) {
-                    return Mono.error(new RuntimeException(
-                        "Saldo insuficiente. Disponible: " + sourceAccount.getBalance()
-                    ));
+        Mono<TransferResponse> result;
+        if (request.getScheduledAt() != null && request.getScheduledAt().isAfter(LocalDateTime.now())) {
+            result = accept(request, Transfer.Status.SCHEDULED);
+        } else if (properties.getAsync().isEnabled()) {
+            result = withinLimits(request, () -> accept(request, Transfer.Status.PENDING));
+        } else {
+            result = withinLimits(request, () -> executeNow(request));
+        }
+        return result
+            // ===== MANEJO DE ERRORES =====
+            // onErrorResume() = si algo falla, ejecuta esto en lugar de propagar el error
+            .onErrorResume(error -> {
+                log.error("Error en transferencia: {}", error.getMessage());
+                transferMetrics.recordFailure(error);
+                // Registro de auditoría en segundo plano: la respuesta no espera el INSERT
+                if (recordFailure) {
+                    failedTransferRecorder.record(request, error);
                 }
-                 // VALIDACIÓN: No transferir a la misma cuenta
-                if (sourceAccount.getId().equals(destinationAccount.getId())) {
-                    return Mono.error(new RuntimeException(
-                        "No se puede transferir a la misma cuenta"
-                    ));
+                return Mono.just(rejectedResponse(request, ErrorCode.of(error), error.getMessage()));
+            })
+            // ===== STREAM EN VIVO: COMPLETED y FAILED a los dashboards conectados =====
+            // (PENDING y SCHEDULED se publican cuando se ejecutan)
+            .doOnNext(response -> {
+                if (Transfer.Status.COMPLETED.equals(response.getStatus())
+                        || Transfer.Status.FAILED.equals(response.getStatus())) {
+                    transferFeed.publish(response);
                 }
-                // REALIZAR DÉBITO Y CRÉDITO
-                sourceAccount.withdraw(request.getAmount());// Retirar
-                destinationAccount.deposit(request.getAmount());// Depositar
-                // ===== PASO 4: GUARDAR CUENTAS ACTUALIZADAS =====
-                // Mono.when() espera a que ambas operaciones completen
-                return Mono.when(
-                    accountRepository.save(sourceAccount),
-                    accountRepository.save(destinationAccount)
-                )
-                // ===== PASO 5: CREAR REGISTRO DE TRANSFERENCIA =====
-                // then() espera a que complete y ejecuta lo siguiente
-                // defer() = crea un Mono de forma "perezosa" (lazy)
-                .then(Mono.defer(() -> {
-                    Transfer transfer = new Transfer();
-                    transfer.setSourceAccountId(sourceAccount.getId());
-                    transfer.setDestinationAccountId(destinationAccount.getId());
-                    transfer.setAmount(request.getAmount());
-                    transfer.setDescription(request.getDescription());
-                    transfer.setStatus(Transfer.Status.COMPLETED);
-                    transfer.setCreatedAt(LocalDateTime.now());
-                    
-                    return transferRepository.save(transfer);
-                }))
-                // ===== PASO 6: CONVERTIR A DTO DE RESPUESTA =====
-                // map() = transforma el valor dentro del Mono
-                .map(savedTransfer -> TransferResponse.builder()
-                    .id(savedTransfer.getId())
-                    .sourceAccountNumber(sourceAccount.getAccountNumber())
-                    .destinationAccountNumber(destinationAccount.getAccountNumber())
-                    .amount(savedTransfer.getAmount())
-                    .description(savedTransfer.getDescription())
-                    .status(savedTransfer.getStatus())
-                    .createdAt(savedTransfer.getCreatedAt())
-                    .message("Transferencia realizada exitosamente")
-                    .build()
-                );
             })
+            // ===== MÉTRICAS: duración total por resultado (completed / failed / accepted / error) =====
+            .as(transferMetrics::timeRequest);
+    }
+    
+    /**
+     * Reservar el monto en los límites de la cuenta origen y recién entonces ejecutar
+     * Límite superado → LimitExceededException (FAILED con LIMIT_EXCEEDED) sin tocar la BD;
+     * si la transferencia falla después, la reserva se devuelve
+     */
+    private Mono<TransferResponse> withinLimits(TransferRequest request, Supplier<Mono<TransferResponse>> action) {
+        AccountLimiter limiter = accountLimiter.getIfAvailable();
+        if (limiter == null) {
+            return Mono.defer(action);
+        }
+        return accountCache.resolve(request.getSourceAccountNumber())
+            .flatMap(source -> limiter.acquire(source, Money.toCents(request.getAmount())).map(Optional::of))
+            // Cuenta inexistente: la rechaza el paso siguiente, como siempre
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(reservation -> action.get()
+                .doOnError(error -> reservation.ifPresent(limiter::release)));
+    }
+    
+    /**
+     * Ejecución síncrona: la respuesta sale con la transferencia ya COMPLETED
+     */
+    private Mono<TransferResponse> executeNow(TransferRequest request) {
+        // ===== PASO 1: EJECUTAR (buscar, validar, debitar, acreditar, registrar) =====
+        return transferMetrics.stage(TransferStage.EXECUTE, transferExecutor.execute(request))
+            .doOnNext(this::notifyListeners)
+            // ===== PASO 2: CONVERTIR A DTO DE RESPUESTA =====
+            // map() = transforma el valor dentro del Mono
+            .map(savedTransfer -> TransferResponse.builder()
+                .id(savedTransfer.getId())
+                .sourceAccountNumber(request.getSourceAccountNumber())
+                .destinationAccountNumber(request.getDestinationAccountNumber())
+                .amount(savedTransfer.getAmount())
+                .description(savedTransfer.getDescription())
+                .status(savedTransfer.getStatus())
+                .createdAt(savedTransfer.getCreatedAt())
+                .message("Transferencia realizada exitosamente")
+                .build()
+            )
             // ===== LOGGING CUANDO COMPLETA =====
             // doOnSuccess() = ejecuta una acción cuando el Mono completa exitosamente
-            .doOnSuccess(response -> 
-                log.info("Transferencia completada: ID {}", response.getId())
-            )
-            // ===== MANEJO DE ERRORES =====
-            // onErrorResume() = si algo falla, ejecuta esto en lugar de propagar el error
-            .onErrorResume(error -> {
-                log.error("Error en transferencia: {}", error.getMessage());
-                // Crear transferencia fallida para auditoría
-                return createFailedTransfer(request, error.getMessage())
-                    .map(failedTransfer -> TransferResponse.builder()
-                        .id(failedTransfer.getId())
-                        .sourceAccountNumber(request.getSourceAccountNumber())
-                        .destinationAccountNumber(request.getDestinationAccountNumber())
-                        .amount(request.getAmount())
-                        .description(request.getDescription())
-                        .status(Transfer.Status.FAILED)
-                        .createdAt(failedTransfer.getCreatedAt())
-                        .message("Error: " + error.getMessage())
-                        .build()
-                    );
+            .doOnSuccess(response -> {
+                log.info("Transferencia completada: ID {}", response.getId());
+                // Los saldos cacheados de ambas cuentas ya no son válidos
+                accountCache.balancesChanged(request.getSourceAccountNumber(),
+                                             request.getDestinationAccountNumber());
             });
     }
+    
     /**
-     * Crear registro de transferencia fallida para auditoría
-     * Esto es importante para tener un historial de intentos fallidos
+     * Guardar la transferencia sin mover dinero: PENDING (modo asíncrono) o SCHEDULED
+     * 
+     * Cuentas inexistentes y misma cuenta se rechazan aquí (FAILED, como siempre);
+     * el saldo se valida al ejecutarla, con las cuentas bloqueadas.
+     * Los ids salen de AccountCache: normalmente sin consultas a accounts.
      */
-
-    private Mono<Transfer> createFailedTransfer(TransferRequest request, String errorMessage) {
-        // Intentar obtener IDs de cuentas si existen
-        return accountRepository.findByAccountNumber(request.getSourceAccountNumber())
-            .zipWith(accountRepository.findByAccountNumber(request.getDestinationAccountNumber()))
-            .flatMap(tuple -> {
-                Transfer failedTransfer = new Transfer();
-                failedTransfer.setSourceAccountId(tuple.getT1().getId());
-                failedTransfer.setDestinationAccountId(tuple.getT2().getId());
-                failedTransfer.setAmount(request.getAmount());
-                failedTransfer.setDescription(request.getDescription() + " - FAILED: " + errorMessage);
-                failedTransfer.setStatus(Transfer.Status.FAILED);
-                failedTransfer.setCreatedAt(LocalDateTime.now());
-                
-                return transferRepository.save(failedTransfer);
+    private Mono<TransferResponse> accept(TransferRequest request, String status) {
+        boolean scheduled = Transfer.Status.SCHEDULED.equals(status);
+        TransferScheduler scheduler = transferScheduler.getIfAvailable();
+        if (scheduled && scheduler == null) {
+            return Mono.error(new TransferException(ErrorCode.INVALID_REQUEST,
+                "Las transferencias programadas están deshabilitadas"));
+        }
+        String sourceNumber = request.getSourceAccountNumber();
+        String destinationNumber = request.getDestinationAccountNumber();
+        return accountCache.resolve(sourceNumber)
+            .switchIfEmpty(Mono.error(() -> AccountNotFoundException.source(sourceNumber)))
+            .zipWhen(source -> accountCache.resolve(destinationNumber)
+                .switchIfEmpty(Mono.error(() -> AccountNotFoundException.destination(destinationNumber, source.getId()))))
+            .flatMap(accounts -> {
+                Long sourceId = accounts.getT1().getId();
+                Long destinationId = accounts.getT2().getId();
+                if (sourceId.equals(destinationId)) {
+                    return Mono.error(TransferException.sameAccount(sourceId));
+                }
+                Transfer transfer = new Transfer();
+                transfer.setSourceAccountId(sourceId);
+                transfer.setDestinationAccountId(destinationId);
+                transfer.setAmount(Money.toDecimal(Money.toCents(request.getAmount())));
+                transfer.setDescription(request.getDescription());
+                transfer.setStatus(status);
+                transfer.setCreatedAt(LocalDateTime.now());
+                transfer.setScheduledAt(scheduled ? request.getScheduledAt() : null);
+                return transferMetrics.stage(TransferStage.EXECUTE, transferRepository.save(transfer));
+            })
+            .doOnNext(saved -> {
+                if (scheduled) {
+                    scheduler.scheduled(saved, request);
+                }
             })
-            // Si no se encuentran las cuentas, crear transferencia sin IDs
-            .switchIfEmpty(Mono.defer(() -> {
-                Transfer failedTransfer = new Transfer();
-                failedTransfer.setAmount(request.getAmount());
-                failedTransfer.setDescription("FAILED: " + errorMessage);
-                failedTransfer.setStatus(Transfer.Status.FAILED);
-                failedTransfer.setCreatedAt(LocalDateTime.now());
-                
-                return transferRepository.save(failedTransfer);
-            }));
+            .map(saved -> TransferResponse.builder()
+                .id(saved.getId())
+                .sourceAccountNumber(sourceNumber)
+                .destinationAccountNumber(destinationNumber)
+                .amount(saved.getAmount())
+                .description(saved.getDescription())
+                .status(saved.getStatus())
+                .createdAt(saved.getCreatedAt())
+                .message(scheduled
+                    ? "Transferencia programada para " + saved.getScheduledAt()
+                    : "Transferencia aceptada, pendiente de liquidación")
+                .build())
+            .doOnSuccess(response -> log.info("Transferencia {}: ID {}", response.getStatus(), response.getId()));
+    }
+    /**
+     * Transferencia con Idempotency-Key: los reintentos del cliente
+     * reciben la respuesta original sin volver a mover dinero
+     */
+    @Override
+    public Mono<TransferResponse> performTransfer(TransferRequest request, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return performTransfer(request);
+        }
+        return idempotencyStore.execute(idempotencyKey, request, () -> performTransfer(request));
+    }
+    /**
+     * Programada que llegó a su hora: igual que con Idempotency-Key, pero una
+     * FAILED no agrega otra fila (TransferScheduler la marca en la programada)
+     */
+    @Override
+    public Mono<TransferResponse> performScheduled(TransferRequest request, String idempotencyKey) {
+        return idempotencyStore.execute(idempotencyKey, request, () -> perform(request, false));
+    }
+    /**
+     * Transferencias masivas en streaming
+     * 
+     * flatMap(..., concurrency) limita cuántas se ejecutan a la vez y pide al
+     * cliente solo esa cantidad de elementos: el payload nunca se carga entero.
+     * Con mode = GROUP_COMMIT o LEDGER las escrituras en BD salen por lotes.
+     */
+    @Override
+    public Flux<TransferResponse> performBulkTransfers(Flux<TransferRequest> requests) {
+        return requests.flatMap(request -> {
+            // VALIDACIÓN: mismas reglas que @Valid en POST /api/transfers
+            Set<ConstraintViolation<TransferRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; "));
+                return Mono.just(rejectedResponse(request, ErrorCode.INVALID_REQUEST, message));
+            }
+            return performTransfer(request)
+                // Si incluso el registro de auditoría falla, el stream continúa
+                .onErrorResume(error -> Mono.just(rejectedResponse(request, ErrorCode.of(error), error.getMessage())));
+        }, properties.getBulk().getConcurrency());
+    }
+    
+    /**
+     * Avisar a los TransferListener; un fallo en uno no afecta a la transferencia
+     */
+    private void notifyListeners(Transfer transfer) {
+        for (TransferListener listener : transferListeners) {
+            try {
+                listener.onTransferCompleted(transfer);
+            } catch (RuntimeException e) {
+                log.warn("Listener {} falló para la transferencia {}: {}",
+                         listener.getClass().getSimpleName(), transfer.getId(), e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Respuesta FAILED sin id (la fila de auditoría, si la hay, se escribe aparte)
+     */
+    private TransferResponse rejectedResponse(TransferRequest request, ErrorCode errorCode, String errorMessage) {
+        return TransferResponse.builder()
+            .sourceAccountNumber(request.getSourceAccountNumber())
+            .destinationAccountNumber(request.getDestinationAccountNumber())
+            .amount(request.getAmount())
+            .description(request.getDescription())
+            .status(Transfer.Status.FAILED)
+            .createdAt(LocalDateTime.now())
+            .message("Error: " + errorMessage)
+            .errorCode(errorCode)
+            .build();
     }
     // ===== MÉTODOS SIMPLES DE CONSULTA =====
+    /**
+     * Página de transferencias con paginación por cursor
+     * Se piden limit + 1 filas: la fila extra solo indica si hay página siguiente
+     */
     @Override
-    public Flux<Transfer> getAllTransfers() {
-        return transferRepository.findAll();
+    public Mono<TransferPage> getTransfers(TransferFilter filter) {
+        int limit = pageLimit(filter.getLimit());
+        TransferCursor after = TransferCursor.decode(filter.getCursor());
+        if (filter.getAccountNumber() == null) {
+            return findPage(filter, null, after, limit);
+        }
+        return accountCache.resolve(filter.getAccountNumber())
+            .flatMap(account -> findPage(filter, account.getId(), after, limit))
+            // Cuenta inexistente → página vacía
+            .defaultIfEmpty(TransferPage.empty());
+    }
+    
+    private Mono<TransferPage> findPage(TransferFilter filter, Long accountId, TransferCursor after, int limit) {
+        return transferRepository.findPage(filter.getStatus(), accountId, filter.getFrom(), filter.getTo(),
+                                           after, limit + 1)
+            .collectList()
+            .map(rows -> TransferPage.of(rows, limit));
+    }
+    
+    private int pageLimit(Integer requested) {
+        TransferProperties.Pagination pagination = properties.getPagination();
+        if (requested == null || requested <= 0) {
+            return pagination.getDefaultLimit();
+        }
+        return Math.min(requested, pagination.getMaxLimit());
     }
     
     @Override
@@ -190,19 +365,21 @@ public class TransferServiceImpl implements TransferService {
         return transferRepository.findById(id);
     }
     /**
-     * Obtener historial completo de una cuenta
-     * (transferencias enviadas + transferencias recibidas)
+     * Obtener historial de una cuenta
+     * (transferencias enviadas + recibidas, de la más reciente a la más antigua)
      */
     
     @Override
-    public Flux<Transfer> getTransferHistory(String accountNumber) {
-        return accountRepository.findByAccountNumber(accountNumber)
-            .flatMapMany(account -> 
-                Flux.concat(
-                    transferRepository.findBySourceAccountId(account.getId()),
-                    transferRepository.findByDestinationAccountId(account.getId())
-                )
-            );
+    public Mono<TransferPage> getTransferHistory(TransferFilter filter) {
+        int limit = pageLimit(filter.getLimit());
+        TransferCursor after = TransferCursor.decode(filter.getCursor());
+        HistoryDirection direction = filter.getDirection() != null ? filter.getDirection() : HistoryDirection.ALL;
+        return accountCache.resolve(filter.getAccountNumber())
+            .flatMap(account -> transferRepository
+                .findHistory(account.getId(), direction, filter.getFrom(), filter.getTo(), after, limit + 1)
+                .collectList()
+                .map(rows -> TransferPage.of(rows, limit)))
+            .defaultIfEmpty(TransferPage.empty());
     }
     
     @Override
@@ -212,7 +389,39 @@ public class TransferServiceImpl implements TransferService {
     
     @Override
     public Mono<Account> getAccountByNumber(String accountNumber) {
-        return accountRepository.findByAccountNumber(accountNumber);
+        // En modo LEDGER el saldo vigente vive en memoria (la BD va por detrás)
+        LedgerEngine engine = ledgerEngine.getIfAvailable();
+        if (engine != null) {
+            return engine.findAccount(accountNumber);
+        }
+        return accountCache.find(accountNumber);
+    }
+    
+    /**
+     * Saldo a una fecha
+     * 
+     * 1. Snapshot diario más reciente con day <= fecha de asOf
+     * 2. Mismo día → opening_balance + transferencias desde el inicio del día hasta asOf
+     *    Día anterior → saldo al cierre + transferencias desde el día siguiente hasta asOf
+     * 3. Sin snapshots anteriores → saldo actual - transferencias desde asOf
+     * 
+     * El paso 2 solo recorre transferencias posteriores al snapshot
+     * (normalmente las de un día) usando los índices (cuenta, created_at, id).
+     */
+    @Override
+    public Mono<BalanceResponse> getBalanceAsOf(String accountNumber, LocalDateTime asOf) {
+        return accountCache.resolve(accountNumber)
+            .flatMap(account -> dailyBalanceRepository.findLatestOnOrBefore(account.getId(), asOf.toLocalDate())
+                .flatMap(snapshot -> {
+                    boolean sameDay = snapshot.getDay().equals(asOf.toLocalDate());
+                    LocalDateTime since = sameDay
+                        ? snapshot.getDay().atStartOfDay()
+                        : snapshot.getDay().plusDays(1).atStartOfDay();
+                    BigDecimal base = sameDay ? snapshot.getOpeningBalance() : snapshot.closingBalance();
+                    return dailyBalanceRepository.netChange(account.getId(), since, asOf).map(base::add);
+                })
+                .switchIfEmpty(Mono.defer(() -> dailyBalanceRepository.balanceFromCurrent(account.getId(), asOf)))
+                .map(balance -> new BalanceResponse(accountNumber, asOf, balance)));
     }
 
 
@@ -222,10 +431,23 @@ public class TransferServiceImpl implements TransferService {
 public Mono<Account> updateAccount(String accountNumber, AccountUpdateRequest request) {
     log.info("Actualizando cuenta: {}", accountNumber);
     
+    // En modo LEDGER los cambios pasan por el motor para que el journal no los pise
+    LedgerEngine engine = ledgerEngine.getIfAvailable();
+    if (engine != null) {
+        return engine.updateAccount(accountNumber, request.getOwnerName(), request.getBalance())
+            .switchIfEmpty(Mono.error(
+                AccountNotFoundException.of(accountNumber)
+            ))
+            .doOnSuccess(account -> {
+                log.info("Cuenta actualizada: {}", account.getAccountNumber());
+                accountCache.invalidate(accountNumber);
+            });
+    }
+    
     return accountRepository.findByAccountNumber(accountNumber)
         // Si no existe, error 404
         .switchIfEmpty(Mono.error(
-            new RuntimeException("Cuenta no encontrada: " + accountNumber)
+            AccountNotFoundException.of(accountNumber)
         ))
         // Actualizar campos
         .flatMap(account -> {
@@ -251,33 +473,27 @@ public Mono<Account> updateAccount(String accountNumber, AccountUpdateRequest re
                 return Mono.just(account);
             }
         })
-        .doOnSuccess(account -> 
-            log.info("Cuenta actualizada: {}", account.getAccountNumber())
-        );
+        .doOnSuccess(account -> {
+            log.info("Cuenta actualizada: {}", account.getAccountNumber());
+            // Write-through: la caché queda con la versión recién guardada
+            accountCache.put(account);
+        });
 }
 
 @Override
 public Mono<Transfer> cancelTransfer(Long transferId) {
     log.info("Cancelando transferencia: {}", transferId);
     
-    return transferRepository.findById(transferId)
-        .switchIfEmpty(Mono.error(
-            new RuntimeException("Transferencia no encontrada con ID: " + transferId)
-        ))
-        .flatMap(transfer -> {
-            // Solo se pueden cancelar transferencias PENDING
-            if (!Transfer.Status.PENDING.equals(transfer.getStatus())) {
-                return Mono.error(new RuntimeException(
-                    "Solo se pueden cancelar transferencias en estado PENDING. Estado actual: " + transfer.getStatus()
-                ));
-            }
-            
-            // Cambiar estado a FAILED
-            transfer.setStatus(Transfer.Status.FAILED);
-            transfer.setDescription(transfer.getDescription() + " - CANCELADA POR USUARIO");
-            
-            return transferRepository.save(transfer);
-        })
+    // UPDATE condicional: nunca pisa una transferencia que un worker o el scheduler ya tomaron
+    return transferRepository.cancelIfPending(transferId)
+        // No se canceló: averiguar por qué (no existe o ya no está PENDING / SCHEDULED)
+        .switchIfEmpty(Mono.defer(() -> transferRepository.findById(transferId)
+            .switchIfEmpty(Mono.error(
+                new TransferException(ErrorCode.TRANSFER_NOT_FOUND, "Transferencia no encontrada con ID: " + transferId)
+            ))
+            .flatMap(transfer -> Mono.<Transfer>error(new TransferException(ErrorCode.INVALID_TRANSFER_STATE,
+                "Solo se pueden cancelar transferencias PENDING o SCHEDULED. Estado actual: " + transfer.getStatus()
+            )))))
         .doOnSuccess(transfer -> 
             log.info("Transferencia cancelada: ID {}", transfer.getId())
         );
@@ -289,31 +505,44 @@ public Mono<Transfer> cancelTransfer(Long transferId) {
 public Mono<Void> deleteAccount(String accountNumber) {
     log.info("Eliminando cuenta: {}", accountNumber);
     
-    return accountRepository.findByAccountNumber(accountNumber)
+    // Saldo vigente (nunca el de la caché): en modo LEDGER el de memoria, si no el de la BD
+    LedgerEngine engine = ledgerEngine.getIfAvailable();
+    Mono<Account> current = engine != null
+        ? engine.findAccount(accountNumber)
+        : accountRepository.findByAccountNumber(accountNumber);
+    
+    return current
         .switchIfEmpty(Mono.error(
-            new RuntimeException("Cuenta no encontrada: " + accountNumber)
+            AccountNotFoundException.of(accountNumber)
         ))
         .flatMap(account -> {
             // VALIDACIÓN 1: Balance debe ser 0
-            if (account.getBalance().compareTo(BigDecimal.ZERO) != 0) {
-                return Mono.error(new RuntimeException(
+            if (account.getBalanceCents() != 0) {
+                return Mono.error(new TransferException(ErrorCode.ACCOUNT_NOT_EMPTY,
                     "No se puede eliminar una cuenta con saldo. Balance actual: " + account.getBalance()
                 ));
             }
             
-            // VALIDACIÓN 2: No debe tener transferencias pendientes
+            // VALIDACIÓN 2: No debe tener transferencias pendientes ni programadas
             return transferRepository.findBySourceAccountId(account.getId())
-                .filter(t -> Transfer.Status.PENDING.equals(t.getStatus()))
+                .filter(t -> Transfer.Status.PENDING.equals(t.getStatus())
+                    || Transfer.Status.SCHEDULED.equals(t.getStatus()))
                 .hasElements()
                 .flatMap(hasPending -> {
                     if (hasPending) {
-                        return Mono.error(new RuntimeException(
+                        return Mono.error(new TransferException(ErrorCode.ACCOUNT_NOT_EMPTY,
                             "No se puede eliminar una cuenta con transferencias pendientes"
                         ));
                     }
                     
                     // Si pasa todas las validaciones, eliminar
-                    return accountRepository.deleteById(account.getId());
+                    return accountRepository.deleteById(account.getId())
+                        .doOnSuccess(v -> {
+                            accountCache.invalidate(accountNumber);
+                            if (engine != null) {
+                                engine.forget(accountNumber);
+                            }
+                        });
                 });
         })
         .doOnSuccess(v -> 
@@ -327,12 +556,12 @@ public Mono<Void> deleteTransfer(Long transferId) {
     
     return transferRepository.findById(transferId)
         .switchIfEmpty(Mono.error(
-            new RuntimeException("Transferencia no encontrada con ID: " + transferId)
+            new TransferException(ErrorCode.TRANSFER_NOT_FOUND, "Transferencia no encontrada con ID: " + transferId)
         ))
         .flatMap(transfer -> {
             // VALIDACIÓN: Solo se pueden eliminar transferencias FAILED
             if (!Transfer.Status.FAILED.equals(transfer.getStatus())) {
-                return Mono.error(new RuntimeException(
+                return Mono.error(new TransferException(ErrorCode.INVALID_TRANSFER_STATE,
                     "Solo se pueden eliminar transferencias fallidas. Estado actual: " + transfer.getStatus()
                 ));
             }
@@ -0,0 +1,563 @@
+/*¿Para qué sirve?
+
+Motor de saldos en memoria (modo LEDGER)
+Pensado para cuentas "calientes" (comercios) que reciben miles de créditos
+por segundo y que en PostgreSQL se serializan en el lock de la misma fila.
+
+IDEA (estilo LMAX):
+- Un ÚNICO hilo escritor es dueño de todos los saldos → no hace falta ningún lock
+- Los demás hilos solo encolan comandos en un buffer circular acotado
+- Cada transferencia aplicada se anota en un journal que se escribe en
+  PostgreSQL de forma asíncrona y por lotes (una transacción por lote)
+
+DURABILIDAD: la respuesta se envía al aplicar en memoria, ANTES de que el
+journal llegue a la BD. Si el proceso muere, se pierde como mucho el último
+lote pendiente (journalMaxWait / journalBatchSize).
+Una entrada que la BD rechaza (o un lote que agota sus reintentos) no frena
+el journal: su transferencia queda en ledger_dead_letters y sus saldos en accounts.
+
+RECUPERACIÓN: cada lote del journal inserta las transferencias y actualiza
+los saldos de accounts en la MISMA transacción, así que al arrancar basta
+con leer la tabla accounts para reconstruir el estado.
+ *
+ */
+
+package com.example.transfers.service.ledger;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.exception.AccountNotFoundException;
+import com.example.transfers.exception.ErrorCode;
+import com.example.transfers.exception.InsufficientFundsException;
+import com.example.transfers.exception.TransferException;
+import com.example.transfers.model.Account;
+import com.example.transfers.model.Money;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.repository.AccountRepository;
+import com.example.transfers.repository.TransferRepository;
+import com.example.transfers.service.support.AsyncBatcher;
+import com.example.transfers.service.support.TransferBatchStatements;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcTransientException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@ConditionalOnProperty(name = "transfers.mode", havingValue = "ledger")
+@DependsOn("initializer") // schema.sql debe ejecutarse antes de recuperar el estado
+@Slf4j
+public class LedgerEngine {
+
+    // Sin stack trace: se puede compartir entre todas las peticiones rechazadas
+    private static final TransferException SATURATED =
+        new TransferException(ErrorCode.OVERLOADED, "Motor de saldos saturado, intente nuevamente");
+
+    private static final String INSERT_DEAD_LETTERS = """
+        INSERT INTO ledger_dead_letters (transfer_id, source_account_id, destination_account_id, amount,
+                                         description, status, transfer_created_at, error)
+        SELECT t.id, t.source_id, t.destination_id, t.cents / 100.0, t.description, t.status,
+               CAST(t.created_at AS timestamp), :error
+          FROM unnest(CAST(:ids AS bigint[]), CAST(:sources AS bigint[]), CAST(:destinations AS bigint[]),
+                      CAST(:amounts AS bigint[]), CAST(:descriptions AS text[]), CAST(:statuses AS varchar[]),
+                      CAST(:createdAt AS varchar[]))
+               AS t(id, source_id, destination_id, cents, description, status, created_at)
+        ON CONFLICT (transfer_id) DO NOTHING
+        """;
+
+    private final AccountRepository accountRepository;
+    private final TransferRepository transferRepository;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final TransferProperties.Ledger config;
+
+    // ===== ESTADO PROPIEDAD DEL HILO ESCRITOR (sin locks) =====
+    private final LongLongHashMap balances = new LongLongHashMap(1024); // id → centavos
+    private final Map<String, Account> accountsByNumber = new HashMap<>(); // metadatos
+    private long[] currentIds = new long[0];
+    private int nextIdIndex;
+
+    // ===== COMPARTIDO ENTRE HILOS =====
+    private final BlockingQueue<Runnable> ring;
+    private final Set<String> knownAccounts = ConcurrentHashMap.newKeySet();
+    private final Queue<long[]> idBlocks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean idRefillInFlight = new AtomicBoolean();
+    private final AsyncBatcher<JournalEntry> journal;
+    private final Thread writer;
+    private volatile boolean running;
+
+    public LedgerEngine(AccountRepository accountRepository,
+                        TransferRepository transferRepository,
+                        DatabaseClient databaseClient,
+                        TransactionalOperator transactionalOperator,
+                        TransferProperties properties) {
+        this.accountRepository = accountRepository;
+        this.transferRepository = transferRepository;
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.config = properties.getLedger();
+        this.ring = new ArrayBlockingQueue<>(config.getRingSize());
+        this.journal = new AsyncBatcher<>("ledger-journal", config.getJournalBatchSize(),
+            config.getJournalMaxWait(), config.getJournalQueueCapacity(), this::writeJournal);
+        this.writer = new Thread(this::runWriter, "ledger-writer");
+    }
+
+    // ===== CICLO DE VIDA =====
+
+    /**
+     * Recuperar el estado desde PostgreSQL y arrancar el hilo escritor
+     * (bloquea el arranque: el motor no acepta comandos hasta estar completo)
+     */
+    @PostConstruct
+    public void start() {
+        List<Account> accounts = accountRepository.findAll().collectList().block(Duration.ofMinutes(5));
+        if (accounts != null) {
+            accounts.forEach(account -> register(account, true));
+        }
+        List<Long> ids = transferRepository.reserveIds(config.getIdBlockSize()).collectList().block(Duration.ofSeconds(30));
+        if (ids != null) {
+            idBlocks.add(toArray(ids));
+        }
+        running = true;
+        writer.start();
+        log.info("Motor de saldos iniciado con {} cuentas", balances.size());
+    }
+
+    /**
+     * Procesar los comandos pendientes y esperar a que el journal llegue a la BD
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        journal.close(Duration.ofSeconds(30));
+        log.info("Motor de saldos detenido");
+    }
+
+    private void runWriter() {
+        while (running || !ring.isEmpty()) {
+            try {
+                Runnable command = ring.poll(100, TimeUnit.MILLISECONDS);
+                if (command != null) {
+                    command.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en el hilo escritor: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    // ===== API PÚBLICA (cualquier hilo) =====
+
+    /**
+     * Aplicar una transferencia en memoria
+     * @return Transferencia COMPLETED (con ID reservado) o error de negocio
+     */
+    public Mono<Transfer> transfer(TransferRequest request) {
+        return ensureKnown(request.getSourceAccountNumber())
+            .then(ensureKnown(request.getDestinationAccountNumber()))
+            .then(Mono.<Transfer>create(sink -> submit(sink, () -> applyTransfer(request, sink))))
+            // No continuar el pipeline del cliente en el hilo escritor
+            .publishOn(Schedulers.parallel());
+    }
+
+    /**
+     * Obtener una cuenta con su saldo vigente (el de memoria, no el de la BD)
+     * @return Cuenta o vacío si no existe
+     */
+    public Mono<Account> findAccount(String accountNumber) {
+        return ensureKnown(accountNumber)
+            .then(Mono.<Account>create(sink -> submit(sink, () -> {
+                Account account = accountsByNumber.get(accountNumber);
+                sink.success(account == null ? null : snapshot(account));
+            })))
+            .publishOn(Schedulers.parallel());
+    }
+
+    /**
+     * Actualizar nombre y/o saldo a través del motor para que el journal
+     * no sobrescriba el cambio con un saldo anterior
+     * @return Cuenta actualizada o vacío si no existe
+     */
+    public Mono<Account> updateAccount(String accountNumber, String ownerName, BigDecimal balance) {
+        return ensureKnown(accountNumber)
+            .then(Mono.<Account>create(sink -> submit(sink, () -> applyAccountUpdate(accountNumber, ownerName, balance, sink))))
+            .publishOn(Schedulers.parallel());
+    }
+
+    /**
+     * Olvidar una cuenta eliminada de la BD
+     */
+    public void forget(String accountNumber) {
+        ring.offer(() -> {
+            Account account = accountsByNumber.remove(accountNumber);
+            if (account != null) {
+                balances.remove(account.getId());
+            }
+            knownAccounts.remove(accountNumber);
+        });
+    }
+
+    // ===== COMANDOS (solo en el hilo escritor) =====
+
+    private void applyTransfer(TransferRequest request, MonoSink<Transfer> sink) {
+        Account source = accountsByNumber.get(request.getSourceAccountNumber());
+        if (source == null) {
+            sink.error(AccountNotFoundException.source(request.getSourceAccountNumber()));
+            return;
+        }
+        Account destination = accountsByNumber.get(request.getDestinationAccountNumber());
+        if (destination == null) {
+            sink.error(AccountNotFoundException.destination(request.getDestinationAccountNumber(), source.getId()));
+            return;
+        }
+        // VALIDACIÓN: No transferir a la misma cuenta
+        if (source.getId().equals(destination.getId())) {
+            sink.error(TransferException.sameAccount(source.getId()));
+            return;
+        }
+        // VALIDACIÓN: Saldo suficiente (aritmética en centavos, sin BigDecimal)
+        long amount = Money.toCents(request.getAmount());
+        long sourceBalance = balances.get(source.getId(), 0L);
+        if (sourceBalance < amount) {
+            sink.error(new InsufficientFundsException(source.getId(), destination.getId(), sourceBalance));
+            return;
+        }
+        long transferId = nextTransferId();
+        if (transferId < 0) {
+            sink.error(SATURATED);
+            return;
+        }
+
+        long newSourceBalance = sourceBalance - amount;
+        long newDestinationBalance = balances.get(destination.getId(), 0L) + amount;
+
+        Transfer transfer = new Transfer();
+        transfer.setId(transferId);
+        transfer.setSourceAccountId(source.getId());
+        transfer.setDestinationAccountId(destination.getId());
+        transfer.setAmount(Money.toDecimal(amount));
+        transfer.setDescription(request.getDescription());
+        transfer.setStatus(Transfer.Status.COMPLETED);
+        transfer.setCreatedAt(LocalDateTime.now());
+
+        // Primero el journal: si está lleno, la transferencia se rechaza sin tocar saldos
+        JournalEntry entry = new JournalEntry(transfer, List.of(
+            new AccountState(source.getId(), newSourceBalance, null),
+            new AccountState(destination.getId(), newDestinationBalance, null)));
+        if (!journal.offer(entry)) {
+            sink.error(SATURATED);
+            return;
+        }
+        balances.put(source.getId(), newSourceBalance);
+        balances.put(destination.getId(), newDestinationBalance);
+        sink.success(transfer);
+    }
+
+    private void applyAccountUpdate(String accountNumber, String ownerName, BigDecimal balance,
+                                    MonoSink<Account> sink) {
+        Account account = accountsByNumber.get(accountNumber);
+        if (account == null) {
+            sink.success();
+            return;
+        }
+        String newOwnerName = ownerName != null && !ownerName.trim().isEmpty() ? ownerName : null;
+        long newBalance = balance != null ? Money.toCents(balance) : balances.get(account.getId(), 0L);
+
+        if (!journal.offer(new JournalEntry(null, List.of(new AccountState(account.getId(), newBalance, newOwnerName))))) {
+            sink.error(SATURATED);
+            return;
+        }
+        if (newOwnerName != null) {
+            account.setOwnerName(newOwnerName);
+        }
+        account.setUpdatedAt(LocalDateTime.now());
+        balances.put(account.getId(), newBalance);
+        sink.success(snapshot(account));
+    }
+
+    private void register(Account account, boolean overwrite) {
+        if (!overwrite && accountsByNumber.containsKey(account.getAccountNumber())) {
+            return;
+        }
+        accountsByNumber.put(account.getAccountNumber(), account);
+        balances.put(account.getId(), account.getBalanceCents());
+        // El saldo vigente vive en 'balances'; el objeto solo guarda metadatos
+        account.setBalanceCents(0);
+        knownAccounts.add(account.getAccountNumber());
+    }
+
+    private long nextTransferId() {
+        if (nextIdIndex >= currentIds.length) {
+            long[] block = idBlocks.poll();
+            if (block == null) {
+                requestIdBlock();
+                return -1;
+            }
+            currentIds = block;
+            nextIdIndex = 0;
+        }
+        long id = currentIds[nextIdIndex++];
+        // Pedir el siguiente bloque con antelación (a mitad del actual)
+        if (idBlocks.isEmpty() && nextIdIndex * 2 >= currentIds.length) {
+            requestIdBlock();
+        }
+        return id;
+    }
+
+    // ===== AUXILIARES =====
+
+    private <T> void submit(MonoSink<T> sink, Runnable command) {
+        Runnable guarded = () -> {
+            try {
+                command.run();
+            } catch (RuntimeException e) {
+                sink.error(e);
+            }
+        };
+        if (!running || !ring.offer(guarded)) {
+            sink.error(SATURATED);
+        }
+    }
+
+    /**
+     * Cargar desde la BD una cuenta que el motor aún no conoce
+     * (p. ej. creada por otra vía después del arranque)
+     */
+    private Mono<Void> ensureKnown(String accountNumber) {
+        if (knownAccounts.contains(accountNumber)) {
+            return Mono.empty();
+        }
+        return accountRepository.findByAccountNumber(accountNumber)
+            .flatMap(account -> Mono.<Void>create(sink -> submit(sink, () -> {
+                register(account, false);
+                sink.success();
+            })));
+    }
+
+    private void requestIdBlock() {
+        if (!idRefillInFlight.compareAndSet(false, true)) {
+            return;
+        }
+        transferRepository.reserveIds(config.getIdBlockSize())
+            .collectList()
+            .doFinally(signal -> idRefillInFlight.set(false))
+            .subscribe(
+                ids -> idBlocks.add(toArray(ids)),
+                error -> log.error("No se pudieron reservar IDs de transferencia: {}", error.getMessage())
+            );
+    }
+
+    private Account snapshot(Account account) {
+        Account copy = new Account();
+        copy.setId(account.getId());
+        copy.setAccountNumber(account.getAccountNumber());
+        copy.setOwnerName(account.getOwnerName());
+        copy.setTier(account.getTier());
+        copy.setBalanceCents(balances.get(account.getId(), 0L));
+        copy.setCreatedAt(account.getCreatedAt());
+        copy.setUpdatedAt(account.getUpdatedAt());
+        return copy;
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        long[] array = new long[ids.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ids.get(i);
+        }
+        return array;
+    }
+
+    // ===== JOURNAL =====
+
+    /**
+     * Escribir un lote del journal en UNA transacción:
+     * 1. INSERT multi-fila de las transferencias (con sus IDs ya reservados)
+     * 2. UPDATE por lotes con el último saldo de cada cuenta tocada
+     *
+     * Errores transitorios (conexión, serialización): se reintenta el lote
+     * hasta journalMaxAttempts; mientras tanto la cola del journal se llena y
+     * el motor empieza a rechazar transferencias.
+     * Error permanente (una fila inválida): el lote se escribe entrada por
+     * entrada, así solo la culpable termina en ledger_dead_letters.
+     * Reintentos agotados: todo el lote va a ledger_dead_letters.
+     */
+    private Mono<Void> writeJournal(List<JournalEntry> entries) {
+        return writeEntries(entries)
+            .onErrorResume(error -> {
+                if (entries.size() == 1 || Exceptions.isRetryExhausted(error)) {
+                    return deadLetter(entries, error);
+                }
+                log.warn("Lote del journal rechazado ({} entradas): {}; se escribe entrada por entrada",
+                         entries.size(), error.getMessage());
+                return Flux.fromIterable(entries)
+                    .concatMap(entry -> writeEntries(List.of(entry))
+                        .onErrorResume(entryError -> deadLetter(List.of(entry), entryError)))
+                    .then();
+            });
+    }
+
+    private Mono<Void> writeEntries(List<JournalEntry> entries) {
+        List<Transfer> transfers = new ArrayList<>(entries.size());
+        for (JournalEntry entry : entries) {
+            if (entry.transfer() != null) {
+                transfers.add(entry.transfer());
+            }
+        }
+        return TransferBatchStatements.insertTransfers(databaseClient, transfers)
+            .then(updateAccounts(latestStates(entries)))
+            .as(transactionalOperator::transactional)
+            .retryWhen(journalRetry(entries.size()));
+    }
+
+    /**
+     * Guardar en ledger_dead_letters las transferencias que no entraron en transfers.
+     * Los saldos se escriben igual: la memoria ya los aplicó y el cliente ya recibió
+     * COMPLETED, así que accounts debe seguir coincidiendo con el motor.
+     * Si tampoco se puede (BD caída), solo queda el log.
+     */
+    private Mono<Void> deadLetter(List<JournalEntry> entries, Throwable error) {
+        Throwable cause = Exceptions.isRetryExhausted(error) && error.getCause() != null ? error.getCause() : error;
+        List<Transfer> transfers = entries.stream()
+            .map(JournalEntry::transfer)
+            .filter(Objects::nonNull)
+            .toList();
+        return insertDeadLetters(transfers, cause)
+            .then(updateAccounts(latestStates(entries)))
+            .as(transactionalOperator::transactional)
+            .retryWhen(journalRetry(entries.size()))
+            .doOnSuccess(done -> log.error("{} transferencias del journal enviadas a ledger_dead_letters: {}",
+                                           transfers.size(), cause.getMessage()))
+            .onErrorResume(deadLetterError -> {
+                log.error("Entradas del journal PERDIDAS (transferencias {}): {}",
+                          transfers.stream().map(Transfer::getId).toList(), deadLetterError.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Void> insertDeadLetters(List<Transfer> transfers, Throwable cause) {
+        if (transfers.isEmpty()) {
+            return Mono.empty();
+        }
+        int size = transfers.size();
+        Long[] ids = new Long[size];
+        Long[] sources = new Long[size];
+        Long[] destinations = new Long[size];
+        Long[] amounts = new Long[size];
+        String[] descriptions = new String[size];
+        String[] statuses = new String[size];
+        String[] createdAt = new String[size];
+        for (int i = 0; i < size; i++) {
+            Transfer transfer = transfers.get(i);
+            ids[i] = transfer.getId();
+            sources[i] = transfer.getSourceAccountId();
+            destinations[i] = transfer.getDestinationAccountId();
+            amounts[i] = Money.toCents(transfer.getAmount());
+            descriptions[i] = transfer.getDescription();
+            statuses[i] = transfer.getStatus();
+            createdAt[i] = transfer.getCreatedAt().toString();
+        }
+        String message = String.valueOf(cause.getMessage());
+        return databaseClient.sql(INSERT_DEAD_LETTERS)
+            .bind("ids", ids)
+            .bind("sources", sources)
+            .bind("destinations", destinations)
+            .bind("amounts", amounts)
+            .bind("descriptions", descriptions)
+            .bind("statuses", statuses)
+            .bind("createdAt", createdAt)
+            .bind("error", message.length() > 500 ? message.substring(0, 500) : message)
+            .fetch()
+            .rowsUpdated()
+            .then();
+    }
+
+    // Backoff acotado y solo para errores que pueden desaparecer solos
+    private Retry journalRetry(int size) {
+        return Retry.backoff(config.getJournalMaxAttempts() - 1L, Duration.ofMillis(100))
+            .maxBackoff(Duration.ofSeconds(5))
+            .filter(LedgerEngine::isTransient)
+            .doBeforeRetry(signal -> log.warn("Reintentando lote del journal ({} entradas): {}",
+                                              size, signal.failure().getMessage()));
+    }
+
+    // Conexión caída / pool agotado o conflicto de serialización; el resto
+    // (CHECK, FK, valor demasiado largo) fallaría igual en cada intento
+    private static boolean isTransient(Throwable error) {
+        return error instanceof TransientDataAccessException
+            || error instanceof DataAccessResourceFailureException
+            || error instanceof R2dbcTransientException
+            || error instanceof R2dbcNonTransientResourceException
+            || error.getCause() instanceof R2dbcTransientException
+            || error.getCause() instanceof R2dbcNonTransientResourceException;
+    }
+
+    // El saldo más reciente de cada cuenta gana; un cambio de nombre no se pierde
+    private static Collection<AccountState> latestStates(List<JournalEntry> entries) {
+        Map<Long, AccountState> latest = new LinkedHashMap<>();
+        for (JournalEntry entry : entries) {
+            for (AccountState state : entry.accounts()) {
+                latest.merge(state.accountId(), state, (previous, current) ->
+                    current.ownerName() != null ? current
+                        : new AccountState(current.accountId(), current.balance(), previous.ownerName()));
+            }
+        }
+        return latest.values();
+    }
+
+    private Mono<Void> updateAccounts(Collection<AccountState> states) {
+        Long[] ids = new Long[states.size()];
+        Long[] balances = new Long[states.size()];
+        String[] owners = new String[states.size()];
+        int i = 0;
+        for (AccountState state : states) {
+            ids[i] = state.accountId();
+            balances[i] = state.balance();
+            owners[i] = state.ownerName();
+            i++;
+        }
+        return TransferBatchStatements.updateBalances(databaseClient, ids, balances, owners);
+    }
+
+    // Una entrada del journal: transferencia (opcional) + saldos resultantes
+    private record JournalEntry(Transfer transfer, List<AccountState> accounts) {
+    }
+
+    // Saldo absoluto en centavos tras aplicar la entrada (ownerName null = sin cambio)
+    private record AccountState(long accountId, long balance, String ownerName) {
+    }
+}
@@ -0,0 +1,126 @@
+/*¿Para qué sirve?
+
+Mapa long → long sin objetos intermedios (sin Long ni Map.Entry)
+Direccionamiento abierto con sondeo lineal sobre dos arrays primitivos
+
+Lo usa el motor de saldos: id de cuenta → saldo en centavos
+NO es thread-safe: solo lo toca el hilo escritor del motor
+ *
+ */
+
+package com.example.transfers.service.ledger;
+
+import java.util.Arrays;
+
+class LongLongHashMap {
+
+    // Clave reservada para "hueco libre" (los IDs de BIGSERIAL empiezan en 1)
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int mask;
+
+    LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+        allocate(capacity);
+    }
+
+    boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return el valor asociado o defaultValue si la clave no existe
+     */
+    long get(long key, long defaultValue) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : defaultValue;
+    }
+
+    void put(long key, long value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("La clave 0 está reservada");
+        }
+        int slot = slotOf(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        // Mantener el factor de carga por debajo de 0.5
+        if (++size * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    void remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return;
+        }
+        keys[index] = EMPTY;
+        size--;
+        // Reubicar el resto del cluster para no romper el sondeo lineal
+        int slot = (index + 1) & mask;
+        while (keys[slot] != EMPTY) {
+            long movedKey = keys[slot];
+            long movedValue = values[slot];
+            keys[slot] = EMPTY;
+            size--;
+            put(movedKey, movedValue);
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int indexOf(long key) {
+        if (key == EMPTY) {
+            return -1;
+        }
+        int slot = slotOf(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slotOf(long key) {
+        // Mezcla de bits (fmix64 de MurmurHash3) para repartir IDs consecutivos
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        size = 0;
+    }
+}
@@ -0,0 +1,320 @@
+/*¿Para qué sirve?
+
+Límites por cuenta origen, controlados en memoria ANTES de tocar la BD:
+- Monto enviado en las últimas 24 horas (24 tramos de 1 hora)
+- Cantidad de transferencias en rateWindow (velocidad)
+Los topes dependen del tier de la cuenta (accounts.tier → transfers.limits.tiers)
+
+PROBLEMA que resuelve:
+Un SUM(amount) sobre transfers en cada performTransfer duplicaría la carga
+de la BD justo en las horas pico.
+
+CÓMO FUNCIONA:
+0. La primera vez que se ve una cuenta (arranque, cuenta descartada de la
+   caché, otra réplica) su ventana de 24h se carga desde transfers con la
+   misma consulta de la reconciliación, ANTES de admitir su primer acquire():
+   sin eso, cada réplica recién arrancada daría otro cupo diario completo.
+   Una sola consulta por cuenta aunque lleguen muchas peticiones a la vez
+   (la caché guarda el CompletableFuture, como AccountCache)
+1. acquire() suma los tramos de la cuenta (SlidingWindow), compara con el
+   tier y, si entra, reserva el monto; si no, LimitExceededException
+   (la transferencia termina FAILED con errorCode LIMIT_EXCEEDED)
+2. Si la transferencia falla después, release() devuelve la reserva
+3. Cada reconcileInterval se recalcula el monto de 24h de las cuentas en
+   memoria desde transfers (una consulta por cada 1000 cuentas, por
+   idx_transfer_source_created): corrige lo que ven otras réplicas y las
+   reservas de fallidas que no se devolvieron (p. ej. en modo asíncrono)
+
+CONCURRENCIA: los contadores se protegen con locks por franja (stripes):
+STRIPES locks fijos repartidos por hash del id. Dos cuentas rara vez
+comparten franja y nunca se toma más de uno; adentro solo hay aritmética.
+
+MEMORIA ACOTADA: Caffeine con maxAccounts entradas; una cuenta sin
+movimientos durante 24h se descarta (su ventana ya está vacía).
+
+La velocidad (rateWindow) es solo local a cada réplica: no se reconcilia.
+ *
+ */
+
+package com.example.transfers.service.limits;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.exception.LimitExceededException;
+import com.example.transfers.model.Account;
+import com.example.transfers.model.Money;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+@Component
+@ConditionalOnProperty(name = "transfers.limits.enabled", havingValue = "true", matchIfMissing = true)
+@DependsOn("initializer") // transfers debe existir antes de la primera reconciliación
+@Slf4j
+public class AccountLimiter {
+
+    private static final long HOUR_MILLIS = Duration.ofHours(1).toMillis();
+    private static final int DAILY_BUCKETS = 24;
+    private static final Duration DAY = Duration.ofHours(DAILY_BUCKETS);
+    // Potencia de 2: la franja se elige con una máscara
+    private static final int STRIPES = 64;
+    // Cuentas por consulta de reconciliación
+    private static final int RECONCILE_CHUNK = 1000;
+
+    // PENDING también cuenta: en modo asíncrono ya se aceptó y se va a liquidar
+    private static final String RECONCILE = """
+        SELECT source_account_id, date_trunc('hour', created_at) AS hour, SUM(amount) AS amount
+          FROM transfers
+         WHERE source_account_id = ANY(CAST(:ids AS bigint[]))
+           AND created_at >= :since
+           AND status IN ('COMPLETED', 'PENDING')
+         GROUP BY source_account_id, date_trunc('hour', created_at)
+        """;
+
+    private final DatabaseClient databaseClient;
+    private final TransferProperties.Limits config;
+    // Tier (en mayúsculas) → topes ya convertidos a centavos
+    private final Map<String, TierLimits> tiers = new HashMap<>();
+    private final TierLimits defaultTier;
+    private final long rateBucketMillis;
+    private final AsyncCache<Long, AccountWindow> windows;
+    private final Object[] stripes = new Object[STRIPES];
+    private Disposable reconcileTask;
+
+    public AccountLimiter(DatabaseClient databaseClient, TransferProperties properties, MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.config = properties.getLimits();
+        config.getTiers().forEach((name, tier) -> tiers.put(name.toUpperCase(Locale.ROOT),
+            new TierLimits(Money.toCents(tier.getDailyAmount()), tier.getMaxPerWindow())));
+        this.defaultTier = tiers.get(config.getDefaultTier().toUpperCase(Locale.ROOT));
+        if (defaultTier == null) {
+            throw new IllegalStateException("transfers.limits.default-tier no está en transfers.limits.tiers: "
+                + config.getDefaultTier());
+        }
+        this.rateBucketMillis = Math.max(1, config.getRateWindow().toMillis() / config.getRateBuckets());
+        this.windows = Caffeine.newBuilder()
+            .maximumSize(config.getMaxAccounts())
+            // Sin movimientos en 24h la ventana diaria ya está vacía
+            .expireAfterAccess(DAY)
+            .recordStats()
+            .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, windows.synchronous(), "account-limits");
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void startReconciliation() {
+        reconcileTask = Flux.interval(config.getReconcileInterval())
+            .onBackpressureDrop()
+            .concatMap(tick -> reconcile()
+                .onErrorResume(error -> {
+                    log.warn("No se pudieron reconciliar los límites: {}", error.getMessage());
+                    return Mono.empty();
+                }), 1)
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stopReconciliation() {
+        if (reconcileTask != null) {
+            reconcileTask.dispose();
+        }
+    }
+
+    /**
+     * Verificar ambos límites y reservar el monto
+     * Solo la primera vez por cuenta hay una consulta (la carga de su ventana);
+     * después es solo aritmética
+     * @return error LimitExceededException si la transferencia superaría alguno
+     */
+    public Mono<Reservation> acquire(Account source, long amountCents) {
+        // suppressCancel = true: la carga compartida termina aunque este suscriptor cancele
+        return Mono.fromFuture(() -> windows.get(source.getId(), this::load), true)
+            .map(window -> reserve(source, window, amountCents));
+    }
+
+    private Reservation reserve(Account source, AccountWindow window, long amountCents) {
+        TierLimits limits = limitsOf(source);
+        long now = wallClockMillis(LocalDateTime.now());
+        long hour = now / HOUR_MILLIS;
+        long rateBucket = now / rateBucketMillis;
+        synchronized (stripeOf(source.getId())) {
+            long sentToday = window.daily().sum(hour);
+            if (sentToday + amountCents > limits.dailyCents()) {
+                throw new LimitExceededException(source.getId(), LimitExceededException.Limit.DAILY_AMOUNT,
+                                                 sentToday, limits.dailyCents(), DAY);
+            }
+            long recent = window.rate().sum(rateBucket);
+            if (recent + 1 > limits.maxPerWindow()) {
+                throw new LimitExceededException(source.getId(), LimitExceededException.Limit.RATE,
+                                                 recent, limits.maxPerWindow(), config.getRateWindow());
+            }
+            window.daily().add(hour, amountCents);
+            window.rate().add(rateBucket, 1);
+        }
+        return new Reservation(source.getId(), hour, amountCents);
+    }
+
+    /**
+     * Devolver el monto de una transferencia que no se completó
+     * (la velocidad no se devuelve: el intento igual cuenta)
+     */
+    public void release(Reservation reservation) {
+        AccountWindow window = loaded(reservation.accountId());
+        if (window == null) {
+            return;
+        }
+        synchronized (stripeOf(reservation.accountId())) {
+            window.daily().subtract(reservation.hour(), reservation.amountCents());
+        }
+    }
+
+    /**
+     * Recalcular desde transfers los tramos de 24h de las cuentas en memoria
+     *
+     * Los tramos cerrados toman el valor de la tabla (corrige en ambos sentidos);
+     * el tramo actual toma el mayor de los dos: puede tener reservas en curso
+     * que todavía no hicieron COMMIT
+     */
+    Mono<Void> reconcile() {
+        List<Long> ids = List.copyOf(windows.asMap().keySet());
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        long currentHour = wallClockMillis(LocalDateTime.now()) / HOUR_MILLIS;
+        long firstHour = currentHour - DAILY_BUCKETS + 1;
+        return Flux.fromIterable(ids)
+            .buffer(RECONCILE_CHUNK)
+            .concatMap(chunk -> dailyTotals(chunk, firstHour)
+                .collectList()
+                .doOnNext(totals -> apply(chunk, totals, firstHour, currentHour)))
+            .then()
+            .doOnSuccess(v -> log.debug("Límites reconciliados: {} cuentas", ids.size()));
+    }
+
+    /**
+     * Ventana nueva (primera vez que se ve la cuenta) con sus 24h ya enviadas
+     * Nadie más la ve hasta que el CompletableFuture termina: no hace falta el lock
+     */
+    private CompletableFuture<AccountWindow> load(Long accountId, Executor executor) {
+        long firstHour = wallClockMillis(LocalDateTime.now()) / HOUR_MILLIS - DAILY_BUCKETS + 1;
+        return dailyTotals(List.of(accountId), firstHour)
+            .collectList()
+            .map(totals -> {
+                AccountWindow window = new AccountWindow(config.getRateBuckets());
+                for (HourTotal total : totals) {
+                    window.daily().set(total.hour(), total.cents());
+                }
+                return window;
+            })
+            .toFuture();
+    }
+
+    /**
+     * Montos por cuenta y por hora desde firstHour (RECONCILE)
+     */
+    private Flux<HourTotal> dailyTotals(List<Long> ids, long firstHour) {
+        LocalDateTime since = LocalDateTime.ofEpochSecond(firstHour * HOUR_MILLIS / 1000, 0, ZoneOffset.UTC);
+        return databaseClient.sql(RECONCILE)
+            .bind("ids", ids.toArray(new Long[0]))
+            .bind("since", since)
+            .map((row, metadata) -> new HourTotal(
+                row.get("source_account_id", Long.class),
+                wallClockMillis(row.get("hour", LocalDateTime.class)) / HOUR_MILLIS,
+                Money.toCents(row.get("amount", BigDecimal.class))))
+            .all();
+    }
+
+    /**
+     * Ventana ya cargada, o null (no está o su carga sigue en curso / falló)
+     */
+    private AccountWindow loaded(Long accountId) {
+        CompletableFuture<AccountWindow> future = windows.getIfPresent(accountId);
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        return future.join();
+    }
+
+    private void apply(List<Long> chunk, List<HourTotal> totals, long firstHour, long currentHour) {
+        Map<Long, Map<Long, Long>> byAccount = new HashMap<>();
+        for (HourTotal total : totals) {
+            byAccount.computeIfAbsent(total.accountId(), id -> new HashMap<>()).put(total.hour(), total.cents());
+        }
+        for (Long accountId : chunk) {
+            AccountWindow window = loaded(accountId);
+            if (window == null) {
+                continue;
+            }
+            Map<Long, Long> hours = byAccount.getOrDefault(accountId, Map.of());
+            synchronized (stripeOf(accountId)) {
+                for (long hour = firstHour; hour <= currentHour; hour++) {
+                    long stored = hours.getOrDefault(hour, 0L);
+                    long value = hour == currentHour ? Math.max(stored, window.daily().get(hour)) : stored;
+                    window.daily().set(hour, value);
+                }
+            }
+        }
+    }
+
+    private TierLimits limitsOf(Account account) {
+        if (account.getTier() == null) {
+            return defaultTier;
+        }
+        return tiers.getOrDefault(account.getTier().toUpperCase(Locale.ROOT), defaultTier);
+    }
+
+    private Object stripeOf(Long accountId) {
+        // Mezcla de bits: los ids consecutivos no caen en franjas consecutivas
+        long hash = accountId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (hash >>> 58) & (STRIPES - 1)];
+    }
+
+    /**
+     * Hora de pared como milisegundos (sin zona), igual que created_at en la tabla:
+     * así los tramos de memoria coinciden con date_trunc('hour', created_at)
+     */
+    private static long wallClockMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Lo reservado por acquire(); release() lo devuelve a su mismo tramo
+     */
+    public record Reservation(Long accountId, long hour, long amountCents) {
+    }
+
+    private record AccountWindow(SlidingWindow daily, SlidingWindow rate) {
+        AccountWindow(int rateBuckets) {
+            this(new SlidingWindow(DAILY_BUCKETS), new SlidingWindow(rateBuckets));
+        }
+    }
+
+    private record TierLimits(long dailyCents, long maxPerWindow) {
+    }
+
+    private record HourTotal(Long accountId, long hour, long cents) {
+    }
+}
@@ -0,0 +1,75 @@
+/*¿Para qué sirve?
+
+Contador de ventana deslizante por tramos (buckets) sobre dos arrays primitivos
+
+La ventana son los últimos N tramos: cada tramo guarda su número (tiempo / ancho)
+y su acumulado. Un casillero con un número viejo se considera vacío y se
+reutiliza al escribir, así la memoria es fija (N longs x 2) sin importar el tráfico.
+
+NO es thread-safe: AccountLimiter lo protege con su lock de franja (stripe)
+ *
+ */
+
+package com.example.transfers.service.limits;
+
+import java.util.Arrays;
+
+class SlidingWindow {
+
+    private final long[] totals;
+    private final long[] bucketIds;
+
+    SlidingWindow(int buckets) {
+        this.totals = new long[buckets];
+        this.bucketIds = new long[buckets];
+        Arrays.fill(bucketIds, Long.MIN_VALUE);
+    }
+
+    /**
+     * Suma de los tramos (current - N, current]
+     */
+    long sum(long current) {
+        long oldest = current - totals.length;
+        long total = 0;
+        for (int i = 0; i < totals.length; i++) {
+            if (bucketIds[i] > oldest && bucketIds[i] <= current) {
+                total += totals[i];
+            }
+        }
+        return total;
+    }
+
+    long get(long bucket) {
+        int index = indexOf(bucket);
+        return bucketIds[index] == bucket ? totals[index] : 0;
+    }
+
+    void add(long bucket, long delta) {
+        int index = indexOf(bucket);
+        if (bucketIds[index] != bucket) {
+            bucketIds[index] = bucket;
+            totals[index] = 0;
+        }
+        totals[index] += delta;
+    }
+
+    /**
+     * Devolver una reserva; si su tramo ya salió de la ventana no hace nada
+     */
+    void subtract(long bucket, long delta) {
+        int index = indexOf(bucket);
+        if (bucketIds[index] == bucket) {
+            totals[index] = Math.max(0, totals[index] - delta);
+        }
+    }
+
+    void set(long bucket, long value) {
+        int index = indexOf(bucket);
+        bucketIds[index] = bucket;
+        totals[index] = value;
+    }
+
+    private int indexOf(long bucket) {
+        return (int) Math.floorMod(bucket, (long) totals.length);
+    }
+}
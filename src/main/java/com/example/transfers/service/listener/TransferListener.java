@@ -0,0 +1,26 @@
+/*¿Para qué sirve?
+
+Punto de extensión: componentes que reaccionan a cada transferencia completada
+(agregados diarios, notificaciones, etc.) sin tocar TransferServiceImpl.
+
+TransferServiceImpl llama a todos los beans que implementan esta interfaz
+después de que la transferencia se ejecutó con éxito.
+
+REGLAS:
+- Debe ser rápido y NO bloquear (se llama en el hilo de la petición):
+  encolar y procesar en segundo plano
+- Un error aquí nunca hace fallar la transferencia
+ *
+ */
+
+package com.example.transfers.service.listener;
+
+import com.example.transfers.model.Transfer;
+
+public interface TransferListener {
+
+    /**
+     * @param transfer - Transferencia COMPLETED (con IDs de cuentas, monto y fecha)
+     */
+    void onTransferCompleted(Transfer transfer);
+}
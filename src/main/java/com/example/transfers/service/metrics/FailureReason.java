@@ -0,0 +1,66 @@
+/*¿Para qué sirve?
+
+Categoría del motivo de una transferencia fallida (tag reason de transfers.failures)
+
+Los mensajes de error incluyen números de cuenta y saldos: usarlos como tag
+crearía una serie temporal por cliente. Aquí se reducen a un conjunto FIJO
+de valores, así la cardinalidad está acotada por construcción.
+ *
+ */
+
+package com.example.transfers.service.metrics;
+
+import com.example.transfers.exception.TransferException;
+import io.r2dbc.spi.R2dbcException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import java.util.Locale;
+import java.util.concurrent.TimeoutException;
+
+public enum FailureReason {
+    INSUFFICIENT_FUNDS,
+    ACCOUNT_NOT_FOUND,
+    SAME_ACCOUNT,
+    // Límite diario o de velocidad por cuenta
+    LIMIT_EXCEEDED,
+    // Conflicto de concurrencia que sobrevivió a los reintentos (@Version, deadlock)
+    CONFLICT,
+    // Cola llena: motor de saldos / group commit saturado
+    OVERLOADED,
+    TIMEOUT,
+    // Cualquier otro error de la BD o del driver
+    DATABASE,
+    OTHER;
+
+    public static FailureReason of(Throwable error) {
+        // Errores de negocio: el código tipado de la TransferException
+        if (error instanceof TransferException transferException) {
+            return switch (transferException.getErrorCode()) {
+                case INSUFFICIENT_FUNDS -> INSUFFICIENT_FUNDS;
+                case ACCOUNT_NOT_FOUND -> ACCOUNT_NOT_FOUND;
+                case SAME_ACCOUNT -> SAME_ACCOUNT;
+                case LIMIT_EXCEEDED -> LIMIT_EXCEEDED;
+                case OVERLOADED -> OVERLOADED;
+                default -> OTHER;
+            };
+        }
+        if (error instanceof OptimisticLockingFailureException
+                || error instanceof PessimisticLockingFailureException
+                || error instanceof TransientDataAccessException) {
+            return CONFLICT;
+        }
+        if (error instanceof TimeoutException) {
+            return TIMEOUT;
+        }
+        if (error instanceof DataAccessException || error instanceof R2dbcException) {
+            return DATABASE;
+        }
+        return OTHER;
+    }
+
+    String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
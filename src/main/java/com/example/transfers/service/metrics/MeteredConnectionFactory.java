@@ -0,0 +1,94 @@
+/*¿Para qué sirve?
+
+Mide cuánto tarda el pool R2DBC en entregar una conexión
+
+Las métricas de pool de Spring Boot (r2dbc.pool.acquired, .pending, .idle,
+.allocated) dicen CUÁNTAS conexiones hay en uso o en espera, pero no
+CUÁNTO se espera por una. Este envoltorio cronometra cada create():
+
+- transfers.db.connection.acquire  Timer, tag result = success | error
+
+Implementa Wrapped: Spring Boot sigue encontrando el ConnectionPool
+de debajo para registrar sus propias métricas.
+Implementa Disposable y Closeable: el bean de Spring Boot declara
+destroyMethod = "dispose" y, al reemplazarlo, este envoltorio es el que
+recibe la llamada; se la pasa al pool para cerrar sus conexiones.
+ *
+ */
+
+package com.example.transfers.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+public class MeteredConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable, Closeable {
+
+    private final ConnectionFactory delegate;
+    private final Timer acquired;
+    private final Timer failed;
+
+    public MeteredConnectionFactory(ConnectionFactory delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.acquired = acquireTimer(meterRegistry, "success");
+        this.failed = acquireTimer(meterRegistry, "error");
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return Mono.<Connection>from(delegate.create())
+                .doOnSuccess(connection -> sample.stop(acquired))
+                .doOnError(error -> sample.stop(failed));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    // ===== CIERRE: lo que haría el pool si no estuviera envuelto =====
+
+    @Override
+    public void dispose() {
+        if (delegate instanceof Disposable disposable) {
+            disposable.dispose();
+        } else if (delegate instanceof Closeable closeable) {
+            Mono.from(closeable.close()).block();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate instanceof Disposable disposable && disposable.isDisposed();
+    }
+
+    @Override
+    public Publisher<Void> close() {
+        if (delegate instanceof Closeable closeable) {
+            return closeable.close();
+        }
+        return Mono.fromRunnable(this::dispose);
+    }
+
+    private static Timer acquireTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("transfers.db.connection.acquire")
+            .description("Espera hasta obtener una conexión del pool R2DBC")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,128 @@
+/*¿Para qué sirve?
+
+Métricas de latencia por etapa de performTransfer
+
+PROBLEMA que resuelve:
+Cuando sube el p99 de las transferencias no se sabe si es la lectura de
+las cuentas, los dos saves, el INSERT o el registro de la fallida.
+
+MÉTRICAS (GET /actuator/metrics/... y /actuator/prometheus):
+- transfers.requests   Timer, tag outcome = completed | failed | accepted | error
+                       (accepted = PENDING con transfers.async.enabled o SCHEDULED;
+                        error = la petición terminó en excepción)
+- transfers.stage      Timer por etapa (TransferStage), tags stage, result = success | error
+- transfers.failures   Counter por categoría de motivo (FailureReason), tag reason
+Todos llevan tag mode (transfers.mode).
+
+CARDINALIDAD ACOTADA: todos los valores de tag salen de enums;
+nunca números de cuenta, ids ni mensajes de error.
+ *
+ */
+
+package com.example.transfers.service.metrics;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.TransferResponse;
+import com.example.transfers.model.Transfer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+@Component
+public class TransferMetrics {
+
+    private final Timer completed;
+    private final Timer failed;
+    private final Timer accepted;
+    private final Timer errored;
+    private final Map<TransferStage, Timer> stageSuccess = new EnumMap<>(TransferStage.class);
+    private final Map<TransferStage, Timer> stageError = new EnumMap<>(TransferStage.class);
+    private final Map<FailureReason, Counter> failures = new EnumMap<>(FailureReason.class);
+
+    public TransferMetrics(MeterRegistry meterRegistry, TransferProperties properties) {
+        String mode = properties.getMode().name().toLowerCase(Locale.ROOT);
+        this.completed = requestTimer(meterRegistry, mode, "completed");
+        this.failed = requestTimer(meterRegistry, mode, "failed");
+        this.accepted = requestTimer(meterRegistry, mode, "accepted");
+        this.errored = requestTimer(meterRegistry, mode, "error");
+        // Todas las series se registran al arrancar: aparecen en 0 aunque no haya tráfico
+        for (TransferStage stage : TransferStage.values()) {
+            stageSuccess.put(stage, stageTimer(meterRegistry, mode, stage, "success"));
+            stageError.put(stage, stageTimer(meterRegistry, mode, stage, "error"));
+        }
+        for (FailureReason reason : FailureReason.values()) {
+            failures.put(reason, Counter.builder("transfers.failures")
+                .description("Transferencias fallidas por categoría de motivo")
+                .tag("mode", mode)
+                .tag("reason", reason.tag())
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Medir una transferencia completa (desde la suscripción hasta la respuesta)
+     */
+    public Mono<TransferResponse> timeRequest(Mono<TransferResponse> request) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return request
+                .doOnSuccess(response -> sample.stop(outcome(response)))
+                .doOnError(error -> sample.stop(errored));
+        });
+    }
+
+    /**
+     * Medir una etapa; si el Mono se cancela no se registra nada
+     */
+    public <T> Mono<T> stage(TransferStage stage, Mono<T> mono) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return mono
+                .doOnSuccess(value -> sample.stop(stageSuccess.get(stage)))
+                .doOnError(error -> sample.stop(stageError.get(stage)));
+        });
+    }
+
+    /**
+     * Anotar el motivo de una transferencia fallida
+     * @return La categoría asignada
+     */
+    public FailureReason recordFailure(Throwable error) {
+        FailureReason reason = FailureReason.of(error);
+        failures.get(reason).increment();
+        return reason;
+    }
+
+    private Timer outcome(TransferResponse response) {
+        if (response == null) {
+            return completed;
+        }
+        if (Transfer.Status.FAILED.equals(response.getStatus())) {
+            return failed;
+        }
+        return Transfer.Status.PENDING.equals(response.getStatus())
+            || Transfer.Status.SCHEDULED.equals(response.getStatus()) ? accepted : completed;
+    }
+
+    private static Timer requestTimer(MeterRegistry meterRegistry, String mode, String outcome) {
+        return Timer.builder("transfers.requests")
+            .description("Duración de performTransfer por resultado")
+            .tag("mode", mode)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String mode, TransferStage stage, String result) {
+        return Timer.builder("transfers.stage")
+            .description("Duración de cada etapa de performTransfer")
+            .tag("mode", mode)
+            .tag("stage", stage.tag())
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.transfers.service.metrics;
+
+import java.util.Locale;
+
+/**
+ * Etapas de performTransfer medidas por separado (tag stage de transfers.stage)
+ */
+public enum TransferStage {
+    // Ejecutor completo (todas las etapas del modo activo)
+    EXECUTE,
+    // Lectura / bloqueo de las dos cuentas
+    ACCOUNT_LOOKUP,
+    // Escritura de los dos saldos (save, addToBalance)
+    BALANCE_UPDATE,
+    // INSERT de la transferencia COMPLETED
+    TRANSFER_INSERT,
+    // INSERT por lotes de las FAILED (FailedTransferRecorder, fuera de la petición)
+    FAILURE_RECORD;
+
+    String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
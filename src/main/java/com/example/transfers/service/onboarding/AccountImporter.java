@@ -0,0 +1,251 @@
+/*¿Para qué sirve?
+
+Alta masiva de cuentas (cientos de miles) con COPY FROM STDIN
+
+PROBLEMA que resuelve:
+Un save() por cuenta = un round trip y un INSERT por fila.
+
+CÓMO FUNCIONA (una sola conexión, una transacción):
+1. El archivo llega en streaming (CSV o NDJSON) y se valida fila a fila:
+   - account_number obligatorio (máx. 20) y sin repetir dentro del archivo
+   - owner_name obligatorio (máx. 100)
+   - balance >= 0 con como mucho 2 decimales
+   Las filas inválidas se anotan como rechazadas y el resto sigue
+2. Las filas válidas se envían con COPY a una tabla temporal (import_staging):
+   el driver transmite los bytes según llegan, sin sentencias por fila
+3. INSERT ... SELECT FROM import_staging ON CONFLICT (account_number) DO NOTHING
+   → las que ya existían en accounts se reportan como rechazadas
+4. COMMIT (la tabla temporal se elimina sola: ON COMMIT DROP)
+
+Un rechazo nunca aborta el lote; un error técnico (p. ej. conexión caída)
+revierte toda la importación.
+ *
+ */
+
+package com.example.transfers.service.onboarding;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.AccountImportResult;
+import com.example.transfers.dto.AccountImportRow;
+import com.example.transfers.service.support.Csv;
+import com.example.transfers.service.support.PostgresConnections;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@Slf4j
+public class AccountImporter {
+
+    private static final String CREATE_STAGING = """
+        CREATE TEMP TABLE import_staging (
+            line_no BIGINT NOT NULL,
+            account_number VARCHAR(20) NOT NULL,
+            owner_name VARCHAR(100) NOT NULL,
+            balance NUMERIC(15, 2) NOT NULL
+        ) ON COMMIT DROP
+        """;
+
+    private static final String COPY_STAGING =
+        "COPY import_staging (line_no, account_number, owner_name, balance) FROM STDIN WITH (FORMAT csv)";
+
+    // Inserta las nuevas y devuelve las que ya existían (rechazadas)
+    private static final String MERGE_STAGING = """
+        WITH inserted AS (
+            INSERT INTO accounts (account_number, owner_name, balance_cents)
+            SELECT account_number, owner_name, CAST(balance * 100 AS BIGINT) FROM import_staging ORDER BY line_no
+            ON CONFLICT (account_number) DO NOTHING
+            RETURNING account_number
+        )
+        SELECT s.line_no, s.account_number
+          FROM import_staging s
+         WHERE NOT EXISTS (SELECT 1 FROM inserted i WHERE i.account_number = s.account_number)
+         ORDER BY s.line_no
+        """;
+
+    private static final BigDecimal MAX_BALANCE = new BigDecimal("9999999999999.99");
+
+    private final ConnectionFactory connectionFactory;
+    private final TransferProperties.AccountImport config;
+
+    public AccountImporter(ConnectionFactory connectionFactory, TransferProperties properties) {
+        this.connectionFactory = connectionFactory;
+        this.config = properties.getAccountImport();
+    }
+
+    /**
+     * Importar desde CSV (account_number,owner_name,balance; cabecera opcional)
+     */
+    public Mono<AccountImportResult> importCsv(Flux<String> lines) {
+        return load(lines.index()
+            .filter(line -> !line.getT2().isBlank())
+            .filter(line -> !isHeader(line.getT1(), line.getT2()))
+            .map(line -> parseCsv(line.getT1() + 1, line.getT2())));
+    }
+
+    /**
+     * Importar desde NDJSON (un AccountImportRow por línea)
+     */
+    public Mono<AccountImportResult> importRows(Flux<AccountImportRow> rows) {
+        return load(rows.index().map(row -> new Candidate(row.getT1() + 1, row.getT2(), null)));
+    }
+
+    private Mono<AccountImportResult> load(Flux<Candidate> candidates) {
+        ImportState state = new ImportState(config.getMaxReportedRejections());
+        Flux<ByteBuf> copyData = candidates
+            .filter(state::accept)
+            .map(candidate -> Csv.line(
+                Long.toString(candidate.line()),
+                candidate.row().getAccountNumber(),
+                candidate.row().getOwnerName(),
+                candidate.row().getBalance().toPlainString()))
+            // Varias filas por mensaje CopyData
+            .buffer(config.getRowsPerChunk())
+            .map(AccountImporter::toByteBuf);
+
+        return Mono.usingWhen(
+            connectionFactory.create(),
+            connection -> copy(PostgresConnections.unwrap(connection), copyData, state),
+            Connection::close);
+    }
+
+    private Mono<AccountImportResult> copy(PostgresqlConnection connection, Flux<ByteBuf> copyData,
+                                           ImportState state) {
+        return connection.beginTransaction()
+            .then(connection.createStatement(CREATE_STAGING).execute()
+                .flatMap(PostgresqlResult::getRowsUpdated)
+                .then())
+            .then(connection.copyIn(COPY_STAGING, copyData))
+            .flatMap(staged -> connection.createStatement(MERGE_STAGING).execute()
+                .flatMap(result -> result.map((row, metadata) -> new AccountImportResult.Rejection(
+                    row.get("line_no", Long.class),
+                    row.get("account_number", String.class),
+                    "account_number ya existe")))
+                .doOnNext(state::reject)
+                .count()
+                .map(existing -> staged - existing))
+            .flatMap(imported -> connection.commitTransaction()
+                .then(Mono.fromSupplier(() -> state.result(imported))))
+            .doOnSuccess(result -> log.info("Importación de cuentas: {} recibidas, {} importadas, {} rechazadas",
+                                            result.getReceived(), result.getImported(), result.getRejected()))
+            .onErrorResume(error -> {
+                log.error("Importación de cuentas revertida: {}", error.getMessage());
+                return connection.rollbackTransaction().then(Mono.error(error));
+            });
+    }
+
+    private static boolean isHeader(long index, String line) {
+        return index == 0 && line.replace("\"", "").trim().toLowerCase().startsWith("account");
+    }
+
+    private static Candidate parseCsv(long lineNumber, String line) {
+        try {
+            List<String> fields = Csv.parseLine(line);
+            if (fields.size() != 3) {
+                return new Candidate(lineNumber, null, "Se esperaban 3 columnas: account_number,owner_name,balance");
+            }
+            String balance = fields.get(2).trim();
+            return new Candidate(lineNumber,
+                new AccountImportRow(fields.get(0).trim(), fields.get(1).trim(),
+                                     balance.isEmpty() ? null : new BigDecimal(balance)),
+                null);
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException también es IllegalArgumentException
+            return new Candidate(lineNumber, null, "Fila inválida: " + e.getMessage());
+        }
+    }
+
+    private static ByteBuf toByteBuf(List<String> chunk) {
+        StringBuilder text = new StringBuilder(chunk.size() * 64);
+        chunk.forEach(text::append);
+        return Unpooled.wrappedBuffer(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Fila leída del archivo; error != null → ya se sabe que es inválida
+     */
+    private record Candidate(long line, AccountImportRow row, String error) {
+    }
+
+    /**
+     * Estado de UNA importación (validación en streaming + contadores)
+     * El stream de entrada es secuencial: accept() nunca se llama en paralelo
+     */
+    private static final class ImportState {
+
+        private final int maxReported;
+        private final Set<String> seen = new HashSet<>();
+        private final List<AccountImportResult.Rejection> rejections = new ArrayList<>();
+        private final AtomicLong received = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+
+        ImportState(int maxReported) {
+            this.maxReported = maxReported;
+        }
+
+        boolean accept(Candidate candidate) {
+            received.incrementAndGet();
+            AccountImportRow row = candidate.row();
+            String reason = candidate.error() != null ? candidate.error() : validate(row);
+            if (reason == null && !seen.add(row.getAccountNumber())) {
+                reason = "account_number repetido en el archivo";
+            }
+            if (reason != null) {
+                reject(new AccountImportResult.Rejection(candidate.line(),
+                    row != null ? row.getAccountNumber() : null, reason));
+                return false;
+            }
+            return true;
+        }
+
+        synchronized void reject(AccountImportResult.Rejection rejection) {
+            rejected.incrementAndGet();
+            if (rejections.size() < maxReported) {
+                rejections.add(rejection);
+            }
+        }
+
+        synchronized AccountImportResult result(long imported) {
+            return new AccountImportResult(received.get(), imported, rejected.get(), List.copyOf(rejections));
+        }
+
+        private static String validate(AccountImportRow row) {
+            if (row.getAccountNumber() == null || row.getAccountNumber().isBlank()) {
+                return "account_number es obligatorio";
+            }
+            if (row.getAccountNumber().length() > 20) {
+                return "account_number admite como máximo 20 caracteres";
+            }
+            if (row.getOwnerName() == null || row.getOwnerName().isBlank()) {
+                return "owner_name es obligatorio";
+            }
+            if (row.getOwnerName().length() > 100) {
+                return "owner_name admite como máximo 100 caracteres";
+            }
+            if (row.getBalance() == null) {
+                return "balance es obligatorio";
+            }
+            if (row.getBalance().signum() < 0) {
+                return "balance no puede ser negativo";
+            }
+            if (row.getBalance().stripTrailingZeros().scale() > 2 || row.getBalance().compareTo(MAX_BALANCE) > 0) {
+                return "balance fuera de rango (máx. 13 enteros y 2 decimales)";
+            }
+            return null;
+        }
+    }
+}
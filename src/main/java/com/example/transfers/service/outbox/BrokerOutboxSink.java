@@ -0,0 +1,47 @@
+/*¿Para qué sirve?
+
+OutboxSink de un broker de mensajes (STUB)
+
+Simula el envío de cada lote a un topic con una latencia fija y lo deja
+en el log. Sirve para probar el relay (throughput, retraso, reintentos)
+antes de tener el broker real: al integrarlo (Kafka, RabbitMQ...), este
+es el único archivo a reemplazar; la clave de partición natural es el
+número de cuenta origen.
+ *
+ */
+
+package com.example.transfers.service.outbox;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.TransferEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "transfers.outbox.broker.enabled", havingValue = "true")
+@Slf4j
+public class BrokerOutboxSink implements OutboxSink {
+
+    private final TransferProperties.Outbox.BrokerSink config;
+
+    public BrokerOutboxSink(TransferProperties properties) {
+        this.config = properties.getOutbox().getBroker();
+    }
+
+    @Override
+    public String name() {
+        return "broker";
+    }
+
+    @Override
+    public Mono<Void> publish(List<TransferEvent> events) {
+        return Mono.delay(config.getLatency())
+            .doOnNext(tick -> log.debug("[stub] {} eventos enviados a {} (último eventId {})",
+                                        events.size(), config.getTopic(),
+                                        events.get(events.size() - 1).getEventId()))
+            .then();
+    }
+}
@@ -0,0 +1,59 @@
+/*¿Para qué sirve?
+
+OutboxSink que agrega los eventos a un archivo NDJSON local (una línea por evento)
+
+Útil en desarrollo o para que otro proceso haga "tail" del archivo.
+La escritura es bloqueante: se hace en boundedElastic, nunca en el event loop.
+ *
+ */
+
+package com.example.transfers.service.outbox;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.TransferEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "transfers.outbox.file.enabled", havingValue = "true")
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileOutboxSink(ObjectMapper objectMapper, TransferProperties properties) {
+        this.objectMapper = objectMapper;
+        this.path = Path.of(properties.getOutbox().getFile().getPath());
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public Mono<Void> publish(List<TransferEvent> events) {
+        return Mono.fromCallable(() -> {
+                StringBuilder lines = new StringBuilder(events.size() * 256);
+                for (TransferEvent event : events) {
+                    lines.append(objectMapper.writeValueAsString(event)).append('\n');
+                }
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                // Un solo write por lote
+                return Files.writeString(path, lines, StandardCharsets.UTF_8,
+                                         StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .then();
+    }
+}
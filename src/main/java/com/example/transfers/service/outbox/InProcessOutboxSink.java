@@ -0,0 +1,66 @@
+/*¿Para qué sirve?
+
+OutboxSink en memoria: los componentes de la misma JVM se suscriben a events()
+
+Multicast "best effort": publicar nunca espera a los suscriptores. Cada
+suscriptor tiene su propio buffer acotado; si se atrasa, se descartan
+sus eventos más viejos (los demás no se enteran).
+Sin suscriptores publish() FALLA: el lote se revierte y los eventos quedan
+en transfer_outbox hasta que alguien se suscriba (no se pierden en el vacío).
+Desactivado por defecto (transfers.outbox.in-process.enabled).
+ *
+ */
+
+package com.example.transfers.service.outbox;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.TransferEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "transfers.outbox.in-process.enabled", havingValue = "true")
+@Slf4j
+public class InProcessOutboxSink implements OutboxSink {
+
+    private final Sinks.Many<TransferEvent> sink = Sinks.many().multicast().directBestEffort();
+    private final int bufferSize;
+
+    public InProcessOutboxSink(TransferProperties properties) {
+        this.bufferSize = properties.getOutbox().getInProcess().getBufferSize();
+    }
+
+    @Override
+    public String name() {
+        return "in-process";
+    }
+
+    @Override
+    public Mono<Void> publish(List<TransferEvent> events) {
+        if (sink.currentSubscriberCount() == 0) {
+            return Mono.error(new IllegalStateException("Sink in-process sin suscriptores"));
+        }
+        return Mono.fromRunnable(() -> {
+            // Un único relay por réplica: las emisiones ya están serializadas
+            for (TransferEvent event : events) {
+                sink.tryEmitNext(event);
+            }
+        });
+    }
+
+    /**
+     * Eventos desde el momento de la suscripción (sin historia)
+     */
+    public Flux<TransferEvent> events() {
+        return sink.asFlux()
+            .onBackpressureBuffer(bufferSize,
+                                  dropped -> log.debug("Evento {} descartado: suscriptor lento", dropped.getEventId()),
+                                  BufferOverflowStrategy.DROP_OLDEST);
+    }
+}
@@ -0,0 +1,193 @@
+/*¿Para qué sirve?
+
+Drena transfer_outbox por lotes y publica los eventos en los OutboxSink activos
+
+PROBLEMA que resuelve:
+Los sistemas externos (notificaciones, contabilidad, fraude) solo podían
+enterarse de una transferencia haciendo polling de GET /api/transfers.
+
+FLUJO (una transacción por lote):
+1. Reclamar hasta batchSize eventos con FOR UPDATE SKIP LOCKED y borrarlos
+   en la misma sentencia (DELETE ... RETURNING)
+2. Publicarlos en todos los sinks
+3. COMMIT; si algún sink falla, ROLLBACK: los eventos vuelven a la tabla
+   y se reintentan en la próxima ronda (entrega "al menos una vez")
+Mientras el lote sale lleno se sigue drenando sin esperar; con el outbox
+vacío se espera pollInterval.
+
+VARIAS RÉPLICAS: SKIP LOCKED hace que cada una tome filas distintas, sin
+duplicados ni esperas. El orden por eventId se respeta dentro de cada lote,
+no entre réplicas.
+
+MÉTRICAS:
+- transfers.outbox.published  Counter de eventos publicados
+- transfers.outbox.batch      Timer por lote (reclamar + publicar + COMMIT)
+- transfers.outbox.lag        Timer: antigüedad del evento al publicarse
+- transfers.outbox.errors     Counter de lotes revertidos
+ *
+ */
+
+package com.example.transfers.service.outbox;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.TransferEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Row;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "transfers.outbox.enabled", havingValue = "true")
+@DependsOn("initializer") // transfer_outbox debe existir antes de la primera ronda
+@Slf4j
+public class OutboxRelay {
+
+    private static final String CLAIM_BATCH = """
+        WITH batch AS (
+            SELECT id FROM transfer_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED
+        ), claimed AS (
+            DELETE FROM transfer_outbox o USING batch
+             WHERE o.id = batch.id
+            RETURNING o.id, o.event_type, o.transfer_id, o.source_account_id, o.destination_account_id,
+                      o.amount, o.transfer_created_at, o.created_at
+        )
+        SELECT c.id, c.event_type, c.transfer_id,
+               s.account_number AS source_account_number, d.account_number AS destination_account_number,
+               c.amount, c.transfer_created_at, c.created_at
+          FROM claimed c
+          LEFT JOIN accounts s ON s.id = c.source_account_id
+          LEFT JOIN accounts d ON d.id = c.destination_account_id
+         ORDER BY c.id
+        """;
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final List<OutboxSink> sinks;
+    private final TransferProperties.Outbox config;
+    private final Counter published;
+    private final Counter errors;
+    private final Timer batchTimer;
+    private final Timer lag;
+    private Disposable relayTask;
+
+    public OutboxRelay(DatabaseClient databaseClient, TransactionalOperator transactionalOperator,
+                       List<OutboxSink> sinks, TransferProperties properties, MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.sinks = sinks;
+        this.config = properties.getOutbox();
+        this.published = Counter.builder("transfers.outbox.published")
+            .description("Eventos de transferencias publicados")
+            .register(meterRegistry);
+        this.errors = Counter.builder("transfers.outbox.errors")
+            .description("Lotes del outbox revertidos (se reintentan)")
+            .register(meterRegistry);
+        this.batchTimer = Timer.builder("transfers.outbox.batch")
+            .description("Duración de un lote: reclamar, publicar y COMMIT")
+            .register(meterRegistry);
+        this.lag = Timer.builder("transfers.outbox.lag")
+            .description("Tiempo desde que se escribió el evento hasta que se publicó")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (sinks.isEmpty()) {
+            // Sin destinos el trigger seguiría llenando transfer_outbox y nadie lo drenaría
+            throw new IllegalStateException("transfers.outbox.enabled sin ningún sink activo "
+                + "(transfers.outbox.file / in-process / broker)");
+        }
+        log.info("Outbox relay publicando en: {}", sinks.stream().map(OutboxSink::name).toList());
+        relayTask = Flux.interval(config.getPollInterval())
+            // Si una ronda tarda más que pollInterval, los ticks intermedios sobran
+            .onBackpressureDrop()
+            .concatMap(tick -> drain(), 1)
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (relayTask != null) {
+            relayTask.dispose();
+        }
+    }
+
+    /**
+     * Publicar lotes mientras salgan llenos
+     */
+    private Mono<Void> drain() {
+        return relayBatch()
+            .expand(count -> count == config.getBatchSize() ? relayBatch() : Mono.empty())
+            .onErrorResume(error -> {
+                errors.increment();
+                log.warn("Lote del outbox revertido, se reintentará: {}", error.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    /**
+     * Un lote en una transacción
+     * @return Eventos publicados
+     */
+    private Mono<Integer> relayBatch() {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return databaseClient.sql(CLAIM_BATCH)
+                .bind("limit", config.getBatchSize())
+                .map((row, metadata) -> toEvent(row))
+                .all()
+                .collectList()
+                .flatMap(events -> events.isEmpty()
+                    ? Mono.just(0)
+                    : publish(events).thenReturn(events.size()))
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(count -> {
+                    if (count != null && count > 0) {
+                        sample.stop(batchTimer);
+                        published.increment(count);
+                    }
+                });
+        });
+    }
+
+    private Mono<Void> publish(List<TransferEvent> events) {
+        return Flux.fromIterable(sinks)
+            .flatMap(sink -> sink.publish(events))
+            .then(Mono.fromRunnable(() -> {
+                LocalDateTime now = LocalDateTime.now();
+                for (TransferEvent event : events) {
+                    Duration age = Duration.between(event.getOccurredAt(), now);
+                    lag.record(age.isNegative() ? Duration.ZERO : age);
+                }
+            }));
+    }
+
+    private static TransferEvent toEvent(Row row) {
+        return new TransferEvent(
+            row.get("id", Long.class),
+            row.get("event_type", String.class),
+            row.get("transfer_id", Long.class),
+            row.get("source_account_number", String.class),
+            row.get("destination_account_number", String.class),
+            row.get("amount", BigDecimal.class),
+            row.get("transfer_created_at", LocalDateTime.class),
+            row.get("created_at", LocalDateTime.class)
+        );
+    }
+}
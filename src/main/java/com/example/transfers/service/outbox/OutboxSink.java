@@ -0,0 +1,27 @@
+/*¿Para qué sirve?
+
+Punto de extensión: destinos a los que OutboxRelay publica los eventos
+(archivo local, suscriptores en memoria, broker...)
+
+REGLAS:
+- publish() recibe un lote ordenado por eventId y termina cuando el destino
+  lo aceptó; si falla, el lote completo se reintenta (en TODOS los destinos)
+- Por eso la entrega es "al menos una vez": los consumidores deduplican por eventId
+ *
+ */
+
+package com.example.transfers.service.outbox;
+
+import com.example.transfers.dto.TransferEvent;
+import reactor.core.publisher.Mono;
+import java.util.List;
+
+public interface OutboxSink {
+
+    /**
+     * Nombre para logs y métricas (tag sink)
+     */
+    String name();
+
+    Mono<Void> publish(List<TransferEvent> events);
+}
@@ -0,0 +1,148 @@
+/*¿Para qué sirve?
+
+Rueda de tiempos jerárquica: "avisame de X cuando llegue su hora"
+con alta y vencimiento en O(1), sin ordenar nada
+
+CÓMO FUNCIONA:
+- El tiempo se mide en ticks (p. ej. 100 ms)
+- Nivel 0: wheelSize casilleros de 1 tick
+  Nivel 1: wheelSize casilleros de wheelSize ticks, y así sucesivamente
+- Cada entrada va al nivel más fino que cubre su espera
+- En cada tick se vacía el casillero actual del nivel 0 (entradas vencidas);
+  cuando un nivel superior cambia de casillero, sus entradas bajan de nivel
+  (cascada) y terminan en el nivel 0 justo a su hora
+
+Comparado con una cola de prioridad (O(log n) por alta), decenas de miles
+de programadas para "el 1 a las 00:00" cuestan lo mismo que una.
+
+Una entrada nunca vence antes de su deadline; puede vencer hasta un tick después.
+NO es thread-safe: solo la toca el hilo del TransferScheduler
+ *
+ */
+
+package com.example.transfers.service.schedule;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    // units[l] = ticks que cubre un casillero del nivel l (wheelSize^l)
+    private final long[] units;
+    // buckets[l][i] = entradas del casillero i del nivel l (se crean al usarse)
+    private final ArrayDeque<Entry<T>>[][] buckets;
+    // Tick actual (milisegundos / tickMillis)
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Rueda inválida: tick " + tickMillis
+                + "ms, " + wheelSize + " casilleros, " + levels + " niveles");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.units = new long[levels];
+        this.buckets = new ArrayDeque[levels][];
+        long unit = 1;
+        for (int level = 0; level < levels; level++) {
+            units[level] = unit;
+            buckets[level] = new ArrayDeque[wheelSize];
+            unit = Math.multiplyExact(unit, wheelSize);
+        }
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Agregar una entrada
+     * @return false si ya venció (no se agrega: el llamador la ejecuta ahora)
+     */
+    boolean schedule(long deadlineMillis, T item) {
+        // Tick de vencimiento redondeado hacia arriba: nunca antes del deadline
+        long expiryTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        if (!place(new Entry<>(expiryTick, item))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Avanzar el reloj hasta nowMillis entregando las entradas vencidas, en orden de tick
+     */
+    void advance(long nowMillis, Consumer<T> expired) {
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < target) {
+            currentTick++;
+            // Cascada: de arriba hacia abajo, las entradas del casillero que empieza ahora bajan de nivel
+            for (int level = units.length - 1; level > 0; level--) {
+                if (currentTick % units[level] == 0) {
+                    ArrayDeque<Entry<T>> bucket = take(level, currentTick / units[level]);
+                    if (bucket != null) {
+                        for (Entry<T> entry : bucket) {
+                            if (!place(entry)) {
+                                size--;
+                                expired.accept(entry.item());
+                            }
+                        }
+                    }
+                }
+            }
+            ArrayDeque<Entry<T>> due = take(0, currentTick);
+            if (due != null) {
+                size -= due.size();
+                for (Entry<T> entry : due) {
+                    expired.accept(entry.item());
+                }
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Ubicar una entrada en el nivel más fino que cubre su espera
+     * @return false si ya venció
+     */
+    private boolean place(Entry<T> entry) {
+        long delay = entry.expiryTick() - currentTick;
+        if (delay <= 0) {
+            return false;
+        }
+        int top = units.length - 1;
+        for (int level = 0; level <= top; level++) {
+            if (delay < units[level] * wheelSize) {
+                add(level, entry.expiryTick() / units[level], entry);
+                return true;
+            }
+        }
+        // Más allá del último nivel: al casillero más lejano; se reubica cuando le toque
+        add(top, currentTick / units[top] + wheelSize - 1, entry);
+        return true;
+    }
+
+    private void add(int level, long slot, Entry<T> entry) {
+        int index = (int) Math.floorMod(slot, (long) wheelSize);
+        ArrayDeque<Entry<T>> bucket = buckets[level][index];
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            buckets[level][index] = bucket;
+        }
+        bucket.add(entry);
+    }
+
+    private ArrayDeque<Entry<T>> take(int level, long slot) {
+        int index = (int) Math.floorMod(slot, (long) wheelSize);
+        ArrayDeque<Entry<T>> bucket = buckets[level][index];
+        buckets[level][index] = null;
+        return bucket;
+    }
+
+    private record Entry<T>(long expiryTick, T item) {
+    }
+}
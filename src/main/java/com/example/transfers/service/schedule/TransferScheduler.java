@@ -0,0 +1,345 @@
+/*¿Para qué sirve?
+
+Ejecuta las transferencias programadas (POST /api/transfers con scheduledAt)
+cuando llega su hora
+
+PROBLEMA que resuelve:
+A principio de mes vencen decenas de miles de programadas por minuto.
+Un "SELECT ... WHERE scheduled_at <= now()" en cada tick recorrería la tabla
+una y otra vez; una cola de prioridad en memoria las ordenaría de a una.
+
+CÓMO FUNCIONA:
+1. Carga por tramos: cada slice se leen de la tabla SOLO las que vencen en
+   el tramo siguiente (rango de idx_transfer_scheduled, índice parcial que
+   solo contiene programadas); en memoria vive lo de los próximos 2 tramos
+2. Las cargadas van a una rueda de tiempos jerárquica (TimingWheel)
+   que avanza cada tick en un único hilo (transfer-scheduler)
+3. Las vencidas se despachan por TransferService.performTransfer con
+   concurrencia acotada (flatMap con concurrency), como cualquier otra
+4. Las programadas para dentro del tramo ya cargado entran directo a la rueda
+   (scheduled()), sin esperar a la próxima carga
+
+DESPACHO de cada una:
+1. UPDATE condicional SCHEDULED → DISPATCHING (si la cancelaron, no se ejecuta)
+2. performScheduled con Idempotency-Key "scheduled-{id}"
+3. La fila programada NO se borra (su id es el que recibió el cliente con el 202):
+   - COMPLETED / PENDING → EXECUTED con executed_transfer_id = la transferencia real
+   - FAILED → la propia programada pasa a FAILED con el motivo (sin fila extra)
+
+REINICIOS: la primera carga también toma las vencidas y las DISPATCHING que
+quedaron a medias; la Idempotency-Key evita ejecutarlas dos veces.
+Si la réplica cayó entre reservar la clave y guardar la respuesta, la clave
+queda "en curso" para siempre y no se sabe si el dinero se movió: la programada
+pasa a UNKNOWN (log de error + transfers.scheduled.unknown) para revisarla a
+mano, nunca se vuelve a ejecutar sola. Si en realidad otra réplica la estaba
+ejecutando, su resultado reemplaza el UNKNOWN al terminar.
+
+MÉTRICAS:
+- transfers.scheduled.pending     Gauge de programadas en la rueda
+- transfers.scheduled.dispatched  Counter de programadas ejecutadas
+- transfers.scheduled.unknown     Counter de programadas con resultado desconocido
+- transfers.scheduled.delay       Timer: retraso respecto de scheduledAt
+ *
+ */
+
+package com.example.transfers.service.schedule;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.dto.TransferResponse;
+import com.example.transfers.exception.ErrorCode;
+import com.example.transfers.exception.TransferException;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.service.TransferService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Row;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@ConditionalOnProperty(name = "transfers.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+@DependsOn("initializer") // transfers debe existir antes de la primera carga
+@Slf4j
+public class TransferScheduler {
+
+    private static final String SELECT_COLUMNS = """
+        SELECT t.id, s.account_number AS source_account_number, d.account_number AS destination_account_number,
+               t.amount, t.description, t.status, t.scheduled_at
+          FROM transfers t
+          JOIN accounts s ON s.id = t.source_account_id
+          JOIN accounts d ON d.id = t.destination_account_id
+        """;
+
+    // Arranque: todo lo que vence antes del horizonte, incluidas las vencidas y las que quedaron a medias
+    private static final String LOAD_PENDING = SELECT_COLUMNS + """
+         WHERE t.status IN ('SCHEDULED', 'DISPATCHING') AND t.scheduled_at < :to
+        """;
+
+    // Cada tramo: solo el rango [from, to) del índice parcial
+    private static final String LOAD_SLICE = SELECT_COLUMNS + """
+         WHERE t.status = 'SCHEDULED' AND t.scheduled_at >= :from AND t.scheduled_at < :to
+        """;
+
+    private static final String CLAIM = """
+        UPDATE transfers SET status = 'DISPATCHING' WHERE id = :id AND status = 'SCHEDULED'
+        """;
+
+    private static final String CLAIM_RESUMED = """
+        UPDATE transfers SET status = 'DISPATCHING' WHERE id = :id AND status IN ('SCHEDULED', 'DISPATCHING')
+        """;
+
+    // UNKNOWN también: si otra réplica sí la estaba ejecutando, su resultado manda
+    private static final String SETTLE_EXECUTED = """
+        UPDATE transfers SET status = 'EXECUTED', executed_transfer_id = :transferId
+         WHERE id = :id AND status IN ('DISPATCHING', 'UNKNOWN')
+        """;
+
+    private static final String SETTLE_FAILED = """
+        UPDATE transfers
+           SET status = 'FAILED',
+               description = LEFT(COALESCE(description || ' - ', '') || 'FAILED: ' || :reason, 255)
+         WHERE id = :id AND status IN ('DISPATCHING', 'UNKNOWN')
+        """;
+
+    private static final String MARK_UNKNOWN = """
+        UPDATE transfers SET status = 'UNKNOWN' WHERE id = :id AND status = 'DISPATCHING'
+        """;
+
+    private final DatabaseClient databaseClient;
+    // Lazy: TransferServiceImpl también depende del scheduler
+    private final ObjectProvider<TransferService> transferService;
+    private final TransferProperties.Scheduling config;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // ===== ESTADO DEL HILO transfer-scheduler (nadie más lo toca) =====
+    private final Scheduler wheelThread = Schedulers.newSingle("transfer-scheduler");
+    private final TimingWheel<ScheduledTransfer> wheel;
+    // Ids en la rueda: una programada cargada por la tabla y por scheduled() entra una sola vez
+    private final Set<Long> inWheel = new HashSet<>();
+    // Todo lo que vence antes de este instante ya se pidió a la tabla
+    private LocalDateTime loadedUntil;
+
+    // Vencidas → despacho; solo emite el hilo transfer-scheduler
+    private final Sinks.Many<ScheduledTransfer> due = Sinks.many().unicast().onBackpressureBuffer();
+    private final Disposable.Composite tasks = Disposables.composite();
+
+    // ===== MÉTRICAS =====
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Counter dispatched;
+    private final Counter unknown;
+    private final Timer delay;
+
+    public TransferScheduler(DatabaseClient databaseClient, ObjectProvider<TransferService> transferService,
+                             TransferProperties properties, MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.transferService = transferService;
+        this.config = properties.getScheduling();
+        this.wheel = new TimingWheel<>(config.getTick().toMillis(), config.getWheelSize(), config.getLevels(),
+                                       System.currentTimeMillis());
+        Gauge.builder("transfers.scheduled.pending", pending, AtomicInteger::get)
+            .description("Programadas cargadas en la rueda, esperando su hora")
+            .register(meterRegistry);
+        this.dispatched = Counter.builder("transfers.scheduled.dispatched")
+            .description("Programadas ejecutadas")
+            .register(meterRegistry);
+        this.unknown = Counter.builder("transfers.scheduled.unknown")
+            .description("Programadas con resultado desconocido (requieren revisión)")
+            .register(meterRegistry);
+        this.delay = Timer.builder("transfers.scheduled.delay")
+            .description("Retraso de ejecución respecto de scheduledAt")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        tasks.add(due.asFlux()
+            .flatMap(this::dispatch, config.getConcurrency())
+            .subscribe());
+        // El reloj de la rueda corre en el mismo hilo que la modifica
+        tasks.add(Flux.interval(config.getTick(), wheelThread)
+            .subscribe(tick -> wheel.advance(System.currentTimeMillis(), this::expire)));
+        // Primera carga (con vencidas y DISPATCHING) y luego un tramo por slice
+        tasks.add(Flux.interval(Duration.ZERO, config.getSlice(), wheelThread)
+            .onBackpressureDrop()
+            .concatMap(tick -> loadNextSlice(), 1)
+            .subscribe());
+    }
+
+    @PreDestroy
+    public void stop() {
+        tasks.dispose();
+        wheelThread.dispose();
+    }
+
+    /**
+     * Avisar de una programada recién guardada (después del COMMIT)
+     * Si su hora cae en un tramo ya cargado, entra directo a la rueda
+     */
+    public void scheduled(Transfer transfer, TransferRequest request) {
+        TransferRequest immediate = new TransferRequest(request.getSourceAccountNumber(),
+            request.getDestinationAccountNumber(), request.getAmount(), request.getDescription());
+        ScheduledTransfer scheduled = new ScheduledTransfer(transfer.getId(), immediate, transfer.getScheduledAt(), false);
+        wheelThread.schedule(() -> {
+            if (loadedUntil != null && scheduled.scheduledAt().isBefore(loadedUntil)) {
+                add(scheduled);
+            }
+        });
+    }
+
+    /**
+     * Leer el siguiente tramo (se ejecuta en el hilo transfer-scheduler)
+     * El horizonte se mueve ANTES de consultar: lo que se programe mientras
+     * la consulta está en vuelo entra por scheduled(); inWheel evita duplicados
+     */
+    private Mono<Void> loadNextSlice() {
+        LocalDateTime from = loadedUntil;
+        LocalDateTime to = LocalDateTime.now().plus(config.getSlice().multipliedBy(2));
+        loadedUntil = to;
+        // Sin carga previa (arranque o la primera falló): desde el principio
+        DatabaseClient.GenericExecuteSpec query = from == null
+            ? databaseClient.sql(LOAD_PENDING).bind("to", to)
+            : databaseClient.sql(LOAD_SLICE).bind("from", from).bind("to", to);
+        return query.map((row, metadata) -> toScheduled(row))
+            .all()
+            .publishOn(wheelThread)
+            .doOnNext(this::add)
+            .count()
+            .doOnNext(count -> {
+                if (count > 0) {
+                    log.info("Programadas cargadas hasta {}: {}", to, count);
+                }
+            })
+            .onErrorResume(error -> {
+                // El tramo se vuelve a pedir en la próxima carga
+                loadedUntil = from;
+                log.warn("No se pudieron cargar programadas: {}", error.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private void add(ScheduledTransfer scheduled) {
+        if (!inWheel.add(scheduled.id())) {
+            return;
+        }
+        pending.incrementAndGet();
+        long deadline = scheduled.scheduledAt().atZone(zone).toInstant().toEpochMilli();
+        if (!wheel.schedule(deadline, scheduled)) {
+            expire(scheduled);
+        }
+    }
+
+    private void expire(ScheduledTransfer scheduled) {
+        inWheel.remove(scheduled.id());
+        pending.decrementAndGet();
+        due.tryEmitNext(scheduled);
+    }
+
+    /**
+     * Reclamar, ejecutar y dejar el resultado en la fila programada
+     */
+    private Mono<Void> dispatch(ScheduledTransfer scheduled) {
+        return databaseClient.sql(scheduled.resumed() ? CLAIM_RESUMED : CLAIM)
+            .bind("id", scheduled.id())
+            .fetch()
+            .rowsUpdated()
+            .filter(updated -> updated > 0)
+            .flatMap(claimed -> {
+                Duration late = Duration.between(scheduled.scheduledAt(), LocalDateTime.now());
+                delay.record(late.isNegative() ? Duration.ZERO : late);
+                return transferService.getObject()
+                    .performScheduled(scheduled.request(), "scheduled-" + scheduled.id());
+            })
+            .flatMap(response -> settle(scheduled, response))
+            .onErrorResume(error -> unresolved(scheduled, error))
+            .then();
+    }
+
+    private Mono<Long> settle(ScheduledTransfer scheduled, TransferResponse response) {
+        DatabaseClient.GenericExecuteSpec update = Transfer.Status.FAILED.equals(response.getStatus())
+            ? databaseClient.sql(SETTLE_FAILED).bind("reason", String.valueOf(response.getMessage()))
+            : bindNullable(databaseClient.sql(SETTLE_EXECUTED), "transferId", response.getId());
+        return update.bind("id", scheduled.id())
+            .fetch()
+            .rowsUpdated()
+            .doOnNext(updated -> {
+                dispatched.increment();
+                log.info("Programada {} ejecutada: {} (transferencia {})",
+                         scheduled.id(), response.getStatus(), response.getId());
+            });
+    }
+
+    /**
+     * Idempotency-Key "en curso" sin respuesta guardada: una ejecución anterior
+     * quedó a medias y no se sabe si movió el dinero → UNKNOWN, no se reintenta
+     * Cualquier otro error: queda SCHEDULED o DISPATCHING y se retoma en el próximo arranque
+     */
+    private Mono<Long> unresolved(ScheduledTransfer scheduled, Throwable error) {
+        if (error instanceof TransferException rejected
+                && rejected.getErrorCode() == ErrorCode.IDEMPOTENCY_KEY_CONFLICT) {
+            return databaseClient.sql(MARK_UNKNOWN)
+                .bind("id", scheduled.id())
+                .fetch()
+                .rowsUpdated()
+                .doOnNext(updated -> {
+                    unknown.increment();
+                    log.error("Programada {} con resultado desconocido (UNKNOWN), revisar a mano: {}",
+                              scheduled.id(), error.getMessage());
+                })
+                .onErrorResume(markError -> {
+                    log.warn("Programada {} sin marcar UNKNOWN: {}", scheduled.id(), markError.getMessage());
+                    return Mono.empty();
+                });
+        }
+        log.warn("Programada {} sin ejecutar: {}", scheduled.id(), error.getMessage());
+        return Mono.empty();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                  String name, Long value) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, Long.class);
+    }
+
+    private static ScheduledTransfer toScheduled(Row row) {
+        TransferRequest request = new TransferRequest(
+            row.get("source_account_number", String.class),
+            row.get("destination_account_number", String.class),
+            row.get("amount", BigDecimal.class),
+            row.get("description", String.class));
+        return new ScheduledTransfer(
+            row.get("id", Long.class),
+            request,
+            row.get("scheduled_at", LocalDateTime.class),
+            Transfer.Status.DISPATCHING.equals(row.get("status", String.class)));
+    }
+
+    /**
+     * @param request - Se ejecuta sin scheduledAt (ya es su hora)
+     * @param resumed - Quedó DISPATCHING de una ejecución anterior
+     */
+    private record ScheduledTransfer(Long id, TransferRequest request, LocalDateTime scheduledAt, boolean resumed) {
+    }
+}
@@ -0,0 +1,348 @@
+/*¿Para qué sirve?
+
+Liquida las transferencias PENDING que deja POST /api/transfers con transfers.async.enabled
+
+PROBLEMA que resuelve:
+Con la ejecución síncrona la latencia HTTP es la de la liquidación completa
+(locks, saldos, INSERT, COMMIT). En modo asíncrono la petición solo guarda
+la fila PENDING y responde 202; el dinero se mueve aquí, por lotes.
+
+FLUJO de cada worker (una transacción por lote):
+1. Reclamar hasta batchSize PENDING con FOR UPDATE SKIP LOCKED
+   (los workers, y las réplicas, nunca toman la misma fila ni se esperan)
+2. SELECT ... FOR UPDATE de las cuentas del lote, ordenadas por id → sin deadlocks
+3. Validar saldos en Java en orden de llegada (igual que GROUP_COMMIT)
+4. UN UPDATE de saldos y UN UPDATE de estados (COMPLETED / FAILED)
+5. COMMIT; después: listeners, caché de saldos y GET /api/transfers/stream
+Mientras el lote sale lleno se sigue sin esperar; sin PENDING se espera pollInterval.
+Si el lote falla (BD caída), ROLLBACK: las filas siguen PENDING y se reintentan.
+
+CANCELACIÓN: PATCH /api/transfers/{id}/cancel hace un UPDATE condicional
+(WHERE status = 'PENDING'); si un worker ya la reclamó, espera su COMMIT
+y la cancelación se rechaza porque dejó de estar PENDING.
+
+NO es compatible con mode = LEDGER: los saldos de ese modo viven en memoria
+y estos UPDATE los dejarían desfasados.
+
+MÉTRICAS:
+- transfers.settlement.settled  Counter, tag outcome = completed | failed
+- transfers.settlement.batch    Timer por lote (reclamar + liquidar + COMMIT)
+- transfers.settlement.lag      Timer: tiempo en PENDING hasta liquidarse
+- transfers.settlement.errors   Counter de lotes revertidos
+ *
+ */
+
+package com.example.transfers.service.settlement;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.TransferResponse;
+import com.example.transfers.exception.ErrorCode;
+import com.example.transfers.exception.InsufficientFundsException;
+import com.example.transfers.exception.TransferException;
+import com.example.transfers.model.Money;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.service.cache.AccountCache;
+import com.example.transfers.service.listener.TransferListener;
+import com.example.transfers.service.metrics.TransferMetrics;
+import com.example.transfers.service.stream.TransferFeed;
+import com.example.transfers.service.support.TransferBatchStatements;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Row;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+@ConditionalOnProperty(name = "transfers.async.enabled", havingValue = "true")
+@DependsOn("initializer") // transfers debe existir antes de la primera ronda
+@Slf4j
+public class SettlementWorkers {
+
+    // Largo de transfers.description
+    private static final int MAX_DESCRIPTION = 255;
+
+    private static final String CLAIM_PENDING = """
+        SELECT id, source_account_id, destination_account_id, amount, description, created_at
+          FROM transfers
+         WHERE status = 'PENDING'
+         ORDER BY created_at, id
+         LIMIT :limit
+           FOR UPDATE SKIP LOCKED
+        """;
+
+    private static final String LOCK_ACCOUNTS = """
+        SELECT id, account_number, balance_cents
+          FROM accounts
+         WHERE id = ANY(CAST(:ids AS bigint[]))
+         ORDER BY id
+           FOR UPDATE
+        """;
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final List<TransferListener> transferListeners;
+    private final AccountCache accountCache;
+    private final TransferFeed transferFeed;
+    private final TransferMetrics transferMetrics;
+    private final TransferProperties.Async config;
+    private final Counter completed;
+    private final Counter failed;
+    private final Counter errors;
+    private final Timer batchTimer;
+    private final Timer lag;
+    private final Disposable.Composite workers = Disposables.composite();
+
+    public SettlementWorkers(DatabaseClient databaseClient, TransactionalOperator transactionalOperator,
+                             List<TransferListener> transferListeners, AccountCache accountCache,
+                             TransferFeed transferFeed, TransferMetrics transferMetrics,
+                             TransferProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getMode() == TransferProperties.Mode.LEDGER) {
+            throw new IllegalStateException("transfers.async.enabled no es compatible con transfers.mode = LEDGER");
+        }
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.transferListeners = transferListeners;
+        this.accountCache = accountCache;
+        this.transferFeed = transferFeed;
+        this.transferMetrics = transferMetrics;
+        this.config = properties.getAsync();
+        this.completed = settledCounter(meterRegistry, "completed");
+        this.failed = settledCounter(meterRegistry, "failed");
+        this.errors = Counter.builder("transfers.settlement.errors")
+            .description("Lotes de liquidación revertidos (se reintentan)")
+            .register(meterRegistry);
+        this.batchTimer = Timer.builder("transfers.settlement.batch")
+            .description("Duración de un lote: reclamar, liquidar y COMMIT")
+            .register(meterRegistry);
+        this.lag = Timer.builder("transfers.settlement.lag")
+            .description("Tiempo que una transferencia estuvo PENDING")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        int count = config.getWorkers();
+        log.info("Liquidación asíncrona: {} workers, lotes de {}", count, config.getBatchSize());
+        for (int i = 0; i < count; i++) {
+            // Arranques escalonados: los workers no consultan todos en el mismo instante
+            Duration delay = config.getPollInterval().multipliedBy(i).dividedBy(count);
+            workers.add(Flux.interval(delay, config.getPollInterval())
+                // Si una ronda tarda más que pollInterval, los ticks intermedios sobran
+                .onBackpressureDrop()
+                .concatMap(tick -> drain(), 1)
+                .subscribe());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.dispose();
+    }
+
+    /**
+     * Liquidar lotes mientras salgan llenos
+     */
+    private Mono<Void> drain() {
+        return settleBatch()
+            .expand(count -> count == config.getBatchSize() ? settleBatch() : Mono.empty())
+            .onErrorResume(error -> {
+                errors.increment();
+                log.warn("Lote de liquidación revertido, se reintentará: {}", error.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    /**
+     * Un lote en una transacción
+     * @return Transferencias reclamadas
+     */
+    private Mono<Integer> settleBatch() {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return databaseClient.sql(CLAIM_PENDING)
+                .bind("limit", config.getBatchSize())
+                .map((row, metadata) -> toTransfer(row))
+                .all()
+                .collectList()
+                .flatMap(claimed -> claimed.isEmpty()
+                    ? Mono.just(List.<Settlement>of())
+                    : lockAccounts(claimed).flatMap(accounts -> apply(claimed, accounts)))
+                .as(transactionalOperator::transactional)
+                // Después del COMMIT
+                .doOnNext(settlements -> {
+                    if (!settlements.isEmpty()) {
+                        sample.stop(batchTimer);
+                        settlements.forEach(this::afterCommit);
+                    }
+                })
+                .map(List::size);
+        });
+    }
+
+    private Mono<Map<Long, LockedAccount>> lockAccounts(List<Transfer> claimed) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Transfer transfer : claimed) {
+            ids.add(transfer.getSourceAccountId());
+            ids.add(transfer.getDestinationAccountId());
+        }
+        return databaseClient.sql(LOCK_ACCOUNTS)
+            .bind("ids", ids.toArray(new Long[0]))
+            .map((row, metadata) -> new LockedAccount(
+                row.get("id", Long.class),
+                row.get("account_number", String.class),
+                row.get("balance_cents", Long.class)))
+            .all()
+            .collectMap(LockedAccount::id);
+    }
+
+    /**
+     * Validar y aplicar en orden de llegada; luego UPDATE de saldos y de estados
+     * (se ejecuta dentro de la transacción, con las cuentas bloqueadas)
+     */
+    private Mono<List<Settlement>> apply(List<Transfer> claimed, Map<Long, LockedAccount> accounts) {
+        List<Settlement> settlements = new ArrayList<>(claimed.size());
+        // Saldo en curso (centavos) de cada cuenta tocada por el lote
+        Map<Long, Long> balances = new LinkedHashMap<>();
+        Long[] transferIds = new Long[claimed.size()];
+        String[] statuses = new String[claimed.size()];
+        String[] descriptions = new String[claimed.size()];
+
+        for (int i = 0; i < claimed.size(); i++) {
+            Transfer transfer = claimed.get(i);
+            long amount = Money.toCents(transfer.getAmount());
+            LockedAccount source = accounts.get(transfer.getSourceAccountId());
+            LockedAccount destination = accounts.get(transfer.getDestinationAccountId());
+            RuntimeException rejection = null;
+            if (source == null || destination == null) {
+                // Las FK lo impiden; se contempla para no dejar la fila PENDING para siempre
+                rejection = new TransferException(ErrorCode.ACCOUNT_NOT_FOUND, "Cuenta no encontrada",
+                                                  transfer.getSourceAccountId(), transfer.getDestinationAccountId());
+            } else {
+                long sourceBalance = balances.getOrDefault(source.id(), source.balanceCents());
+                if (sourceBalance < amount) {
+                    rejection = new InsufficientFundsException(source.id(), destination.id(), sourceBalance);
+                } else {
+                    balances.put(source.id(), sourceBalance - amount);
+                    balances.put(destination.id(), balances.getOrDefault(destination.id(), destination.balanceCents()) + amount);
+                }
+            }
+            transferIds[i] = transfer.getId();
+            if (rejection != null) {
+                transfer.setStatus(Transfer.Status.FAILED);
+                transfer.setDescription(failedDescription(transfer.getDescription(), rejection));
+            } else {
+                transfer.setStatus(Transfer.Status.COMPLETED);
+            }
+            statuses[i] = transfer.getStatus();
+            descriptions[i] = transfer.getDescription();
+            settlements.add(new Settlement(transfer, source, destination, rejection));
+        }
+
+        Long[] accountIds = balances.keySet().toArray(new Long[0]);
+        Long[] newBalances = balances.values().toArray(new Long[0]);
+        return TransferBatchStatements.updateBalances(databaseClient, accountIds, newBalances,
+                                                      new String[accountIds.length])
+            .then(TransferBatchStatements.settleTransfers(databaseClient, transferIds, statuses, descriptions))
+            .thenReturn(settlements);
+    }
+
+    /**
+     * Avisos de una transferencia ya liquidada (mismos que el camino síncrono)
+     */
+    private void afterCommit(Settlement settlement) {
+        Transfer transfer = settlement.transfer();
+        Duration pending = Duration.between(transfer.getCreatedAt(), LocalDateTime.now());
+        lag.record(pending.isNegative() ? Duration.ZERO : pending);
+        if (settlement.error() != null) {
+            failed.increment();
+            transferMetrics.recordFailure(settlement.error());
+        } else {
+            completed.increment();
+            notifyListeners(transfer);
+            accountCache.balancesChanged(settlement.source().accountNumber(),
+                                         settlement.destination().accountNumber());
+        }
+        transferFeed.publish(settlement.toResponse());
+    }
+
+    /**
+     * Avisar a los TransferListener; un fallo en uno no afecta a la liquidación
+     */
+    private void notifyListeners(Transfer transfer) {
+        for (TransferListener listener : transferListeners) {
+            try {
+                listener.onTransferCompleted(transfer);
+            } catch (RuntimeException e) {
+                log.warn("Listener {} falló para la transferencia {}: {}",
+                         listener.getClass().getSimpleName(), transfer.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private static String failedDescription(String requested, RuntimeException error) {
+        String text = requested != null
+            ? requested + " - FAILED: " + error.getMessage()
+            : "FAILED: " + error.getMessage();
+        return text.length() > MAX_DESCRIPTION ? text.substring(0, MAX_DESCRIPTION) : text;
+    }
+
+    private static Transfer toTransfer(Row row) {
+        Transfer transfer = new Transfer();
+        transfer.setId(row.get("id", Long.class));
+        transfer.setSourceAccountId(row.get("source_account_id", Long.class));
+        transfer.setDestinationAccountId(row.get("destination_account_id", Long.class));
+        transfer.setAmount(row.get("amount", BigDecimal.class));
+        transfer.setDescription(row.get("description", String.class));
+        transfer.setStatus(Transfer.Status.PENDING);
+        transfer.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        return transfer;
+    }
+
+    private static Counter settledCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("transfers.settlement.settled")
+            .description("Transferencias PENDING liquidadas por resultado")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private record LockedAccount(Long id, String accountNumber, long balanceCents) {
+    }
+
+    private record Settlement(Transfer transfer, LockedAccount source, LockedAccount destination,
+                              RuntimeException error) {
+        TransferResponse toResponse() {
+            return TransferResponse.builder()
+                .id(transfer.getId())
+                .sourceAccountNumber(source != null ? source.accountNumber() : null)
+                .destinationAccountNumber(destination != null ? destination.accountNumber() : null)
+                .amount(transfer.getAmount())
+                .description(transfer.getDescription())
+                .status(transfer.getStatus())
+                .createdAt(transfer.getCreatedAt())
+                .message(error != null ? "Error: " + error.getMessage() : "Transferencia realizada exitosamente")
+                .errorCode(error != null ? ErrorCode.of(error) : null)
+                .build();
+        }
+    }
+}
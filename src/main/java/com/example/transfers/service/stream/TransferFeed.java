@@ -0,0 +1,117 @@
+/*¿Para qué sirve?
+
+Flujo "en vivo" de resultados de transferencias (COMPLETED y FAILED)
+para GET /api/transfers/stream
+
+PROBLEMA que resuelve:
+Los dashboards hacían polling de GET /api/transfers cada pocos segundos:
+N dashboards = N lecturas repetidas de la tabla.
+
+CÓMO FUNCIONA:
+1. TransferServiceImpl llama a publish() con cada resultado (sin consultas extra)
+2. Los resultados entran a una cola acotada; un único hilo (transfer-feed)
+   los reparte a todos los suscriptores: el hilo de la petición solo encola
+3. Reparto multicast "best effort": un suscriptor lento nunca frena a los demás
+4. Cada suscriptor tiene su propio buffer de bufferSize; si se atrasa,
+   se descartan SUS eventos más viejos (transfers.stream.dropped)
+
+Sin suscriptores, publish() no hace nada.
+Sin historia: cada suscriptor recibe lo que ocurre desde que se conecta.
+ *
+ */
+
+package com.example.transfers.service.stream;
+
+import com.example.transfers.config.TransferProperties;
+import com.example.transfers.dto.TransferResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+@Component
+public class TransferFeed {
+
+    // Productores: hilos de las peticiones; consumidor: el hilo transfer-feed
+    private final Sinks.Many<TransferResponse> inbound;
+    // Reparto a los suscriptores (solo emite el hilo transfer-feed)
+    private final Sinks.Many<TransferResponse> feed = Sinks.many().multicast().directBestEffort();
+    private final Scheduler dispatcher = Schedulers.newSingle("transfer-feed");
+    private final int bufferSize;
+    private final Counter dropped;
+    private Disposable dispatch;
+
+    public TransferFeed(TransferProperties properties, MeterRegistry meterRegistry) {
+        TransferProperties.Stream config = properties.getStream();
+        this.inbound = Sinks.many().unicast()
+            .onBackpressureBuffer(Queues.<TransferResponse>get(config.getQueueCapacity()).get());
+        this.bufferSize = config.getBufferSize();
+        this.dropped = Counter.builder("transfers.stream.dropped")
+            .description("Eventos del stream descartados (cola llena o suscriptor lento)")
+            .register(meterRegistry);
+        Gauge.builder("transfers.stream.subscribers", feed, Sinks.Many::currentSubscriberCount)
+            .description("Clientes conectados a GET /api/transfers/stream")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatch = inbound.asFlux()
+            .publishOn(dispatcher)
+            .subscribe(feed::tryEmitNext);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (dispatch != null) {
+            dispatch.dispose();
+        }
+        feed.tryEmitComplete();
+        dispatcher.dispose();
+    }
+
+    /**
+     * Encolar un resultado sin bloquear (se llama en el hilo de la petición)
+     */
+    public void publish(TransferResponse response) {
+        if (feed.currentSubscriberCount() == 0) {
+            return;
+        }
+        for (;;) {
+            Sinks.EmitResult result = inbound.tryEmitNext(response);
+            if (result.isSuccess()) {
+                return;
+            }
+            // Otro hilo está emitiendo en este instante: reintentar
+            if (result == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            dropped.increment();
+            return;
+        }
+    }
+
+    /**
+     * Resultados desde el momento de la suscripción
+     * @param accountNumber - Solo los de esta cuenta (origen o destino); null = todos
+     */
+    public Flux<TransferResponse> subscribe(String accountNumber) {
+        Flux<TransferResponse> events = feed.asFlux();
+        if (accountNumber != null) {
+            events = events.filter(response -> accountNumber.equals(response.getSourceAccountNumber())
+                || accountNumber.equals(response.getDestinationAccountNumber()));
+        }
+        return events.onBackpressureBuffer(bufferSize, response -> dropped.increment(),
+                                           BufferOverflowStrategy.DROP_OLDEST);
+    }
+}
@@ -0,0 +1,93 @@
+/*¿Para qué sirve?
+
+Escritor asíncrono por lotes reutilizable
+Los productores llaman offer(item) (no bloquea) y un único consumidor
+recibe listas de hasta maxBatchSize elementos, o lo que haya llegado
+en maxWait, para escribirlas de una sola vez en la BD.
+
+Se usa para todo lo que se puede escribir "fuera del camino crítico"
+(p. ej. el journal del motor de saldos).
+ *
+ */
+
+package com.example.transfers.service.support;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+@Slf4j
+public class AsyncBatcher<T> {
+
+    private final String name;
+    private final Sinks.Many<T> sink;
+    private final Sinks.Empty<Void> terminated = Sinks.empty();
+    private final Disposable subscription;
+
+    /**
+     * @param name - Nombre para los logs
+     * @param maxBatchSize - Máximo de elementos por lote
+     * @param maxWait - Tiempo máximo que un elemento espera a que se llene el lote
+     * @param queueCapacity - Elementos pendientes antes de rechazar offer()
+     * @param writer - Escribe un lote; los lotes se escriben de uno en uno y en orden
+     */
+    public AsyncBatcher(String name, int maxBatchSize, Duration maxWait, int queueCapacity,
+                        Function<List<T>, Mono<Void>> writer) {
+        this.name = name;
+        // Cola acotada: si el consumidor no da abasto, offer() devuelve false
+        this.sink = Sinks.many().unicast().onBackpressureBuffer(Queues.<T>get(queueCapacity).get());
+        this.subscription = sink.asFlux()
+            // bufferTimeout(fairBackpressure = true) respeta la demanda de concatMap
+            .bufferTimeout(maxBatchSize, maxWait, true)
+            // concatMap = un lote a la vez, en orden de llegada
+            .concatMap(batch -> writer.apply(batch)
+                .onErrorResume(error -> {
+                    log.error("[{}] Error escribiendo lote de {} elementos: {}",
+                              name, batch.size(), error.getMessage());
+                    return Mono.empty();
+                }))
+            .doFinally(signal -> terminated.tryEmitEmpty())
+            .subscribe();
+    }
+
+    /**
+     * Encolar un elemento sin bloquear
+     *
+     * @return false si la cola está llena o el batcher está cerrado
+     */
+    public boolean offer(T item) {
+        for (;;) {
+            Sinks.EmitResult result = sink.tryEmitNext(item);
+            if (result.isSuccess()) {
+                return true;
+            }
+            // Otro hilo está emitiendo en este instante: reintentar
+            if (result == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            log.warn("[{}] Elemento rechazado: {}", name, result);
+            return false;
+        }
+    }
+
+    /**
+     * Cerrar: deja de aceptar elementos y espera a que se escriban los pendientes
+     */
+    public void close(Duration timeout) {
+        while (sink.tryEmitComplete() == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            Thread.onSpinWait();
+        }
+        try {
+            terminated.asMono().block(timeout);
+        } catch (RuntimeException e) {
+            log.warn("[{}] No se pudieron escribir todos los pendientes: {}", name, e.getMessage());
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*¿Para qué sirve?
+
+Lectura y escritura mínima de CSV (RFC 4180) compartida por
+exportaciones (StatementExporter) e importaciones (AccountImporter)
+
+- Un campo va entre comillas solo si contiene ',', '"' o saltos de línea
+- Dentro de comillas, '"' se escribe como '""'
+ *
+ */
+
+package com.example.transfers.service.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class Csv {
+
+    private Csv() {
+    }
+
+    /**
+     * Agregar un campo escapado (null = campo vacío)
+     */
+    public static void appendField(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    /**
+     * Línea completa terminada en '\n'
+     */
+    public static String line(String... values) {
+        StringBuilder line = new StringBuilder(96);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            appendField(line, values[i]);
+        }
+        return line.append('\n').toString();
+    }
+
+    /**
+     * Separar una línea en campos (sin saltos de línea dentro de comillas)
+     * @throws IllegalArgumentException si hay comillas sin cerrar
+     */
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
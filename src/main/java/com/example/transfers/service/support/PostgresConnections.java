@@ -0,0 +1,36 @@
+/*¿Para qué sirve?
+
+Acceso a la conexión nativa de r2dbc-postgresql para funciones que la
+SPI de R2DBC no expone (LISTEN/NOTIFY, COPY FROM STDIN)
+
+La conexión que entrega el pool (r2dbc-pool) envuelve a la del driver
+e implementa Wrapped: se desenvuelve hasta llegar a PostgresqlConnection.
+ *
+ */
+
+package com.example.transfers.service.support;
+
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Wrapped;
+
+public final class PostgresConnections {
+
+    private PostgresConnections() {
+    }
+
+    /**
+     * @throws IllegalStateException si la conexión no es de PostgreSQL
+     */
+    public static PostgresqlConnection unwrap(Connection connection) {
+        Object current = connection;
+        while (!(current instanceof PostgresqlConnection) && current instanceof Wrapped<?> wrapped) {
+            current = wrapped.unwrap();
+        }
+        if (current instanceof PostgresqlConnection postgres) {
+            return postgres;
+        }
+        throw new IllegalStateException("Se requiere una conexión r2dbc-postgresql: "
+                                        + connection.getClass().getName());
+    }
+}
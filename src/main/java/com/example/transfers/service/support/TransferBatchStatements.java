@@ -0,0 +1,173 @@
+/*¿Para qué sirve?
+
+Sentencias SQL "por lotes" compartidas por los modos que agrupan escrituras
+(LEDGER, GROUP_COMMIT y los workers de transfers.async):
+
+- INSERT multi-fila de transferencias con IDs ya reservados
+- INSERT multi-fila de transferencias FAILED (ID de la secuencia; lo usa FailedTransferRecorder)
+- UPDATE de muchos saldos en una sola sentencia
+- UPDATE del estado final de transferencias PENDING (lo usa SettlementWorkers)
+
+Los arrays se envían como parámetros y PostgreSQL los expande con unnest(),
+así N transferencias cuestan 1 sentencia en lugar de N.
+Los montos viajan en centavos (bigint) y se convierten a NUMERIC en SQL.
+ *
+ */
+
+package com.example.transfers.service.support;
+
+import com.example.transfers.model.Money;
+import com.example.transfers.model.Transfer;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+import java.util.List;
+
+public final class TransferBatchStatements {
+
+    private static final String INSERT_TRANSFERS = """
+        INSERT INTO transfers (id, source_account_id, destination_account_id, amount, description, status, created_at)
+        SELECT t.id, t.source_id, t.destination_id, t.cents / 100.0, t.description, t.status,
+               CAST(t.created_at AS timestamp)
+          FROM unnest(CAST(:ids AS bigint[]), CAST(:sources AS bigint[]), CAST(:destinations AS bigint[]),
+                      CAST(:amounts AS bigint[]), CAST(:descriptions AS varchar[]), CAST(:statuses AS varchar[]),
+                      CAST(:createdAt AS varchar[]))
+               AS t(id, source_id, destination_id, cents, description, status, created_at)
+        """;
+
+    private static final String INSERT_FAILED_TRANSFERS = """
+        INSERT INTO transfers (source_account_id, destination_account_id, amount, description, status, created_at)
+        SELECT t.source_id, t.destination_id, t.cents / 100.0, t.description, 'FAILED', CAST(t.created_at AS timestamp)
+          FROM unnest(CAST(:sources AS bigint[]), CAST(:destinations AS bigint[]), CAST(:amounts AS bigint[]),
+                      CAST(:descriptions AS varchar[]), CAST(:createdAt AS varchar[]))
+               AS t(source_id, destination_id, cents, description, created_at)
+        """;
+
+    private static final String UPDATE_BALANCES = """
+        UPDATE accounts a
+           SET balance_cents = v.cents,
+               owner_name = COALESCE(v.owner_name, a.owner_name),
+               updated_at = CURRENT_TIMESTAMP,
+               version = a.version + 1
+          FROM unnest(CAST(:ids AS bigint[]), CAST(:balances AS bigint[]), CAST(:owners AS varchar[]))
+               AS v(id, cents, owner_name)
+         WHERE a.id = v.id
+        """;
+
+    private static final String SETTLE_TRANSFERS = """
+        UPDATE transfers t
+           SET status = v.status,
+               description = v.description
+          FROM unnest(CAST(:ids AS bigint[]), CAST(:statuses AS varchar[]), CAST(:descriptions AS varchar[]))
+               AS v(id, status, description)
+         WHERE t.id = v.id AND t.status = 'PENDING'
+        """;
+
+    private TransferBatchStatements() {
+    }
+
+    /**
+     * INSERT multi-fila (las transferencias deben traer ID reservado)
+     */
+    public static Mono<Void> insertTransfers(DatabaseClient databaseClient, List<Transfer> transfers) {
+        if (transfers.isEmpty()) {
+            return Mono.empty();
+        }
+        int size = transfers.size();
+        Long[] ids = new Long[size];
+        Long[] sources = new Long[size];
+        Long[] destinations = new Long[size];
+        Long[] amounts = new Long[size];
+        String[] descriptions = new String[size];
+        String[] statuses = new String[size];
+        String[] createdAt = new String[size];
+        for (int i = 0; i < size; i++) {
+            Transfer transfer = transfers.get(i);
+            ids[i] = transfer.getId();
+            sources[i] = transfer.getSourceAccountId();
+            destinations[i] = transfer.getDestinationAccountId();
+            amounts[i] = Money.toCents(transfer.getAmount());
+            descriptions[i] = transfer.getDescription();
+            statuses[i] = transfer.getStatus();
+            createdAt[i] = transfer.getCreatedAt().toString();
+        }
+        return databaseClient.sql(INSERT_TRANSFERS)
+            .bind("ids", ids)
+            .bind("sources", sources)
+            .bind("destinations", destinations)
+            .bind("amounts", amounts)
+            .bind("descriptions", descriptions)
+            .bind("statuses", statuses)
+            .bind("createdAt", createdAt)
+            .fetch()
+            .rowsUpdated()
+            .then();
+    }
+
+    /**
+     * INSERT multi-fila de transferencias FAILED (los IDs de cuenta pueden ser null)
+     */
+    public static Mono<Void> insertFailedTransfers(DatabaseClient databaseClient, List<Transfer> transfers) {
+        if (transfers.isEmpty()) {
+            return Mono.empty();
+        }
+        int size = transfers.size();
+        Long[] sources = new Long[size];
+        Long[] destinations = new Long[size];
+        Long[] amounts = new Long[size];
+        String[] descriptions = new String[size];
+        String[] createdAt = new String[size];
+        for (int i = 0; i < size; i++) {
+            Transfer transfer = transfers.get(i);
+            sources[i] = transfer.getSourceAccountId();
+            destinations[i] = transfer.getDestinationAccountId();
+            amounts[i] = Money.toCents(transfer.getAmount());
+            descriptions[i] = transfer.getDescription();
+            createdAt[i] = transfer.getCreatedAt().toString();
+        }
+        return databaseClient.sql(INSERT_FAILED_TRANSFERS)
+            .bind("sources", sources)
+            .bind("destinations", destinations)
+            .bind("amounts", amounts)
+            .bind("descriptions", descriptions)
+            .bind("createdAt", createdAt)
+            .fetch()
+            .rowsUpdated()
+            .then();
+    }
+
+    /**
+     * UPDATE por lotes con saldos ABSOLUTOS en centavos
+     * (owners[i] == null → no cambia el nombre)
+     */
+    public static Mono<Void> updateBalances(DatabaseClient databaseClient,
+                                            Long[] accountIds, Long[] balances, String[] owners) {
+        if (accountIds.length == 0) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(UPDATE_BALANCES)
+            .bind("ids", accountIds)
+            .bind("balances", balances)
+            .bind("owners", owners)
+            .fetch()
+            .rowsUpdated()
+            .then();
+    }
+
+    /**
+     * UPDATE por lotes del estado de transferencias PENDING (COMPLETED o FAILED)
+     * Las que ya no están PENDING no se tocan
+     */
+    public static Mono<Void> settleTransfers(DatabaseClient databaseClient,
+                                             Long[] transferIds, String[] statuses, String[] descriptions) {
+        if (transferIds.length == 0) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(SETTLE_TRANSFERS)
+            .bind("ids", transferIds)
+            .bind("statuses", statuses)
+            .bind("descriptions", descriptions)
+            .fetch()
+            .rowsUpdated()
+            .then();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+-- Aviso de cambios en accounts para invalidar cachés en TODAS las réplicas
+-- (service/cache/AccountInvalidationListener hace LISTEN account_changes)
+--
+-- Se ejecuta aparte de schema.sql con separador "@@": el cuerpo plpgsql
+-- lleva ';' internos que el separador por defecto cortaría.
+--
+-- Payload: "<tipo>:<account_number>"
+--   M = cambió el titular o el número (updateAccount)
+--   D = cuenta eliminada
+-- pg_notify se entrega al hacer COMMIT; si la transacción se revierte, no hay aviso.
+--
+-- Los cambios de SALDO no avisan desde aquí: Postgres serializa el COMMIT de
+-- toda transacción que hizo NOTIFY con un lock global, y cada transferencia
+-- (y cada fila de los UPDATE por lotes) lo pagaría. El trigger solo se dispara
+-- con UPDATE OF owner_name, account_number; los avisos "B:" los manda la app,
+-- por lotes y solo con cache-balance = true (service/cache/BalanceChangeNotifier).
+
+CREATE OR REPLACE FUNCTION notify_account_change() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('account_changes', 'D:' || OLD.account_number);
+        RETURN OLD;
+    END IF;
+    IF NEW.account_number IS DISTINCT FROM OLD.account_number THEN
+        PERFORM pg_notify('account_changes', 'D:' || OLD.account_number);
+    END IF;
+    IF NEW.owner_name IS DISTINCT FROM OLD.owner_name
+       OR NEW.account_number IS DISTINCT FROM OLD.account_number THEN
+        PERFORM pg_notify('account_changes', 'M:' || NEW.account_number);
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql
+@@
+
+CREATE TRIGGER trg_account_change
+    AFTER UPDATE OF owner_name, account_number OR DELETE ON accounts
+    FOR EACH ROW EXECUTE FUNCTION notify_account_change()
+@@
@@ -1,4 +1,8 @@
 -- Eliminar tablas si existen (para desarrollo)
+DROP TABLE IF EXISTS ledger_dead_letters CASCADE;
+DROP TABLE IF EXISTS transfer_outbox CASCADE;
+DROP TABLE IF EXISTS account_daily_balances CASCADE;
+DROP TABLE IF EXISTS transfer_idempotency CASCADE;
 DROP TABLE IF EXISTS transfers CASCADE; -- CASCADE elimina también las referencias
 DROP TABLE IF EXISTS accounts CASCADE;
 
@@ -7,23 +11,29 @@ CREATE TABLE accounts (
     id BIGSERIAL PRIMARY KEY,              -- ID autoincremental
     account_number VARCHAR(20) UNIQUE NOT NULL,  -- Número de cuenta único
     owner_name VARCHAR(100) NOT NULL,      -- Nombre del propietario
-    balance NUMERIC(15, 2) NOT NULL DEFAULT 0.00,  -- Saldo con 2 decimales
+    tier VARCHAR(20) NOT NULL DEFAULT 'STANDARD',  -- Categoría de límites (transfers.limits.tiers)
+    balance_cents BIGINT NOT NULL DEFAULT 0,  -- Saldo en centavos (lo que escribe y lee la app)
+    -- Saldo con 2 decimales, calculado por PostgreSQL para consultas y reportes (solo lectura)
+    balance NUMERIC(15, 2) GENERATED ALWAYS AS (CAST(balance_cents / 100.0 AS NUMERIC(15, 2))) STORED,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,  -- TIMESTAMP = fecha y hora
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, -- CURRENT_TIMESTAMP = fecha/hora actual automáticamente
+    version BIGINT NOT NULL DEFAULT 0,     -- Bloqueo optimista (@Version): +1 en cada UPDATE
     
     -- Constraint: El saldo no puede ser negativo
-    CONSTRAINT positive_balance CHECK (balance >= 0)
+    CONSTRAINT positive_balance CHECK (balance_cents >= 0)
 );
 
 -- Tabla de transferencias
 CREATE TABLE transfers (
     id BIGSERIAL PRIMARY KEY,              -- ID autoincremental
-    source_account_id BIGINT NOT NULL,     -- Cuenta origen (FK)
-    destination_account_id BIGINT NOT NULL, -- Cuenta destino (FK)
+    source_account_id BIGINT,              -- Cuenta origen (FK); NULL solo en FAILED con cuenta inexistente
+    destination_account_id BIGINT,         -- Cuenta destino (FK); ídem
     amount NUMERIC(15, 2) NOT NULL,        -- Monto a transferir
     description VARCHAR(255),               -- Descripción/concepto
-    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',  -- PENDING, COMPLETED, FAILED
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',  -- PENDING, COMPLETED, FAILED (+ estados de programadas)
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,  -- NOT NULL: es parte del cursor de paginación
+    scheduled_at TIMESTAMP,                 -- Solo programadas: cuándo ejecutarla
+    executed_transfer_id BIGINT,            -- Solo programadas EXECUTED: transferencia real que generaron
     
     -- Foreign Keys - Relaciones con tabla accounts
     CONSTRAINT fk_source_account 
@@ -33,17 +43,84 @@ CREATE TABLE transfers (
     
     -- Constraints de negocio
     CONSTRAINT positive_amount CHECK (amount > 0),  -- Monto debe ser positivo
-    CONSTRAINT different_accounts CHECK (source_account_id != destination_account_id) -- Cuentas diferentes
+    CONSTRAINT different_accounts CHECK (status = 'FAILED' OR source_account_id != destination_account_id), -- Cuentas diferentes
+    CONSTRAINT accounts_required CHECK (status = 'FAILED' OR (source_account_id IS NOT NULL AND destination_account_id IS NOT NULL))
+);
+
+-- Respuestas ya entregadas por Idempotency-Key (POST /api/transfers)
+CREATE TABLE transfer_idempotency (
+    idempotency_key VARCHAR(100) PRIMARY KEY,    -- Valor del header Idempotency-Key
+    transfer_id BIGINT,                          -- Transferencia resultante (COMPLETED o FAILED)
+    source_account_number VARCHAR(20),
+    destination_account_number VARCHAR(20),
+    amount NUMERIC(15, 2),
+    description VARCHAR(255),
+    status VARCHAR(20),                          -- NULL = todavía en ejecución
+    message VARCHAR(500),
+    error_code VARCHAR(40),                      -- ErrorCode de las FAILED
+    transfer_created_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP  -- Para purgar claves antiguas
+);
+
+-- Saldo por cuenta y día (solo días con movimientos), mantenido por DailyBalanceAggregator
+-- saldo al cierre = opening_balance + total_credits - total_debits
+CREATE TABLE account_daily_balances (
+    account_id BIGINT NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    day DATE NOT NULL,
+    opening_balance NUMERIC(15, 2) NOT NULL,     -- Saldo antes de la primera transferencia del día
+    total_debits NUMERIC(15, 2) NOT NULL DEFAULT 0,
+    total_credits NUMERIC(15, 2) NOT NULL DEFAULT 0,
+    transfer_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (account_id, day)                -- También sirve para "último snapshot <= fecha"
+);
+
+-- Eventos de transferencias COMPLETED pendientes de publicar (patrón outbox)
+-- Los escribe el trigger de transfer_outbox.sql en la MISMA transacción que la transferencia;
+-- service/outbox/OutboxRelay los publica y los borra (la PK ordena la publicación)
+CREATE TABLE transfer_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(30) NOT NULL,             -- TRANSFER_COMPLETED
+    transfer_id BIGINT NOT NULL,                 -- Sin FK: no se bloquea transfers al publicar
+    source_account_id BIGINT,
+    destination_account_id BIGINT,
+    amount NUMERIC(15, 2) NOT NULL,
+    transfer_created_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP  -- Para medir el retraso de publicación
+);
+
+-- Entradas del journal de modo LEDGER que no se pudieron escribir en transfers
+-- (error permanente o reintentos agotados). Sin FK: se guardan tal cual para revisarlas.
+-- Los saldos de esas entradas SÍ se escriben en accounts (son absolutos)
+CREATE TABLE ledger_dead_letters (
+    transfer_id BIGINT PRIMARY KEY,              -- ID ya reservado y devuelto al cliente
+    source_account_id BIGINT,
+    destination_account_id BIGINT,
+    amount NUMERIC(15, 2) NOT NULL,
+    description TEXT,                            -- Sin límite: puede ser justo lo que falló
+    status VARCHAR(20) NOT NULL,
+    transfer_created_at TIMESTAMP NOT NULL,
+    error VARCHAR(500),                          -- Mensaje del error de la BD
+    failed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
 -- Índices para mejorar rendimiento en queries
 CREATE INDEX idx_account_number ON accounts(account_number);
-CREATE INDEX idx_transfer_source ON transfers(source_account_id);
-CREATE INDEX idx_transfer_destination ON transfers(destination_account_id);
-CREATE INDEX idx_transfer_status ON transfers(status);
+-- Historial por cuenta: cada lado se lee ya ordenado por fecha (y sirve también para las FKs)
+CREATE INDEX idx_transfer_source_created ON transfers(source_account_id, created_at, id);
+CREATE INDEX idx_transfer_destination_created ON transfers(destination_account_id, created_at, id);
+-- Paginación por cursor: ORDER BY created_at DESC, id DESC sin ordenar en memoria
+CREATE INDEX idx_transfer_created ON transfers(created_at, id);
+CREATE INDEX idx_transfer_status_created ON transfers(status, created_at, id);
+-- Cola de liquidación (transfers.async): índice parcial, solo las filas PENDING;
+-- se mantiene chico aunque la tabla tenga millones de COMPLETED
+CREATE INDEX idx_transfer_pending ON transfers(created_at, id) WHERE status = 'PENDING';
+-- Programadas (service/schedule): el scheduler lee tramos por scheduled_at;
+-- índice parcial, solo las filas que esperan su hora
+CREATE INDEX idx_transfer_scheduled ON transfers(scheduled_at, id) WHERE status IN ('SCHEDULED', 'DISPATCHING');
+CREATE INDEX idx_idempotency_created ON transfer_idempotency(created_at);
 
 -- Datos de prueba
-INSERT INTO accounts (account_number, owner_name, balance) VALUES
-    ('1234567890', 'Juan Pérez', 1000.00),
-    ('0987654321', 'María García', 2500.50),
-    ('1111222233', 'Carlos López', 500.00);
\ No newline at end of file
+INSERT INTO accounts (account_number, owner_name, balance_cents) VALUES
+    ('1234567890', 'Juan Pérez', 100000),    -- 1000.00
+    ('0987654321', 'María García', 250050),  -- 2500.50
+    ('1111222233', 'Carlos López', 50000);   -- 500.00
@@ -0,0 +1,45 @@
+-- Patrón outbox: cada transferencia que pasa a COMPLETED deja un evento en
+-- transfer_outbox dentro de la MISMA transacción (si se revierte, no hay evento).
+-- Cubre todos los modos sin tocar los ejecutores: INSERT de una fila, INSERT
+-- multi-fila (ledger, group commit), la sentencia única de atomic y el
+-- paso de PENDING a COMPLETED.
+-- service/outbox/OutboxRelay publica los eventos y los borra.
+--
+-- Triggers por SENTENCIA con tablas de transición: un INSERT de 500
+-- transferencias genera UN INSERT ... SELECT en el outbox, no 500.
+-- Separador "@@" (cuerpo plpgsql con ';' internos), igual que account_notify.sql
+
+CREATE OR REPLACE FUNCTION enqueue_completed_transfers() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO transfer_outbox (event_type, transfer_id, source_account_id, destination_account_id,
+                                     amount, transfer_created_at)
+        SELECT 'TRANSFER_COMPLETED', t.id, t.source_account_id, t.destination_account_id, t.amount, t.created_at
+          FROM new_transfers t
+         WHERE t.status = 'COMPLETED'
+         ORDER BY t.id;
+    ELSE
+        INSERT INTO transfer_outbox (event_type, transfer_id, source_account_id, destination_account_id,
+                                     amount, transfer_created_at)
+        SELECT 'TRANSFER_COMPLETED', t.id, t.source_account_id, t.destination_account_id, t.amount, t.created_at
+          FROM new_transfers t
+          JOIN old_transfers o ON o.id = t.id
+         WHERE t.status = 'COMPLETED' AND o.status IS DISTINCT FROM 'COMPLETED'
+         ORDER BY t.id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql
+@@
+
+CREATE TRIGGER trg_transfer_outbox_insert
+    AFTER INSERT ON transfers
+    REFERENCING NEW TABLE AS new_transfers
+    FOR EACH STATEMENT EXECUTE FUNCTION enqueue_completed_transfers()
+@@
+
+CREATE TRIGGER trg_transfer_outbox_update
+    AFTER UPDATE ON transfers
+    REFERENCING OLD TABLE AS old_transfers NEW TABLE AS new_transfers
+    FOR EACH STATEMENT EXECUTE FUNCTION enqueue_completed_transfers()
+@@
@@ -0,0 +1,96 @@
+package com.example.transfers.service.execution;
+
+import com.example.transfers.exception.AccountNotFoundException;
+import com.example.transfers.exception.ErrorCode;
+import com.example.transfers.exception.InsufficientFundsException;
+import com.example.transfers.exception.TransferException;
+import com.example.transfers.model.Account;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"transfers.mode=atomic", "transfers.limits.enabled=false"})
+class AtomicTransferExecutorTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private TransferExecutor transferExecutor;
+
+    @Test
+    void opposingTransfersDoNotDeadlockAndKeepTheTotal() {
+        Account a = createAccount(100_000);
+        Account b = createAccount(100_000);
+
+        // A→B y B→A a la vez: sin locks ordenados por id, parte terminaría en deadlock
+        List<Transfer> completed = Flux.range(0, 200)
+            .flatMap(i -> transferExecutor.execute(i % 2 == 0 ? request(a, b, "1.00") : request(b, a, "1.00")), 32)
+            .collectList()
+            .block(TIMEOUT);
+
+        assertThat(completed).hasSize(200).allMatch(t -> Transfer.Status.COMPLETED.equals(t.getStatus()));
+        assertThat(storedBalance(a)).isEqualTo(100_000);
+        assertThat(storedBalance(b)).isEqualTo(100_000);
+        assertThat(countTransfers(a, Transfer.Status.COMPLETED)).isEqualTo(100);
+        assertThat(countTransfers(b, Transfer.Status.COMPLETED)).isEqualTo(100);
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdraw() {
+        Account source = createAccount(1_000);
+        Account destination = createAccount(0);
+
+        // 50 débitos de 1.00 contra un saldo de 10.00: exactamente 10 pasan
+        long completed = Flux.range(0, 50)
+            .flatMap(i -> transferExecutor.execute(request(source, destination, "1.00"))
+                .onErrorResume(InsufficientFundsException.class, error -> Mono.empty()), 16)
+            .count()
+            .block(TIMEOUT);
+
+        assertThat(completed).isEqualTo(10);
+        assertThat(storedBalance(source)).isZero();
+        assertThat(storedBalance(destination)).isEqualTo(1_000);
+    }
+
+    @Test
+    void insufficientFundsChangesNothing() {
+        Account source = createAccount(500);
+        Account destination = createAccount(0);
+
+        assertThatThrownBy(() -> transferExecutor.execute(request(source, destination, "5.01")).block(TIMEOUT))
+            .isInstanceOf(InsufficientFundsException.class);
+
+        assertThat(storedBalance(source)).isEqualTo(500);
+        assertThat(storedBalance(destination)).isZero();
+        assertThat(countTransfers(source, Transfer.Status.COMPLETED)).isZero();
+    }
+
+    @Test
+    void unknownDestinationChangesNothing() {
+        Account source = createAccount(500);
+        Account missing = new Account();
+        missing.setAccountNumber("NO-EXISTE");
+
+        assertThatThrownBy(() -> transferExecutor.execute(request(source, missing, "1.00")).block(TIMEOUT))
+            .isInstanceOf(AccountNotFoundException.class);
+
+        assertThat(storedBalance(source)).isEqualTo(500);
+    }
+
+    @Test
+    void sameAccountIsRejected() {
+        Account account = createAccount(500);
+
+        assertThatThrownBy(() -> transferExecutor.execute(request(account, account, "1.00")).block(TIMEOUT))
+            .isInstanceOfSatisfying(TransferException.class,
+                error -> assertThat(error.getErrorCode()).isEqualTo(ErrorCode.SAME_ACCOUNT));
+
+        assertThat(storedBalance(account)).isEqualTo(500);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.transfers.service.execution;
+
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.exception.AccountNotFoundException;
+import com.example.transfers.exception.ErrorCode;
+import com.example.transfers.exception.InsufficientFundsException;
+import com.example.transfers.exception.TransferException;
+import com.example.transfers.model.Account;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Ventana larga: las peticiones lanzadas juntas caen en el mismo lote
+@SpringBootTest(properties = {"transfers.mode=group_commit", "transfers.group-commit.window=100ms",
+                              "transfers.limits.enabled=false"})
+class GroupCommitTransferExecutorTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private TransferExecutor transferExecutor;
+
+    @Test
+    void rejectionsInsideABatchDoNotAffectTheOthers() {
+        Account a = createAccount(1_000);
+        Account b = createAccount(0);
+        Account missing = new Account();
+        missing.setAccountNumber("NO-EXISTE");
+
+        List<Outcome> outcomes = executeTogether(List.of(
+            request(a, b, "4.00"),
+            request(a, missing, "1.00"),
+            request(a, b, "4.00"),
+            // Saldo en curso del lote: quedan 2.00
+            request(a, b, "3.00"),
+            request(a, b, "2.00")));
+
+        assertThat(outcomes).extracting(Outcome::error)
+            .satisfiesExactly(
+                error -> assertThat(error).isNull(),
+                error -> assertThat(error).isInstanceOf(AccountNotFoundException.class),
+                error -> assertThat(error).isNull(),
+                error -> assertThat(error).isInstanceOf(InsufficientFundsException.class),
+                error -> assertThat(error).isNull());
+        assertThat(storedBalance(a)).isZero();
+        assertThat(storedBalance(b)).isEqualTo(1_000);
+        assertThat(countTransfers(a, Transfer.Status.COMPLETED)).isEqualTo(3);
+    }
+
+    @Test
+    void rowTheDatabaseRejectsFailsAloneAfterTheBatchIsSplit() {
+        Account a = createAccount(1_000);
+        Account b = createAccount(0);
+        // PostgreSQL no acepta el carácter NUL en texto: el INSERT del lote falla entero
+        TransferRequest poisoned = request(a, b, "1.00");
+        poisoned.setDescription("con \u0000 adentro");
+
+        List<Outcome> outcomes = executeTogether(List.of(
+            request(a, b, "1.00"),
+            poisoned,
+            request(a, b, "1.00")));
+
+        assertThat(outcomes.get(0).error()).isNull();
+        assertThat(outcomes.get(1).error()).isNotNull();
+        assertThat(outcomes.get(2).error()).isNull();
+        assertThat(storedBalance(a)).isEqualTo(800);
+        assertThat(storedBalance(b)).isEqualTo(200);
+        assertThat(countTransfers(a, Transfer.Status.COMPLETED)).isEqualTo(2);
+    }
+
+    @Test
+    void tooLongDescriptionIsRejectedBeforeJoiningABatch() {
+        Account a = createAccount(1_000);
+        Account b = createAccount(0);
+        TransferRequest request = request(a, b, "1.00");
+        request.setDescription("x".repeat(256));
+
+        assertThatThrownBy(() -> transferExecutor.execute(request).block(TIMEOUT))
+            .isInstanceOfSatisfying(TransferException.class,
+                error -> assertThat(error.getErrorCode()).isEqualTo(ErrorCode.INVALID_REQUEST));
+
+        assertThat(storedBalance(a)).isEqualTo(1_000);
+    }
+
+    @Test
+    void concurrentTransfersKeepTheTotal() {
+        List<Account> accounts = List.of(createAccount(10_000), createAccount(10_000),
+                                         createAccount(10_000), createAccount(10_000));
+
+        Flux.range(0, 400)
+            .flatMap(i -> transferExecutor.execute(request(accounts.get(i % 4), accounts.get((i * 7 + 1) % 4), "3.00"))
+                .onErrorResume(TransferException.class, error -> Mono.empty()), 64)
+            .blockLast(TIMEOUT);
+
+        assertThat(storedTotal(accounts)).isEqualTo(40_000);
+        assertThat(accounts).allSatisfy(account -> assertThat(storedBalance(account)).isNotNegative());
+    }
+
+    /**
+     * Lanzar todas a la vez (mismo lote) y devolver el resultado de cada una, en orden
+     */
+    private List<Outcome> executeTogether(List<TransferRequest> requests) {
+        return Flux.fromIterable(requests)
+            .flatMapSequential(request -> transferExecutor.execute(request)
+                .map(transfer -> new Outcome(transfer, null))
+                .onErrorResume(error -> Mono.just(new Outcome(null, error))), requests.size())
+            .collectList()
+            .block(TIMEOUT);
+    }
+
+    private record Outcome(Transfer transfer, Throwable error) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.transfers.service.ledger;
+
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.exception.InsufficientFundsException;
+import com.example.transfers.model.Account;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"transfers.mode=ledger", "transfers.limits.enabled=false"})
+class LedgerEngineTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
+    @Test
+    void journalLeavesTheDatabaseEqualToMemory() {
+        List<Account> accounts = List.of(createAccount(10_000), createAccount(10_000), createAccount(10_000));
+
+        long completed = Flux.range(0, 300)
+            .flatMap(i -> ledgerEngine.transfer(request(accounts.get(i % 3), accounts.get((i + 1) % 3), "7.00"))
+                .onErrorResume(InsufficientFundsException.class, error -> Mono.empty()), 32)
+            .count()
+            .block(TIMEOUT);
+
+        eventually(() -> {
+            for (Account account : accounts) {
+                long inMemory = ledgerEngine.findAccount(account.getAccountNumber()).block(TIMEOUT).getBalanceCents();
+                assertThat(storedBalance(account)).isEqualTo(inMemory);
+            }
+        });
+        assertThat(storedTotal(accounts)).isEqualTo(30_000);
+        long journaled = accounts.stream().mapToLong(account -> countTransfers(account, Transfer.Status.COMPLETED)).sum();
+        assertThat(journaled).isEqualTo(completed);
+    }
+
+    @Test
+    void insufficientFundsIsRejectedInMemory() {
+        Account source = createAccount(100);
+        Account destination = createAccount(0);
+
+        assertThatThrownBy(() -> ledgerEngine.transfer(request(source, destination, "1.01")).block(TIMEOUT))
+            .isInstanceOf(InsufficientFundsException.class);
+
+        assertThat(ledgerEngine.findAccount(source.getAccountNumber()).block(TIMEOUT).getBalanceCents()).isEqualTo(100);
+    }
+
+    @Test
+    void entryTheDatabaseRejectsGoesToDeadLettersWithoutBlockingTheJournal() {
+        Account source = createAccount(1_000);
+        Account destination = createAccount(0);
+        // Sin pasar por @Valid: más de 255 caracteres no entra en transfers.description
+        TransferRequest rejected = request(source, destination, "2.00");
+        rejected.setDescription("x".repeat(300));
+
+        Transfer bad = ledgerEngine.transfer(rejected).block(TIMEOUT);
+        Transfer good = ledgerEngine.transfer(request(source, destination, "3.00")).block(TIMEOUT);
+
+        eventually(() -> {
+            assertThat(countTransfers(source, Transfer.Status.COMPLETED)).isEqualTo(1);
+            assertThat(deadLetters(bad.getId())).isEqualTo(1);
+        });
+        assertThat(deadLetters(good.getId())).isZero();
+        // Los saldos reflejan las dos: la memoria ya había aplicado ambas
+        assertThat(storedBalance(source)).isEqualTo(500);
+        assertThat(storedBalance(destination)).isEqualTo(500);
+    }
+
+    private long deadLetters(Long transferId) {
+        return databaseClient.sql("SELECT count(*) AS n FROM ledger_dead_letters WHERE transfer_id = :id")
+            .bind("id", transferId)
+            .map((row, metadata) -> row.get("n", Long.class))
+            .one()
+            .block(TIMEOUT);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.transfers.service.limits;
+
+import com.example.transfers.exception.ErrorCode;
+import com.example.transfers.exception.LimitExceededException;
+import com.example.transfers.model.Account;
+import com.example.transfers.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// STANDARD: 10000.00 por día y 30 transferencias por minuto (application.yml)
+@SpringBootTest(properties = "transfers.limits.enabled=true")
+class AccountLimiterTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private AccountLimiter accountLimiter;
+
+    @Test
+    void firstAcquireSeedsTheDailyWindowFromStoredTransfers() {
+        Account source = createAccount(5_000_000);
+        Account destination = createAccount(0);
+        // 9000.00 ya enviados hoy, por ejemplo desde otra réplica
+        insertCompleted(source, destination, "9000.00");
+
+        // Con la ventana vacía entrarían 2000.00; con la sembrada se pasa del tope
+        assertThatThrownBy(() -> accountLimiter.acquire(source, 200_000).block(TIMEOUT))
+            .isInstanceOfSatisfying(LimitExceededException.class,
+                error -> assertThat(error.getErrorCode()).isEqualTo(ErrorCode.LIMIT_EXCEEDED));
+
+        assertThat(accountLimiter.acquire(source, 100_000).block(TIMEOUT)).isNotNull();
+    }
+
+    @Test
+    void releaseReturnsTheReservedAmount() {
+        Account source = createAccount(5_000_000);
+
+        AccountLimiter.Reservation reservation = accountLimiter.acquire(source, 1_000_000).block(TIMEOUT);
+        assertThatThrownBy(() -> accountLimiter.acquire(source, 1).block(TIMEOUT))
+            .isInstanceOf(LimitExceededException.class);
+
+        accountLimiter.release(reservation);
+
+        assertThat(accountLimiter.acquire(source, 1_000_000).block(TIMEOUT)).isNotNull();
+    }
+
+    @Test
+    void rateLimitCountsAttemptsEvenWhenReleased() {
+        Account source = createAccount(5_000_000);
+
+        for (int i = 0; i < 30; i++) {
+            accountLimiter.release(accountLimiter.acquire(source, 1).block(TIMEOUT));
+        }
+
+        assertThatThrownBy(() -> accountLimiter.acquire(source, 1).block(TIMEOUT))
+            .isInstanceOf(LimitExceededException.class);
+    }
+
+    private void insertCompleted(Account source, Account destination, String amount) {
+        databaseClient.sql("""
+                INSERT INTO transfers (source_account_id, destination_account_id, amount, status, created_at)
+                VALUES (:source, :destination, CAST(:amount AS numeric), 'COMPLETED', :createdAt)
+                """)
+            .bind("source", source.getId())
+            .bind("destination", destination.getId())
+            .bind("amount", amount)
+            .bind("createdAt", LocalDateTime.now())
+            .fetch()
+            .rowsUpdated()
+            .block(TIMEOUT);
+    }
+}
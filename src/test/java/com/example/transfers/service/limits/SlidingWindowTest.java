@@ -0,0 +1,53 @@
+package com.example.transfers.service.limits;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowTest {
+
+    private final SlidingWindow window = new SlidingWindow(4);
+
+    @Test
+    void sumsOnlyTheLastBuckets() {
+        window.add(10, 100);
+        window.add(11, 20);
+        window.add(13, 3);
+
+        // Ventana (9, 13]
+        assertThat(window.sum(13)).isEqualTo(123);
+        // Ventana (10, 14]: el tramo 10 ya salió
+        assertThat(window.sum(14)).isEqualTo(23);
+    }
+
+    @Test
+    void reusedSlotStartsFromZero() {
+        window.add(1, 50);
+        // Mismo casillero (5 mod 4 = 1): el tramo viejo se descarta al escribir
+        window.add(5, 7);
+
+        assertThat(window.get(1)).isZero();
+        assertThat(window.get(5)).isEqualTo(7);
+        assertThat(window.sum(5)).isEqualTo(7);
+    }
+
+    @Test
+    void subtractNeverGoesBelowZeroAndIgnoresExpiredBuckets() {
+        window.add(2, 30);
+        window.subtract(2, 50);
+        assertThat(window.get(2)).isZero();
+
+        window.add(6, 10);
+        // La reserva era del tramo 2, que ya fue reemplazado por el 6
+        window.subtract(2, 10);
+        assertThat(window.get(6)).isEqualTo(10);
+    }
+
+    @Test
+    void setReplacesTheBucketTotal() {
+        window.add(3, 40);
+        window.set(3, 15);
+
+        assertThat(window.sum(3)).isEqualTo(15);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.transfers.service.schedule;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimingWheelTest {
+
+    // Tick de 100 ms, 8 casilleros, 3 niveles: el nivel 0 cubre 800 ms, el 1 6,4 s, el 2 51,2 s
+    private final TimingWheel<String> wheel = new TimingWheel<>(100, 8, 3, 0);
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    void entryNeverExpiresBeforeItsDeadline() {
+        wheel.schedule(250, "a");
+
+        wheel.advance(200, expired::add);
+        assertThat(expired).isEmpty();
+
+        // Vence en el tick que cubre el deadline (redondeado hacia arriba)
+        wheel.advance(300, expired::add);
+        assertThat(expired).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDeadlineIsNotScheduled() {
+        wheel.advance(1_000, expired::add);
+
+        assertThat(wheel.schedule(900, "late")).isFalse();
+        assertThat(wheel.schedule(1_000, "now")).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void entriesOnHigherLevelsCascadeDownAndExpireInOrder() {
+        wheel.schedule(30_000, "level2");
+        wheel.schedule(5_000, "level1");
+        wheel.schedule(500, "level0");
+        assertThat(wheel.size()).isEqualTo(3);
+
+        wheel.advance(4_900, expired::add);
+        assertThat(expired).containsExactly("level0");
+
+        wheel.advance(29_900, expired::add);
+        assertThat(expired).containsExactly("level0", "level1");
+
+        wheel.advance(30_000, expired::add);
+        assertThat(expired).containsExactly("level0", "level1", "level2");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void entryBeyondTheLastLevelIsReplacedUntilItsTime() {
+        // 51,2 s de rango: 2 minutos queda en el casillero más lejano y se reubica
+        wheel.schedule(120_000, "far");
+
+        wheel.advance(119_900, expired::add);
+        assertThat(expired).isEmpty();
+        assertThat(wheel.size()).isEqualTo(1);
+
+        wheel.advance(120_000, expired::add);
+        assertThat(expired).containsExactly("far");
+    }
+
+    @Test
+    void manyEntriesForTheSameInstantExpireTogether() {
+        for (int i = 0; i < 1_000; i++) {
+            wheel.schedule(10_000, "t" + i);
+        }
+
+        wheel.advance(10_000, expired::add);
+
+        assertThat(expired).hasSize(1_000);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new TimingWheel<String>(0, 8, 3, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TimingWheel<String>(100, 1, 3, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
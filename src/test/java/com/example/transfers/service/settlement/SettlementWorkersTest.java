@@ -0,0 +1,55 @@
+package com.example.transfers.service.settlement;
+
+import com.example.transfers.dto.TransferResponse;
+import com.example.transfers.model.Account;
+import com.example.transfers.model.Transfer;
+import com.example.transfers.service.TransferService;
+import com.example.transfers.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Flux;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"transfers.async.enabled=true", "transfers.limits.enabled=false"})
+class SettlementWorkersTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private TransferService transferService;
+
+    @Test
+    void pendingTransfersAreSettledWithoutOverdrawing() {
+        Account source = createAccount(500);
+        Account destination = createAccount(0);
+
+        // Se aceptan las tres (el saldo se valida al liquidar): solo alcanza para una de 3.00
+        List<TransferResponse> accepted = Flux.range(0, 3)
+            .concatMap(i -> transferService.performTransfer(request(source, destination, "3.00")))
+            .collectList()
+            .block(TIMEOUT);
+        assertThat(accepted).allMatch(response -> Transfer.Status.PENDING.equals(response.getStatus()));
+
+        eventually(() -> assertThat(countTransfers(source, Transfer.Status.PENDING)).isZero());
+        assertThat(countTransfers(source, Transfer.Status.COMPLETED)).isEqualTo(1);
+        assertThat(countTransfers(source, Transfer.Status.FAILED)).isEqualTo(2);
+        assertThat(storedBalance(source)).isEqualTo(200);
+        assertThat(storedBalance(destination)).isEqualTo(300);
+    }
+
+    @Test
+    void concurrentSettlementKeepsTheTotal() {
+        List<Account> accounts = List.of(createAccount(5_000), createAccount(5_000), createAccount(5_000));
+
+        Flux.range(0, 150)
+            .flatMap(i -> transferService.performTransfer(
+                request(accounts.get(i % 3), accounts.get((i + 1) % 3), "4.00")), 32)
+            .blockLast(TIMEOUT);
+
+        eventually(() -> assertThat(accounts)
+            .allSatisfy(account -> assertThat(countTransfers(account, Transfer.Status.PENDING)).isZero()));
+        assertThat(storedTotal(accounts)).isEqualTo(15_000);
+        assertThat(accounts).allSatisfy(account -> assertThat(storedBalance(account)).isNotNegative());
+    }
+}
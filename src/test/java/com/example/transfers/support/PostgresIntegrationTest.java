@@ -0,0 +1,127 @@
+/*¿Para qué sirve?
+
+Base de las pruebas de integración: la aplicación real contra un PostgreSQL
+en Docker (Testcontainers), porque el SQL de los modos por lotes (unnest,
+FOR UPDATE en CTEs, ON CONFLICT) no corre en H2
+
+- Un solo contenedor para todas las clases (se arranca una vez por JVM)
+- Cada subclase elige el modo con @SpringBootTest(properties = ...)
+- schema.sql recrea las tablas al arrancar cada contexto: las pruebas crean
+  sus propias cuentas (números únicos) y solo miran esas
+- @DirtiesContext: el contexto se cierra al terminar la clase, así sus tareas
+  periódicas (workers, scheduler) no siguen corriendo mientras otra clase
+  vuelve a crear las tablas
+- Sin Docker las pruebas se saltan en lugar de fallar
+ *
+ */
+
+package com.example.transfers.support;
+
+import com.example.transfers.dto.TransferRequest;
+import com.example.transfers.model.Account;
+import com.example.transfers.repository.AccountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@DirtiesContext
+public abstract class PostgresIntegrationTest {
+
+    protected static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+    private static final AtomicLong ACCOUNT_SEQUENCE = new AtomicLong();
+
+    @Autowired
+    protected AccountRepository accountRepository;
+
+    @Autowired
+    protected DatabaseClient databaseClient;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        // start() no hace nada si el contenedor ya está corriendo
+        POSTGRES.start();
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + POSTGRES.getHost() + ":"
+            + POSTGRES.getFirstMappedPort() + "/" + POSTGRES.getDatabaseName());
+        registry.add("spring.r2dbc.username", POSTGRES::getUsername);
+        registry.add("spring.r2dbc.password", POSTGRES::getPassword);
+    }
+
+    /**
+     * Cuenta nueva con número único (las pruebas no se pisan entre sí)
+     */
+    protected Account createAccount(long balanceCents) {
+        Account account = new Account();
+        account.setAccountNumber(String.format("T%09d", ACCOUNT_SEQUENCE.incrementAndGet()));
+        account.setOwnerName("Cuenta de prueba");
+        account.setTier("STANDARD");
+        account.setBalanceCents(balanceCents);
+        return accountRepository.save(account).block(TIMEOUT);
+    }
+
+    protected static TransferRequest request(Account source, Account destination, String amount) {
+        return new TransferRequest(source.getAccountNumber(), destination.getAccountNumber(),
+                                   new BigDecimal(amount), "Prueba");
+    }
+
+    /**
+     * Saldo guardado en la BD (no el de ninguna caché ni motor en memoria)
+     */
+    protected long storedBalance(Account account) {
+        return accountRepository.findById(account.getId())
+            .map(Account::getBalanceCents)
+            .block(TIMEOUT);
+    }
+
+    protected long storedTotal(Collection<Account> accounts) {
+        return accounts.stream().mapToLong(this::storedBalance).sum();
+    }
+
+    /**
+     * Repetir la verificación hasta que pase (escrituras asíncronas: journal, workers)
+     * o hasta TIMEOUT, y entonces fallar con el último error
+     */
+    protected static void eventually(Runnable assertion) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (true) {
+            try {
+                assertion.run();
+                return;
+            } catch (AssertionError error) {
+                if (System.nanoTime() > deadline) {
+                    throw error;
+                }
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Transferencias guardadas con ese origen y estado
+     */
+    protected long countTransfers(Account source, String status) {
+        return databaseClient.sql("SELECT count(*) AS n FROM transfers WHERE source_account_id = :id AND status = :status")
+            .bind("id", source.getId())
+            .bind("status", status)
+            .map((row, metadata) -> row.get("n", Long.class))
+            .one()
+            .block(TIMEOUT);
+    }
+}